@@ -0,0 +1,28 @@
+package jdart.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks of jdart.bench with the GC profiler enabled,
+ * so the allocation rate is reported alongside the throughput.
+ * 
+ * Usual JMH command line options are accepted, by example a regex
+ * to select the benchmarks.
+ */
+public class BenchmarkMain {
+  public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+    CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+    OptionsBuilder builder = new OptionsBuilder();
+    builder.parent(commandLineOptions);
+    if (commandLineOptions.getIncludes().isEmpty()) {
+      builder.include(BenchmarkMain.class.getPackage().getName() + ".*");
+    }
+    builder.addProfiler(GCProfiler.class);
+    new Runner(builder.build()).run();
+  }
+}
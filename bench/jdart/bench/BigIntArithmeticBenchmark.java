@@ -0,0 +1,75 @@
+package jdart.bench;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import jdart.runtime.BigInt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Multiplication, squaring, division and decimal conversion of large BigInts,
+ * the operands of the division are a 2*bits number and a bits number.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BigIntArithmeticBenchmark {
+  @Param({"1000", "10000", "100000"})
+  public int bits;
+  
+  private BigInt x;
+  private BigInt y;
+  private BigInt dividend;
+  
+  private static BigInt random(int bits, Random random) {
+    return BigInt.valueOf(new BigInteger(bits, random).setBit(bits - 1).toString());
+  }
+  
+  @Setup
+  public void setup() {
+    Random random = new Random(0);
+    x = random(bits, random);
+    y = random(bits, random);
+    dividend = random(2 * bits, random);
+  }
+  
+  @Benchmark
+  public BigInt multiply() {
+    return x.multiply(y);
+  }
+  
+  @Benchmark
+  public BigInt square() {
+    return x.multiply(x);
+  }
+  
+  @Benchmark
+  public BigInt divide() {
+    return dividend.divide(y);
+  }
+  
+  @Benchmark
+  public BigInt remainder() {
+    return dividend.remainder(y);
+  }
+  
+  @Benchmark
+  public String toDecimalString() {
+    return x.toString();
+  }
+}
@@ -0,0 +1,85 @@
+package jdart.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import jdart.runtime.BigInt;
+import jdart.runtime.RT;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The mixed int paths of RT, an int operand against a BigInt operand,
+ * as called by the code generated once a value doesn't fit in an int.
+ * Run with the GC profiler to see the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BigIntBenchmark {
+  @Param({"20", "25"})
+  public int n;
+  
+  private BigInt nAsBigInt;
+  private BigInt big;
+  
+  @Setup
+  public void setup() {
+    nAsBigInt = BigInt.valueOf(n);
+    big = BigInt.valueOf(Long.MAX_VALUE);
+  }
+  
+  // like NumBigFibo but n and the result are BigInts and the constants are ints
+  private static BigInt fibo(BigInt n) {
+    if (RT.ltBig(0, n, 2, null)) {
+      return BigInt.valueOf(1);
+    }
+    BigInt r1 = fibo(RT.subtractBig(0, n, 1, null));
+    BigInt r2 = fibo(RT.subtractBig(0, n, 2, null));
+    return RT.addBig(0, r1, 0, r2);
+  }
+  
+  @Benchmark
+  public BigInt mixedFibo() {
+    return fibo(nAsBigInt);
+  }
+  
+  @Benchmark
+  public BigInt mixedAdd() {
+    BigInt result = big;
+    for (int i = 0; i < n; i++) {
+      result = RT.addBig(0, result, i, null);
+    }
+    return result;
+  }
+  
+  @Benchmark
+  public BigInt mixedMultiply() {
+    BigInt result = big;
+    for (int i = 1; i < n; i++) {
+      result = RT.multiplyBig(0, result, i, null);
+    }
+    return result;
+  }
+  
+  @Benchmark
+  public BigInt smallValueOf() {
+    BigInt result = null;
+    for (int i = -n; i < n; i++) {
+      result = BigInt.valueOf(i);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,114 @@
+package jdart.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+import jdart.runtime.BigInt;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Fibonacci, the hand-written Java versions of rt/ against the code
+ * generated for DartTest/Fibo.dart.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FiboBenchmark {
+  private static final MethodHandle CLASSIC_FIBO = Samples.sample("ClassicFibo", "fibo", int.class);
+  private static final MethodHandle FIBO_AS_DART = Samples.sample("FiboAsDart", "fibo", int.class);
+  private static final MethodHandle FIBO_AS_DART_BRANCH = Samples.sample("FiboAsDartBranch", "fibo", int.class);
+  private static final MethodHandle FIBO_AS_DART_CARRIER = Samples.sample("FiboAsDartCarrier", "fibo", int.class);
+  private static final MethodHandle NUM_FIBO = Samples.sample("NumFibo", "fibo", double.class);
+  private static final MethodHandle NUM_FIBO_AS_DART = Samples.sample("NumFiboAsDart", "fibo", double.class);
+  private static final MethodHandle NUM_BIG_FIBO = Samples.sample("NumBigFibo", "fibo", Double.class);
+  private static final MethodHandle BIG_FIBO = Samples.sample("BigFibo", "fibo", BigInt.class);
+  
+  @Param({"20", "30"})
+  public int n;
+  
+  private double nAsDouble;
+  private Double nAsBoxedDouble;
+  private BigInt nAsBigInt;
+  private MethodHandle generatedFibo;
+  private MethodHandle generatedFiboBranch;
+  
+  @Setup
+  public void setup() {
+    nAsDouble = n;
+    nAsBoxedDouble = nAsDouble;
+    nAsBigInt = BigInt.valueOf(n);
+    
+    // the profile (I)I of fibo, as generated by Gen.genAll
+    generatedFibo = Samples.generated("jdart.bench.gen.dir", "jdart.bench.fibo", "Fibo", "fibo",
+        MethodType.methodType(int.class, int.class));
+    
+    // the same code generated with -Djdart.gen.overflow=branch
+    generatedFiboBranch = Samples.generated("jdart.bench.gen.branch.dir", "jdart.bench.fibo", "Fibo", "fibo",
+        MethodType.methodType(int.class, int.class));
+  }
+  
+  @Benchmark
+  public int classicFibo() throws Throwable {
+    return (int)CLASSIC_FIBO.invokeExact(n);
+  }
+  
+  @Benchmark
+  public int fiboAsDart() throws Throwable {
+    return (int)FIBO_AS_DART.invokeExact(n);
+  }
+  
+  @Benchmark
+  public int fiboAsDartBranch() throws Throwable {
+    return (int)FIBO_AS_DART_BRANCH.invokeExact(n);
+  }
+  
+  @Benchmark
+  public int fiboAsDartCarrier() throws Throwable {
+    return (int)FIBO_AS_DART_CARRIER.invokeExact(n);
+  }
+  
+  @Benchmark
+  public int numFibo() throws Throwable {
+    return (int)NUM_FIBO.invokeExact(nAsDouble);
+  }
+  
+  @Benchmark
+  public int numFiboAsDart() throws Throwable {
+    return (int)NUM_FIBO_AS_DART.invokeExact(nAsDouble);
+  }
+  
+  @Benchmark
+  public int numBigFibo() throws Throwable {
+    return (int)NUM_BIG_FIBO.invokeExact(nAsBoxedDouble);
+  }
+  
+  @Benchmark
+  public BigInt bigFibo() throws Throwable {
+    return (BigInt)BIG_FIBO.invokeExact(nAsBigInt);
+  }
+  
+  @Benchmark
+  public int generatedFibo() throws Throwable {
+    return (int)generatedFibo.invokeExact(n);
+  }
+  
+  @Benchmark
+  public int generatedFiboBranch() throws Throwable {
+    return (int)generatedFiboBranch.invokeExact(n);
+  }
+}
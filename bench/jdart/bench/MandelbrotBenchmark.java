@@ -0,0 +1,73 @@
+package jdart.bench;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mandelbrot, the hand-written Java version of rt/ against the code
+ * generated for DartTest/Mandelbrot.dart.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MandelbrotBenchmark {
+  private static final MethodHandle CLASSIC_MANDELBROT = Samples.sample("ClassicMandelbrot", "main", String[].class);
+  
+  private static final String[] NO_ARGS = new String[0];
+  
+  private PrintStream out;
+  private MethodHandle generatedMandelbrot;
+  
+  @Setup
+  public void setup() {
+    // the generated code prints the computed values,
+    // the print call site is bound to System.out at link time
+    out = System.out;
+    System.setOut(new PrintStream(new OutputStream() {
+      @Override
+      public void write(int b) {
+        // empty
+      }
+      @Override
+      public void write(byte[] b, int off, int len) {
+        // empty
+      }
+    }));
+    
+    generatedMandelbrot = Samples.generated("jdart.bench.gen.dir", "jdart.bench.mandelbrot", "Mandelbrot", "main",
+        MethodType.methodType(void.class));
+  }
+  
+  @TearDown
+  public void tearDown() {
+    System.setOut(out);
+  }
+  
+  @Benchmark
+  public void classicMandelbrot() throws Throwable {
+    CLASSIC_MANDELBROT.invokeExact(NO_ARGS);
+  }
+  
+  @Benchmark
+  public void generatedMandelbrot() throws Throwable {
+    generatedMandelbrot.invokeExact();
+  }
+}
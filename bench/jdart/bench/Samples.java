@@ -0,0 +1,56 @@
+package jdart.bench;
+
+import java.io.File;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+/**
+ * Access to the benchmarked code.
+ * 
+ * The hand-translated samples of rt/ live in the default package and
+ * their methods are private, so they are found by reflection.
+ * The classes generated by Gen.genAll are loaded from the directory
+ * specified by a system property, {@code jdart.bench.gen.dir} for the
+ * default code generation options (the working directory of the compiler
+ * by default).
+ */
+class Samples {
+  private Samples() {
+    // no instance
+  }
+  
+  /**
+   * Returns a method handle on a static method of a sample of rt/.
+   */
+  static MethodHandle sample(String className, String methodName, Class<?>... parameterTypes) {
+    try {
+      Class<?> clazz = Class.forName(className);
+      Method method = clazz.getDeclaredMethod(methodName, parameterTypes);
+      method.setAccessible(true);
+      return MethodHandles.lookup().unreflect(method);
+    } catch (ReflectiveOperationException e) {
+      throw new AssertionError(e);
+    }
+  }
+  
+  /**
+   * Returns a method handle on a static method of a class generated by Gen.
+   */
+  static MethodHandle generated(String directoryProperty, String classNameProperty, String defaultClassName, String methodName, MethodType methodType) {
+    String className = System.getProperty(classNameProperty, defaultClassName);
+    File directory = new File(System.getProperty(directoryProperty, "."));
+    try {
+      URLClassLoader classLoader = new URLClassLoader(new URL[] { directory.toURI().toURL() }, Samples.class.getClassLoader());
+      Class<?> clazz = classLoader.loadClass(className);
+      return MethodHandles.publicLookup().findStatic(clazz, methodName, methodType);
+    } catch (MalformedURLException | ReflectiveOperationException e) {
+      throw new IllegalStateException("can not find " + className + '.' + methodName + methodType +
+          " in " + directory + ", run the compiler on the corresponding dart file first", e);
+    }
+  }
+}
@@ -0,0 +1,58 @@
+import jdart.runtime.BigInt;
+import jdart.runtime.BigIntCarrier;
+import jdart.runtime.RT;
+
+// same as FiboAsDart but a big result is returned in a carrier 
+public class FiboAsDartCarrier {
+  private static int fibo(int n, BigIntCarrier carrier) {
+    if (n < 2) {
+      return 1;
+    }
+    int r1 = fibo(n -1, carrier);
+    BigInt _r1 = carrier.value;
+    if (_r1 != null) {
+      carrier.value = null;
+      r1 = 0;
+    }
+    int r2 = fibo(n -2, carrier);
+    BigInt _r2 = carrier.value;
+    if (_r2 != null) {
+      carrier.value = null;
+      r2 = 0;
+    }
+    int r3;
+    BigInt _r3;
+    if (_r1 == null && _r2 == null) {
+      try {
+        r3 = RT.addExact(r1, r2);
+        _r3 = null;
+      } catch(ArithmeticException e) {
+        _r3 = RT.addOverflowed(r1, r2);
+        r3 = 0;
+      }
+    } else {
+      _r3 = RT.addBig(r1, _r1, r2, _r2);
+      r3 = 0;
+    }
+    if (_r3 == null) {
+      return r3;
+    }
+    carrier.value = _r3;
+    return 0;
+  }
+  
+  private static int fibo(int n) {
+    return fibo(n, new BigIntCarrier());
+  }
+
+  public static void main(String[] args) {
+    BigIntCarrier carrier = new BigIntCarrier();
+    int r1 = fibo(40, carrier);
+    BigInt _r1 = carrier.value;
+    if (_r1 == null) {
+      System.out.println(r1);
+    } else {
+      System.out.println(_r1);
+    }
+  }
+}
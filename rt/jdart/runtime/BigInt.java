@@ -62,6 +62,60 @@ public class BigInt implements Comparable<BigInt> {
    */
   final static long LONG_MASK = 0xffffffffL;
 
+  /**
+   * The threshold value for using Karatsuba multiplication. If the number of
+   * ints in both mag arrays are greater than this number, then Karatsuba
+   * multiplication will be used. This value is found experimentally to work
+   * well.
+   */
+  private static final int KARATSUBA_THRESHOLD = 80;
+
+  /**
+   * The threshold value for using 3-way Toom-Cook multiplication. If the
+   * number of ints in each mag array is greater than the Karatsuba threshold,
+   * and the number of ints in at least one of the mag arrays is greater than
+   * this threshold, then Toom-Cook multiplication will be used.
+   */
+  private static final int TOOM_COOK_THRESHOLD = 240;
+
+  /**
+   * The threshold value for using Karatsuba squaring. If the number of ints in
+   * the number are larger than this value, Karatsuba squaring will be used.
+   * This value is found experimentally to work well.
+   */
+  private static final int KARATSUBA_SQUARE_THRESHOLD = 128;
+
+  /**
+   * The threshold value for using Toom-Cook squaring. If the number of ints in
+   * the number are larger than this value, Toom-Cook squaring will be used.
+   * This value is found experimentally to work well.
+   */
+  private static final int TOOM_COOK_SQUARE_THRESHOLD = 216;
+
+  /**
+   * The threshold value for using squaring code to perform multiplication of
+   * a BigInteger instance by itself. If the number of ints in the number are
+   * larger than this value, {@code multiply(this)} will return
+   * {@code square()}.
+   */
+  private static final int MULTIPLY_SQUARE_THRESHOLD = 20;
+
+  /**
+   * The threshold value for using Burnikel-Ziegler division. If the number of
+   * ints in the divisor are larger than this value, Burnikel-Ziegler division
+   * may be used. This value is found experimentally to work well.
+   */
+  static final int BURNIKEL_ZIEGLER_THRESHOLD = 80;
+
+  /**
+   * The offset value for using Burnikel-Ziegler division. If the number of
+   * ints in the divisor exceeds the Burnikel-Ziegler threshold, and the number
+   * of ints in the dividend is greater than the number of ints in the divisor
+   * plus this value, Burnikel-Ziegler division will be used. This value is
+   * found experimentally to work well.
+   */
+  static final int BURNIKEL_ZIEGLER_OFFSET = 40;
+
   // Constructors
 
   /**
@@ -219,6 +273,10 @@ public class BigInt implements Comparable<BigInt> {
   public static BigInt valueOf(long val) {
     if (val == 0)
       return ZERO;
+    if (val > 0 && val <= MAX_CONSTANT)
+      return posConst[(int) val];
+    if (val < 0 && val >= -MAX_CONSTANT)
+      return negConst[(int) -val];
     return new BigInt(val);
   }
 
@@ -251,6 +309,10 @@ public class BigInt implements Comparable<BigInt> {
   public static BigInt valueOf(int val) {
     if (val == 0)
       return ZERO;
+    if (val > 0 && val <= MAX_CONSTANT)
+      return posConst[val];
+    if (val < 0 && val >= -MAX_CONSTANT)
+      return negConst[-val];
     return new BigInt(val);
   }
 
@@ -289,6 +351,22 @@ public class BigInt implements Comparable<BigInt> {
    */
   public static final BigInt ZERO = new BigInt(new int[0], 0);
 
+  /**
+   * Initialize static constant array when class is loaded.
+   * The cache must be initialized before any other static field
+   * that calls valueOf (see longRadix).
+   */
+  private final static int MAX_CONSTANT = 1024;
+  private static final BigInt posConst[] = new BigInt[MAX_CONSTANT + 1];
+  private static final BigInt negConst[] = new BigInt[MAX_CONSTANT + 1];
+  static {
+    for (int i = 1; i <= MAX_CONSTANT; i++) {
+      int[] magnitude = new int[] { i };
+      posConst[i] = new BigInt(magnitude, 1);
+      negConst[i] = new BigInt(magnitude, -1);
+    }
+  }
+
   
   /**
    * The null value, packed in a BigNum.
@@ -327,6 +405,90 @@ public class BigInt implements Comparable<BigInt> {
     return new BigInt(resultMag, cmp == signum ? 1 : -1);
   }
 
+  /**
+   * Returns a BigInteger whose value is {@code (this + val)}. This avoids
+   * boxing {@code val} when one side of a mixed int operation is an int.
+   * 
+   * @param val
+   *          value to be added to this BigInteger.
+   * @return {@code this + val}
+   */
+  public BigInt add(int val) {
+    if (val < 0) {
+      return addMagnitude(-1, -val);
+    }
+    return addMagnitude(1, val);
+  }
+
+  /**
+   * Returns a BigInteger whose value is {@code (this + sign * magnitude)},
+   * magnitude is an unsigned 32 bits value.
+   */
+  private BigInt addMagnitude(int sign, int magnitude) {
+    if (mag == null) {
+      throw new NullPointerException();
+    }
+    if (magnitude == 0)
+      return this;
+    if (signum == 0)
+      return valueOf(sign * (magnitude & LONG_MASK));
+    if (sign == signum)
+      return new BigInt(add(mag, magnitude), signum);
+
+    int cmp = compareMagnitude(magnitude);
+    if (cmp == 0)
+      return ZERO;
+    int[] resultMag = (cmp > 0 ? subtract(mag, magnitude)
+        : new int[] { magnitude - mag[0] });
+    resultMag = trustedStripLeadingZeroInts(resultMag);
+    return new BigInt(resultMag, cmp == signum ? 1 : -1);
+  }
+
+  /**
+   * Compares the magnitude array of this BigInteger with the specified
+   * unsigned 32 bits magnitude.
+   */
+  private int compareMagnitude(int magnitude) {
+    int len = mag.length;
+    if (len > 1)
+      return 1;
+    if (len == 0)
+      return -1;
+    long a = mag[0] & LONG_MASK;
+    long b = magnitude & LONG_MASK;
+    return (a == b) ? 0 : (a < b) ? -1 : 1;
+  }
+
+  /**
+   * Adds the unsigned int y to the contents of the int array x. This method
+   * allocates a new int array to hold the answer and returns a reference to
+   * that array.
+   */
+  private static int[] add(int[] x, int y) {
+    int xIndex = x.length;
+    int result[] = new int[xIndex];
+    long sum = (x[--xIndex] & LONG_MASK) + (y & LONG_MASK);
+    result[xIndex] = (int) sum;
+
+    // Copy remainder of the number while carry propagation is required
+    boolean carry = (sum >>> 32 != 0);
+    while (xIndex > 0 && carry)
+      carry = ((result[--xIndex] = x[xIndex] + 1) == 0);
+
+    // Copy remainder of the number
+    while (xIndex > 0)
+      result[--xIndex] = x[xIndex];
+
+    // Grow result if necessary
+    if (carry) {
+      int bigger[] = new int[result.length + 1];
+      System.arraycopy(result, 0, bigger, 1, result.length);
+      bigger[0] = 0x01;
+      return bigger;
+    }
+    return result;
+  }
+
   /**
    * Adds the contents of the int arrays x and y. This method allocates a new
    * int array to hold the answer and returns a reference to that array.
@@ -400,6 +562,21 @@ public class BigInt implements Comparable<BigInt> {
     return new BigInt(resultMag, cmp == signum ? 1 : -1);
   }
 
+  /**
+   * Returns a BigInteger whose value is {@code (this - val)}. This avoids
+   * boxing {@code val} when one side of a mixed int operation is an int.
+   * 
+   * @param val
+   *          value to be subtracted from this BigInteger.
+   * @return {@code this - val}
+   */
+  public BigInt subtract(int val) {
+    if (val < 0) {
+      return addMagnitude(1, -val);
+    }
+    return addMagnitude(-1, val);
+  }
+
   /**
    * Subtracts the contents of the second int arrays (little) from the first
    * (big). The first int array (big) must represent a larger number than the
@@ -430,6 +607,49 @@ public class BigInt implements Comparable<BigInt> {
     return result;
   }
 
+  /**
+   * Subtracts the unsigned int little from the contents of the int array big.
+   * The int array (big) must represent a larger number than little. This
+   * method allocates the space necessary to hold the answer.
+   */
+  private static int[] subtract(int[] big, int little) {
+    int bigIndex = big.length;
+    int result[] = new int[bigIndex];
+    long difference = (big[--bigIndex] & LONG_MASK) - (little & LONG_MASK);
+    result[bigIndex] = (int) difference;
+
+    // Subtract remainder of the number while borrow propagates
+    boolean borrow = (difference >> 32 != 0);
+    while (bigIndex > 0 && borrow)
+      borrow = ((result[--bigIndex] = big[bigIndex] - 1) == -1);
+
+    // Copy remainder of the number
+    while (bigIndex > 0)
+      result[--bigIndex] = big[bigIndex];
+
+    return result;
+  }
+
+  /**
+   * Returns a BigInteger whose value is {@code (this * val)}. This avoids
+   * boxing {@code val} when one side of a mixed int operation is an int.
+   * 
+   * @param val
+   *          value to be multiplied by this BigInteger.
+   * @return {@code this * val}
+   */
+  public BigInt multiply(int val) {
+    if (mag == null) {
+      throw new NullPointerException();
+    }
+    if (val == 0 || signum == 0)
+      return ZERO;
+    if (val < 0) {
+      return multiplyByInt(mag, -val, -signum);
+    }
+    return multiplyByInt(mag, val, signum);
+  }
+
   /**
    * Returns a BigInteger whose value is {@code (this * val)}.
    * 
@@ -443,16 +663,27 @@ public class BigInt implements Comparable<BigInt> {
     }
     if (val.signum == 0 || signum == 0)
       return ZERO;
-    int resultSign = signum == val.signum ? 1 : -1;
-    if (val.mag.length == 1) {
-      return multiplyByInt(mag, val.mag[0], resultSign);
+    int xlen = mag.length;
+    if (val == this && xlen > MULTIPLY_SQUARE_THRESHOLD) {
+      return square();
     }
-    if (mag.length == 1) {
-      return multiplyByInt(val.mag, mag[0], resultSign);
+    int ylen = val.mag.length;
+    if (xlen < KARATSUBA_THRESHOLD || ylen < KARATSUBA_THRESHOLD) {
+      int resultSign = signum == val.signum ? 1 : -1;
+      if (ylen == 1) {
+        return multiplyByInt(mag, val.mag[0], resultSign);
+      }
+      if (xlen == 1) {
+        return multiplyByInt(val.mag, mag[0], resultSign);
+      }
+      int[] result = multiplyToLen(mag, xlen, val.mag, ylen, null);
+      result = trustedStripLeadingZeroInts(result);
+      return new BigInt(result, resultSign);
     }
-    int[] result = multiplyToLen(mag, mag.length, val.mag, val.mag.length, null);
-    result = trustedStripLeadingZeroInts(result);
-    return new BigInt(result, resultSign);
+    if (xlen < TOOM_COOK_THRESHOLD && ylen < TOOM_COOK_THRESHOLD) {
+      return multiplyKaratsuba(this, val);
+    }
+    return multiplyToomCook3(this, val);
   }
 
   private static BigInt multiplyByInt(int[] x, int y, int sign) {
@@ -510,6 +741,483 @@ public class BigInt implements Comparable<BigInt> {
     return z;
   }
 
+  /**
+   * Multiplies two BigIntegers using the Karatsuba multiplication algorithm.
+   * This is a recursive divide-and-conquer algorithm which is more efficient
+   * for large numbers than what is commonly called the "grade-school"
+   * algorithm used in multiplyToLen. If the numbers to be multiplied have
+   * length n, the "grade-school" algorithm has an asymptotic complexity of
+   * O(n^2). In contrast, the Karatsuba algorithm has complexity of
+   * O(n^(log2(3))), or O(n^1.585). It achieves this increased performance by
+   * doing 3 multiplies instead of 4 when evaluating the product. As it has
+   * some overhead, should be used when both numbers are larger than a certain
+   * threshold (found experimentally).
+   * 
+   * See: http://en.wikipedia.org/wiki/Karatsuba_algorithm
+   */
+  private static BigInt multiplyKaratsuba(BigInt x, BigInt y) {
+    int xlen = x.mag.length;
+    int ylen = y.mag.length;
+
+    // The number of ints in each half of the number.
+    int half = (Math.max(xlen, ylen) + 1) / 2;
+
+    // xl and yl are the lower halves of x and y respectively,
+    // xh and yh are the upper halves.
+    BigInt xl = x.getLower(half);
+    BigInt xh = x.getUpper(half);
+    BigInt yl = y.getLower(half);
+    BigInt yh = y.getUpper(half);
+
+    BigInt p1 = xh.multiply(yh); // p1 = xh*yh
+    BigInt p2 = xl.multiply(yl); // p2 = xl*yl
+
+    // p3=(xh+xl)*(yh+yl)
+    BigInt p3 = xh.add(xl).multiply(yh.add(yl));
+
+    // result = p1 * 2^(32*2*half) + (p3 - p1 - p2) * 2^(32*half) + p2
+    BigInt result = p1.shiftLeft(32 * half).add(p3.subtract(p1).subtract(p2))
+        .shiftLeft(32 * half).add(p2);
+
+    if (x.signum != y.signum) {
+      return result.negate();
+    }
+    return result;
+  }
+
+  /**
+   * Multiplies two BigIntegers using a 3-way Toom-Cook multiplication
+   * algorithm. This is a recursive divide-and-conquer algorithm which is more
+   * efficient for large numbers than what is commonly called the
+   * "grade-school" algorithm used in multiplyToLen. If the numbers to be
+   * multiplied have length n, the "grade-school" algorithm has an asymptotic
+   * complexity of O(n^2). In contrast, 3-way Toom-Cook has a complexity of
+   * about O(n^1.465). It achieves this increased asymptotic performance by
+   * breaking each number into three parts and by doing 5 multiplies instead
+   * of 9 when evaluating the product. Due to overhead (additions, shifts, and
+   * one division) in the Toom-Cook algorithm, it should only be used when both
+   * numbers are larger than a certain threshold (found experimentally). This
+   * threshold is generally larger than that for Karatsuba multiplication, so
+   * this algorithm is generally only used when numbers become significantly
+   * larger.
+   * 
+   * The algorithm used is the "optimal" 3-way Toom-Cook algorithm outlined by
+   * Marco Bodrato.
+   * 
+   * See: http://bodrato.it/toom-cook/ and
+   * http://bodrato.it/papers/#WAIFI2007
+   */
+  private static BigInt multiplyToomCook3(BigInt a, BigInt b) {
+    int alen = a.mag.length;
+    int blen = b.mag.length;
+
+    int largest = Math.max(alen, blen);
+
+    // k is the size (in ints) of the lower-order slices.
+    int k = (largest + 2) / 3; // Equal to ceil(largest/3)
+
+    // r is the size (in ints) of the highest-order slice.
+    int r = largest - 2 * k;
+
+    // Obtain slices of the numbers. a2 and b2 are the most significant
+    // bits of the numbers a and b, and a0 and b0 the least significant.
+    BigInt a0, a1, a2, b0, b1, b2;
+    a2 = a.getToomSlice(k, r, 0, largest);
+    a1 = a.getToomSlice(k, r, 1, largest);
+    a0 = a.getToomSlice(k, r, 2, largest);
+    b2 = b.getToomSlice(k, r, 0, largest);
+    b1 = b.getToomSlice(k, r, 1, largest);
+    b0 = b.getToomSlice(k, r, 2, largest);
+
+    BigInt v0, v1, v2, vm1, vinf, t1, t2, tm1, da1, db1;
+
+    v0 = a0.multiply(b0);
+    da1 = a2.add(a0);
+    db1 = b2.add(b0);
+    vm1 = da1.subtract(a1).multiply(db1.subtract(b1));
+    da1 = da1.add(a1);
+    db1 = db1.add(b1);
+    v1 = da1.multiply(db1);
+    v2 = da1.add(a2).shiftLeft(1).subtract(a0)
+        .multiply(db1.add(b2).shiftLeft(1).subtract(b0));
+    vinf = a2.multiply(b2);
+
+    // The algorithm requires two divisions by 2 and one by 3.
+    // All divisions are known to be exact, that is, they do not produce
+    // remainders, and all results are positive. The divisions by 2 are
+    // implemented as right shifts which are relatively efficient, leaving
+    // only an exact division by 3, which is done by a specialized
+    // linear-time algorithm.
+    t2 = v2.subtract(vm1).exactDivideBy3();
+    tm1 = v1.subtract(vm1).shiftRight(1);
+    t1 = v1.subtract(v0);
+    t2 = t2.subtract(t1).shiftRight(1);
+    t1 = t1.subtract(tm1).subtract(vinf);
+    t2 = t2.subtract(vinf.shiftLeft(1));
+    tm1 = tm1.subtract(t2);
+
+    // Number of bits to shift left.
+    int ss = k * 32;
+
+    BigInt result = vinf.shiftLeft(ss).add(t2).shiftLeft(ss).add(t1)
+        .shiftLeft(ss).add(tm1).shiftLeft(ss).add(v0);
+
+    if (a.signum != b.signum) {
+      return result.negate();
+    }
+    return result;
+  }
+
+  /**
+   * Returns a slice of a BigInteger for use in Toom-Cook multiplication.
+   * 
+   * @param lowerSize
+   *          The size of the lower-order bit slices.
+   * @param upperSize
+   *          The size of the higher-order bit slices.
+   * @param slice
+   *          The index of which slice is requested, which must be a number
+   *          from 0 to size-1. Slice 0 is the highest-order bits, and slice
+   *          size-1 are the lowest-order bits. Slice 0 may be of different
+   *          size than the other slices.
+   * @param fullsize
+   *          The size of the larger integer array, used to align slices to the
+   *          appropriate position when multiplying different-sized numbers.
+   */
+  private BigInt getToomSlice(int lowerSize, int upperSize, int slice,
+      int fullsize) {
+    int start, end, sliceSize, len, offset;
+
+    len = mag.length;
+    offset = fullsize - len;
+
+    if (slice == 0) {
+      start = 0 - offset;
+      end = upperSize - 1 - offset;
+    } else {
+      start = upperSize + (slice - 1) * lowerSize - offset;
+      end = start + lowerSize - 1;
+    }
+
+    if (start < 0) {
+      start = 0;
+    }
+    if (end < 0) {
+      return ZERO;
+    }
+
+    sliceSize = (end - start) + 1;
+
+    if (sliceSize <= 0) {
+      return ZERO;
+    }
+
+    // While performing Toom-Cook, all slices are positive and
+    // the sign is adjusted when the final number is composed.
+    if (start == 0 && sliceSize >= len) {
+      return this.abs();
+    }
+
+    int intSlice[] = new int[sliceSize];
+    System.arraycopy(mag, start, intSlice, 0, sliceSize);
+
+    return new BigInt(trustedStripLeadingZeroInts(intSlice), 1);
+  }
+
+  /**
+   * Does an exact division (that is, the remainder is known to be zero) of the
+   * specified number by 3. This is used in Toom-Cook multiplication. This is
+   * an efficient algorithm that runs in linear time. If the argument is not
+   * exactly divisible by 3, results are undefined. Note that this is expected
+   * to be called with positive arguments only.
+   */
+  private BigInt exactDivideBy3() {
+    int len = mag.length;
+    int[] result = new int[len];
+    long x, w, q, borrow;
+    borrow = 0L;
+    for (int i = len - 1; i >= 0; i--) {
+      x = (mag[i] & LONG_MASK);
+      w = x - borrow;
+      if (borrow > x) { // Did we make the number go negative?
+        borrow = 1L;
+      } else {
+        borrow = 0L;
+      }
+
+      // 0xAAAAAAAB is the modular inverse of 3 (mod 2^32). Thus,
+      // the effect of this is to divide by 3 (mod 2^32).
+      // This is much faster than division on most architectures.
+      q = (w * 0xAAAAAAABL) & LONG_MASK;
+      result[i] = (int) q;
+
+      // Now check the borrow. The second check can of course be
+      // eliminated if the first fails.
+      if (q >= 0x55555556L) {
+        borrow++;
+        if (q >= 0xAAAAAAABL)
+          borrow++;
+      }
+    }
+    result = trustedStripLeadingZeroInts(result);
+    return new BigInt(result, signum);
+  }
+
+  /**
+   * Returns a new BigInteger representing n lower ints of the number. This is
+   * used by Karatsuba multiplication and Karatsuba squaring.
+   */
+  private BigInt getLower(int n) {
+    int len = mag.length;
+
+    if (len <= n) {
+      return abs();
+    }
+
+    int lowerInts[] = new int[n];
+    System.arraycopy(mag, len - n, lowerInts, 0, n);
+
+    return new BigInt(trustedStripLeadingZeroInts(lowerInts), 1);
+  }
+
+  /**
+   * Returns a new BigInteger representing mag.length-n upper ints of the
+   * number. This is used by Karatsuba multiplication and Karatsuba squaring.
+   */
+  private BigInt getUpper(int n) {
+    int len = mag.length;
+
+    if (len <= n) {
+      return ZERO;
+    }
+
+    int upperLen = len - n;
+    int upperInts[] = new int[upperLen];
+    System.arraycopy(mag, 0, upperInts, 0, upperLen);
+
+    return new BigInt(trustedStripLeadingZeroInts(upperInts), 1);
+  }
+
+  // Squaring
+
+  /**
+   * Returns a BigInteger whose value is {@code (this<sup>2</sup>)}. The
+   * grade-school algorithm is specialized (only half of the partial products
+   * are computed), larger numbers use Karatsuba or Toom-Cook squaring.
+   * 
+   * @return {@code this<sup>2</sup>}
+   */
+  private BigInt square() {
+    if (signum == 0) {
+      return ZERO;
+    }
+    int len = mag.length;
+
+    if (len < KARATSUBA_SQUARE_THRESHOLD) {
+      int[] z = squareToLen(mag, len, null);
+      return new BigInt(trustedStripLeadingZeroInts(z), 1);
+    }
+    if (len < TOOM_COOK_SQUARE_THRESHOLD) {
+      return squareKaratsuba();
+    }
+    return squareToomCook3();
+  }
+
+  /**
+   * Squares the contents of the int array x. The result is placed into the int
+   * array z. The contents of x are not changed.
+   */
+  private static final int[] squareToLen(int[] x, int len, int[] z) {
+    /*
+     * The algorithm used here is adapted from Colin Plumb's C library.
+     * Technique: Consider the partial products in the multiplication of "abcde"
+     * by itself:
+     * 
+     *               a  b  c  d  e
+     *            *  a  b  c  d  e
+     *          ==================
+     *              ae be ce de ee
+     *           ad bd cd dd de
+     *        ac bc cc cd ce
+     *     ab bb bc bd be
+     *  aa ab ac ad ae
+     * 
+     * Note that everything above the main diagonal:
+     *              ae be ce de = (abcd) * e
+     *           ad bd cd       = (abc) * d
+     *        ac bc             = (ab) * c
+     *     ab                   = (a) * b
+     * 
+     * is a copy of everything below the main diagonal:
+     *                       de
+     *                 cd ce
+     *           bc bd be
+     *     ab ac ad ae
+     * 
+     * Thus, the sum is 2 * (off the diagonal) + diagonal.
+     * 
+     * This is accumulated beginning with the diagonal (which consist of the
+     * squares of the digits of the input), which is then divided by two, the
+     * off-diagonal added, and multiplied by two again. The low bit is simply a
+     * copy of the low bit of the input, so it doesn't need special care.
+     */
+    int zlen = len << 1;
+    if (z == null || z.length < zlen)
+      z = new int[zlen];
+
+    // Store the squares, right shifted one bit (i.e., divided by 2)
+    int lastProductLowWord = 0;
+    for (int j = 0, i = 0; j < len; j++) {
+      long piece = (x[j] & LONG_MASK);
+      long product = piece * piece;
+      z[i++] = (lastProductLowWord << 31) | (int) (product >>> 33);
+      z[i++] = (int) (product >>> 1);
+      lastProductLowWord = (int) product;
+    }
+
+    // Add in off-diagonal sums
+    for (int i = len, offset = 1; i > 0; i--, offset += 2) {
+      int t = x[i - 1];
+      t = mulAdd(z, x, offset, i - 1, t);
+      addOne(z, offset - 1, i, t);
+    }
+
+    // Shift back up and set low bit
+    primitiveLeftShift(z, zlen, 1);
+    z[zlen - 1] |= x[len - 1] & 1;
+
+    return z;
+  }
+
+  /**
+   * Multiply an array by one word k and add to result, return the carry.
+   */
+  private static int mulAdd(int[] out, int[] in, int offset, int len, int k) {
+    long kLong = k & LONG_MASK;
+    long carry = 0;
+
+    offset = out.length - offset - 1;
+    for (int j = len - 1; j >= 0; j--) {
+      long product = (in[j] & LONG_MASK) * kLong + (out[offset] & LONG_MASK)
+          + carry;
+      out[offset--] = (int) product;
+      carry = product >>> 32;
+    }
+    return (int) carry;
+  }
+
+  /**
+   * Add one word to the number a mlen words into a. Return the resulting
+   * carry.
+   */
+  private static int addOne(int[] a, int offset, int mlen, int carry) {
+    offset = a.length - 1 - mlen - offset;
+    long t = (a[offset] & LONG_MASK) + (carry & LONG_MASK);
+
+    a[offset] = (int) t;
+    if ((t >>> 32) == 0)
+      return 0;
+    while (--mlen >= 0) {
+      if (--offset < 0) { // Carry out of number
+        return 1;
+      }
+      a[offset]++;
+      if (a[offset] != 0)
+        return 0;
+    }
+    return 1;
+  }
+
+  /**
+   * Left shift int array a up to len by n bits, n must be less than 32.
+   */
+  private static void primitiveLeftShift(int[] a, int len, int n) {
+    if (len == 0 || n == 0)
+      return;
+
+    int n2 = 32 - n;
+    for (int i = 0, c = a[i], m = i + len - 1; i < m; i++) {
+      int b = c;
+      c = a[i + 1];
+      a[i] = (b << n) | (c >>> n2);
+    }
+    a[len - 1] <<= n;
+  }
+
+  /**
+   * Squares a BigInteger using the Karatsuba squaring algorithm. It should be
+   * used when both numbers are larger than a certain threshold (found
+   * experimentally). It is a recursive divide-and-conquer algorithm that has
+   * better asymptotic performance than the algorithm used in squareToLen.
+   */
+  private BigInt squareKaratsuba() {
+    int half = (mag.length + 1) / 2;
+
+    BigInt xl = getLower(half);
+    BigInt xh = getUpper(half);
+
+    BigInt xhs = xh.square(); // xhs = xh^2
+    BigInt xls = xl.square(); // xls = xl^2
+
+    // xh^2 << 64 + (((xl+xh)^2 - (xh^2 + xl^2)) << 32) + xl^2
+    return xhs.shiftLeft(half * 32)
+        .add(xl.add(xh).square().subtract(xhs.add(xls)))
+        .shiftLeft(half * 32).add(xls);
+  }
+
+  /**
+   * Squares a BigInteger using the 3-way Toom-Cook squaring algorithm. It
+   * should be used when both numbers are larger than a certain threshold
+   * (found experimentally). It is a recursive divide-and-conquer algorithm
+   * that has better asymptotic performance than the algorithm used in
+   * squareToLen or squareKaratsuba.
+   */
+  private BigInt squareToomCook3() {
+    int len = mag.length;
+
+    // k is the size (in ints) of the lower-order slices.
+    int k = (len + 2) / 3; // Equal to ceil(largest/3)
+
+    // r is the size (in ints) of the highest-order slice.
+    int r = len - 2 * k;
+
+    // Obtain slices of the numbers. a2 is the most significant
+    // bits of the number, and a0 the least significant.
+    BigInt a0, a1, a2;
+    a2 = getToomSlice(k, r, 0, len);
+    a1 = getToomSlice(k, r, 1, len);
+    a0 = getToomSlice(k, r, 2, len);
+    BigInt v0, v1, v2, vm1, vinf, t1, t2, tm1, da1;
+
+    v0 = a0.square();
+    da1 = a2.add(a0);
+    vm1 = da1.subtract(a1).square();
+    da1 = da1.add(a1);
+    v1 = da1.square();
+    vinf = a2.square();
+    v2 = da1.add(a2).shiftLeft(1).subtract(a0).square();
+
+    // The algorithm requires two divisions by 2 and one by 3.
+    // All divisions are known to be exact, that is, they do not produce
+    // remainders, and all results are positive. The divisions by 2 are
+    // implemented as right shifts which are relatively efficient, leaving
+    // only a division by 3.
+    // The division by 3 is done by an optimized algorithm for this case.
+    t2 = v2.subtract(vm1).exactDivideBy3();
+    tm1 = v1.subtract(vm1).shiftRight(1);
+    t1 = v1.subtract(v0);
+    t2 = t2.subtract(t1).shiftRight(1);
+    t1 = t1.subtract(tm1).subtract(vinf);
+    t2 = t2.subtract(vinf.shiftLeft(1));
+    tm1 = tm1.subtract(t2);
+
+    // Number of bits to shift left.
+    int ss = k * 32;
+
+    return vinf.shiftLeft(ss).add(t2).shiftLeft(ss).add(t1).shiftLeft(ss)
+        .add(tm1).shiftLeft(ss).add(v0);
+  }
+
   /**
    * Returns a BigInteger whose value is {@code (this / val)}.
    * 
@@ -1203,6 +1911,30 @@ public class BigInt implements Comparable<BigInt> {
     if (radix < Character.MIN_RADIX || radix > Character.MAX_RADIX)
       radix = 10;
 
+    // If it's small enough, use smallToString.
+    if (mag.length <= SCHOENHAGE_BASE_CONVERSION_THRESHOLD)
+      return smallToString(radix);
+
+    // Otherwise use recursive toString, which requires positive arguments.
+    // The results will be concatenated into this StringBuilder
+    StringBuilder sb = new StringBuilder();
+    if (signum < 0) {
+      toString(this.negate(), sb, radix, 0);
+      sb.insert(0, '-');
+    } else {
+      toString(this, sb, radix, 0);
+    }
+    return sb.toString();
+  }
+
+  /**
+   * This method is used to perform toString when arguments are small, it
+   * converts one long radix digit group at a time.
+   */
+  private String smallToString(int radix) {
+    if (signum == 0)
+      return "0";
+
     // Compute upper bound on number of digit groups and allocate space
     int maxNumDigitGroups = (4 * mag.length + 6) / 7;
     String digitGroup[] = new String[maxNumDigitGroups];
@@ -1240,6 +1972,90 @@ public class BigInt implements Comparable<BigInt> {
     return buf.toString();
   }
 
+  /**
+   * Converts the specified BigInteger to a string and appends to {@code sb}.
+   * This implements the recursive Schoenhage algorithm for base conversions:
+   * the number is split by a power of the radix close to its square root, the
+   * quotient and the remainder are converted recursively.
+   * <p/>
+   * See Knuth, Donald, _The Art of Computer Programming_, Vol. 2, Answers to
+   * Exercises (4.4) Question 14.
+   * 
+   * @param u
+   *          The number to convert to a string.
+   * @param sb
+   *          The StringBuilder that will be appended to in place.
+   * @param radix
+   *          The base to convert to.
+   * @param digits
+   *          The minimum number of digits to pad to.
+   */
+  private static void toString(BigInt u, StringBuilder sb, int radix,
+      int digits) {
+    // If we're smaller than a certain threshold, use the smallToString
+    // method, padding with leading zeroes when necessary.
+    if (u.mag.length <= SCHOENHAGE_BASE_CONVERSION_THRESHOLD) {
+      String s = u.smallToString(radix);
+
+      // Pad with internal zeros if necessary.
+      // Don't pad if we're at the beginning of the string.
+      if ((s.length() < digits) && (sb.length() > 0)) {
+        for (int i = s.length(); i < digits; i++) {
+          sb.append('0');
+        }
+      }
+
+      sb.append(s);
+      return;
+    }
+
+    // Calculate a value for n in the equation radix^(digitsPerLong*2^n) = u
+    // and subtract 1 from that value. This is used to find the cache index
+    // that contains the best value to divide u.
+    int b = u.bitLength();
+    double groups = b * LOG_TWO / logCache[radix] / digitsPerLong[radix];
+    int n = Math.max(0, (int) Math.round(Math.log(groups) / LOG_TWO - 1.0));
+    BigInt v = getRadixConversionCache(radix, n);
+
+    MutableBigInt q = new MutableBigInt(), a = new MutableBigInt(u.mag), d = new MutableBigInt(
+        v.mag);
+    MutableBigInt r = a.divide(d, q);
+
+    int expectedDigits = digitsPerLong[radix] << n;
+
+    // Now recursively build the two halves of each number.
+    toString(q.toBigInteger(1), sb, radix, digits - expectedDigits);
+    toString(r.toBigInteger(1), sb, radix, expectedDigits);
+  }
+
+  /**
+   * Returns the value longRadix[radix]^(2^exponent) from the cache. If this
+   * value doesn't already exist in the cache, it is added.
+   * <p/>
+   * This could be changed to a more complicated caching method using
+   * {@code Future}.
+   */
+  private static BigInt getRadixConversionCache(int radix, int exponent) {
+    BigInt[] cacheLine = powerCache[radix]; // volatile read
+    if (exponent < cacheLine.length) {
+      return cacheLine[exponent];
+    }
+
+    int oldLength = cacheLine.length;
+    cacheLine = Arrays.copyOf(cacheLine, exponent + 1);
+    for (int i = oldLength; i <= exponent; i++) {
+      cacheLine[i] = cacheLine[i - 1].multiply(cacheLine[i - 1]);
+    }
+
+    BigInt[][] pc = powerCache; // volatile read again
+    if (exponent >= pc[radix].length) {
+      pc = pc.clone();
+      pc[radix] = cacheLine;
+      powerCache = pc; // volatile write, publish
+    }
+    return cacheLine[exponent];
+  }
+
   /* zero[i] is a string of i consecutive zeros. */
   private static final String zeros[] = new String[64];
   static {
@@ -1433,6 +2249,46 @@ public class BigInt implements Comparable<BigInt> {
       valueOf(0x211e44f7d02c1000L), valueOf(0x2ee56725f06e5c71L),
       valueOf(0x41c21cb8e1000000L) };
 
+  /**
+   * The threshold value for using Schoenhage recursive base conversion. If the
+   * number of ints in the number are larger than this value, the Schoenhage
+   * algorithm will be used. In practice, it appears that the Schoenhage
+   * routine is faster for any threshold down to 2, and is relatively flat for
+   * thresholds between 2-25, so this choice may be varied within this range
+   * for very small effect.
+   */
+  private static final int SCHOENHAGE_BASE_CONVERSION_THRESHOLD = 20;
+
+  /**
+   * The cache of powers of each radix. This allows us to not have to
+   * recalculate powers of longRadix[radix]^(2^n) more than once. The entry 0
+   * of each radix is longRadix[radix], and entry n is the square of entry n-1.
+   * This speeds Schoenhage recursive base conversion significantly.
+   */
+  private static volatile BigInt[][] powerCache;
+
+  /** The cache of logarithms of radices for base conversion. */
+  private static final double[] logCache;
+
+  /** The natural log of 2. This is used in computing cache indices. */
+  private static final double LOG_TWO = Math.log(2.0);
+
+  static {
+    /*
+     * Initialize the cache of radix^(2^x) values used for base conversion
+     * with just the long radix values. Additional values will be created on
+     * demand.
+     */
+    BigInt[][] cache = new BigInt[Character.MAX_RADIX + 1][];
+    logCache = new double[Character.MAX_RADIX + 1];
+
+    for (int i = Character.MIN_RADIX; i <= Character.MAX_RADIX; i++) {
+      cache[i] = new BigInt[] { longRadix[i] };
+      logCache[i] = Math.log(i);
+    }
+    powerCache = cache;
+  }
+
   /**
    * These routines provide access to the two's complement representation of
    * BigIntegers.
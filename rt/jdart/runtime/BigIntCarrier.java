@@ -0,0 +1,11 @@
+package jdart.runtime;
+
+/**
+ * Carries the BigInt result of a function returning a mixed int.
+ * The function returns an int and stores the result in the carrier
+ * if it doesn't fit in an int, the caller reads and clears the value.
+ */
+public final class BigIntCarrier {
+  // this field is used by the runtime
+  public BigInt value;
+}
@@ -104,6 +104,15 @@ class MutableBigInt {
 
     
 
+    /**
+     * Construct a new MutableBigInteger with a magnitude specified by
+     * the magnitude of the BigInteger val, the magnitude is copied.
+     */
+    private MutableBigInt(BigInt val) {
+        intLen = val.mag.length;
+        value = Arrays.copyOf(val.mag, intLen);
+    }
+
     /**
      * Construct a new MutableBigInteger with a magnitude equal to the
      * specified MutableBigInteger.
@@ -398,13 +407,32 @@ class MutableBigInt {
         return divide(b,quotient,true);
     }
 
+    /**
+     * Calculates the quotient of this div b and places the quotient in the
+     * provided MutableBigInteger objects and the remainder object is returned.
+     * Large divisors use the Burnikel-Ziegler algorithm, which always computes
+     * the remainder, the others use Knuth's Algorithm D.
+     */
     MutableBigInt divide(MutableBigInt b, MutableBigInt quotient, boolean needReminder) {
+        if (b.intLen < BigInt.BURNIKEL_ZIEGLER_THRESHOLD ||
+                intLen - b.intLen < BigInt.BURNIKEL_ZIEGLER_OFFSET) {
+            return divideKnuth(b, quotient, needReminder);
+        }
+        return divideAndRemainderBurnikelZiegler(b, quotient);
+    }
+
+    /**
+     * Calculates the quotient of this div b using Algorithm D in Knuth section
+     * 4.3.1 and places the quotient in the provided MutableBigInteger objects.
+     * The remainder object is returned if needReminder is true.
+     */
+    private MutableBigInt divideKnuth(MutableBigInt b, MutableBigInt quotient, boolean needReminder) {
         if (b.intLen == 0)
             throw new ArithmeticException("BigInteger divide by zero");
 
         // Dividend is zero
         if (intLen == 0) {
-            quotient.intLen = quotient.offset;
+            quotient.intLen = quotient.offset = 0;
             return needReminder ? new MutableBigInt() : null;
         }
 
@@ -657,6 +685,392 @@ class MutableBigInt {
 
     
 
+    /**
+     * Computes {@code this/b} and {@code this%b} using the
+     * <a href="http://cr.yp.to/bib/1998/burnikel.ps"> Burnikel-Ziegler algorithm</a>.
+     * This method implements algorithm 3 from pg. 9 of the Burnikel-Ziegler paper.
+     * The parameter beta was chosen to b 2<sup>32</sup> so almost all shifts are
+     * multiples of 32 bits.<br/>
+     * {@code this} and {@code b} must be nonnegative.
+     * @param b the divisor
+     * @param quotient output parameter for {@code this/b}
+     * @return the remainder
+     */
+    private MutableBigInt divideAndRemainderBurnikelZiegler(MutableBigInt b, MutableBigInt quotient) {
+        int r = intLen;
+        int s = b.intLen;
+
+        // Clear the quotient
+        quotient.offset = quotient.intLen = 0;
+
+        if (r < s) {
+            return new MutableBigInt(this);
+        }
+
+        // step 1: let m = min{2^k | (2^k)*BURNIKEL_ZIEGLER_THRESHOLD > s}
+        int m = 1 << (32 - Integer.numberOfLeadingZeros(s / BigInt.BURNIKEL_ZIEGLER_THRESHOLD));
+
+        int j = (s + m - 1) / m;     // step 2a: j = ceil(s/m)
+        int n = j * m;               // step 2b: block length in 32-bit units
+        long n32 = 32L * n;          // block length in bits
+        int sigma = (int) Math.max(0, n32 - b.bitLength());   // step 3: sigma = max{T | (2^T)*B < beta^n}
+        MutableBigInt bShifted = new MutableBigInt(b);
+        bShifted.safeLeftShift(sigma);   // step 4a: shift b so its length is a multiple of n
+        MutableBigInt aShifted = new MutableBigInt(this);
+        aShifted.safeLeftShift(sigma);   // step 4b: shift a by the same amount
+
+        // step 5: t is the number of blocks needed to accommodate a plus one additional bit
+        int t = (int) ((aShifted.bitLength() + n32) / n32);
+        if (t < 2) {
+            t = 2;
+        }
+
+        // step 6: conceptually split a into blocks a[t-1], ..., a[0]
+        MutableBigInt a1 = aShifted.getBlock(t - 1, t, n);   // the most significant block of a
+
+        // step 7: z[t-2] = [a[t-1], a[t-2]]
+        MutableBigInt z = aShifted.getBlock(t - 2, t, n);    // the second to most significant block
+        z.addDisjoint(a1, n);   // z[t-2]
+
+        // do schoolbook division on blocks, dividing 2-block numbers by 1-block numbers
+        MutableBigInt qi = new MutableBigInt();
+        MutableBigInt ri;
+        for (int i = t - 2; i > 0; i--) {
+            // step 8a: compute (qi,ri) such that z=b*qi+ri
+            ri = z.divide2n1n(bShifted, qi);
+
+            // step 8b: z = [ri, a[i-1]]
+            z = aShifted.getBlock(i - 1, t, n);   // a[i-1]
+            z.addDisjoint(ri, n);
+            quotient.addShifted(qi, i * n);   // update q (part of step 9)
+        }
+        // final iteration of step 8: do the loop one more time for i=0 but leave z unchanged
+        ri = z.divide2n1n(bShifted, qi);
+        quotient.add(qi);
+
+        ri.rightShift(sigma);   // step 9: a and b were shifted, so shift back
+        ri.normalize();
+        return ri;
+    }
+
+    /**
+     * This method implements algorithm 1 from pg. 4 of the Burnikel-Ziegler paper.
+     * It divides a 2n-digit number by a n-digit number.<br/>
+     * The parameter beta is 2<sup>32</sup> so all shifts are multiples of 32 bits.
+     * <br/>
+     * {@code this} must be a nonnegative number such that {@code this.bitLength() <= 2*b.bitLength()},
+     * it is used as a scratch value.
+     * @param b a positive number such that {@code b.bitLength()} is even
+     * @param quotient output parameter for {@code this/b}
+     * @return {@code this%b}
+     */
+    private MutableBigInt divide2n1n(MutableBigInt b, MutableBigInt quotient) {
+        int n = b.intLen;
+
+        // step 1: base case
+        if (n % 2 != 0 || n < BigInt.BURNIKEL_ZIEGLER_THRESHOLD) {
+            return divideKnuth(b, quotient, true);
+        }
+
+        // step 2: view this as [a1,a2,a3,a4] where each ai is n/2 ints or less
+        MutableBigInt aUpper = new MutableBigInt(this);
+        aUpper.safeRightShift(32 * (n / 2));   // aUpper = [a1,a2,a3]
+        keepLower(n / 2);   // this = a4
+
+        // step 3: q1=aUpper/b, r1=aUpper%b
+        MutableBigInt q1 = new MutableBigInt();
+        MutableBigInt r1 = aUpper.divide3n2n(b, q1);
+
+        // step 4: quotient=[r1,this]/b, r2=[r1,this]%b
+        addDisjoint(r1, n / 2);   // this = [r1,this]
+        MutableBigInt r2 = divide3n2n(b, quotient);
+
+        // step 5: let quotient=[q1,quotient] and return r2
+        quotient.addDisjoint(q1, n / 2);
+        return r2;
+    }
+
+    /**
+     * This method implements algorithm 2 from pg. 5 of the Burnikel-Ziegler paper.
+     * It divides a 3n-digit number by a 2n-digit number.<br/>
+     * The parameter beta is 2<sup>32</sup> so all shifts are multiples of 32 bits.<br/>
+     * <br/>
+     * {@code this} must be a nonnegative number such that {@code 2*this.bitLength() <= 3*b.bitLength()}
+     * @param b a positive number such that {@code b.bitLength()} is even
+     * @param quotient output parameter for {@code this/b}
+     * @return {@code this%b}
+     */
+    private MutableBigInt divide3n2n(MutableBigInt b, MutableBigInt quotient) {
+        int n = b.intLen / 2;   // half the length of b in ints
+
+        // step 1: view this as [a1,a2,a3] where each ai is n ints or less; let a12=[a1,a2]
+        MutableBigInt a12 = new MutableBigInt(this);
+        a12.safeRightShift(32 * n);
+        MutableBigInt a1 = new MutableBigInt(a12);
+        a1.safeRightShift(32 * n);
+
+        // step 2: view b as [b1,b2] where each bi is n ints or less
+        MutableBigInt b1 = new MutableBigInt(b);
+        b1.safeRightShift(32 * n);
+        MutableBigInt b2 = new MutableBigInt(b);
+        b2.keepLower(n);
+
+        MutableBigInt r;
+        MutableBigInt d;
+        if (a1.compare(b1) < 0) {
+            // step 3a: if a1<b1, let quotient=a12/b1 and r=a12%b1
+            r = a12.divide2n1n(b1, quotient);
+
+            // step 4: d=quotient*b2
+            d = new MutableBigInt(quotient.toBigInteger(1).multiply(b2.toBigInteger(1)));
+        } else {
+            // step 3b: if a1>=b1, let quotient=beta^n-1 and r=a12-b1*2^n+b1
+            quotient.ones(n);
+            a12.add(b1);
+            b1.leftShift(32 * n);
+            a12.subtract(b1);
+            r = a12;
+
+            // step 4: d=quotient*b2=(b2 << 32*n) - b2
+            d = new MutableBigInt(b2);
+            d.leftShift(32 * n);
+            d.subtract(b2);
+        }
+
+        // step 5: r = r*beta^n + a3 - d (paper says a4)
+        // However, don't subtract d until after the while loop so r doesn't become negative
+        r.leftShift(32 * n);
+        r.addLower(this, n);
+
+        // step 6: add b until r>=d
+        while (r.compare(d) < 0) {
+            r.add(b);
+            quotient.subtract(new MutableBigInt(1));
+        }
+        r.subtract(d);
+
+        return r;
+    }
+
+    /**
+     * Returns a {@code MutableBigInteger} containing {@code blockLength} ints from
+     * {@code this} number, starting at {@code index*blockLength}.<br/>
+     * Used by Burnikel-Ziegler division.
+     * @param index the block index
+     * @param numBlocks the total number of blocks in {@code this} number
+     * @param blockLength length of one block in units of 32 bits
+     * @return a new {@code MutableBigInteger}
+     */
+    private MutableBigInt getBlock(int index, int numBlocks, int blockLength) {
+        int blockStart = index * blockLength;
+        if (blockStart >= intLen) {
+            return new MutableBigInt();
+        }
+
+        int blockEnd;
+        if (index == numBlocks - 1) {
+            blockEnd = intLen;
+        } else {
+            blockEnd = Math.min((index + 1) * blockLength, intLen);
+        }
+
+        int[] newVal = Arrays.copyOfRange(value, offset + intLen - blockEnd, offset + intLen - blockStart);
+        MutableBigInt block = new MutableBigInt(newVal);
+        block.normalize();
+        return block;
+    }
+
+    /**
+     * Returns the number of bits of this number, this number must be normalized.
+     */
+    private long bitLength() {
+        if (intLen == 0)
+            return 0;
+        return intLen * 32L - Integer.numberOfLeadingZeros(value[offset]);
+    }
+
+    /**
+     * Returns true iff this MutableBigInteger has a value of zero.
+     */
+    private boolean isZero() {
+        return (intLen == 0);
+    }
+
+    /**
+     * Sets this MutableBigInteger's value array to a magnitude of n ints
+     * where every int is 0xFFFFFFFF, i.e. beta^n-1.
+     */
+    private void ones(int n) {
+        if (n > value.length)
+            value = new int[n];
+        Arrays.fill(value, -1);
+        offset = 0;
+        intLen = n;
+    }
+
+    /**
+     * Discards all ints whose index is greater than {@code n}.
+     */
+    private void keepLower(int n) {
+        if (intLen >= n) {
+            offset += intLen - n;
+            intLen = n;
+        }
+        normalize();
+    }
+
+    /**
+     * Like {@link #rightShift(int)} but {@code n} can be greater than the length of the number.
+     */
+    private void safeRightShift(int n) {
+        if (n / 32 >= intLen) {
+            offset = intLen = 0;
+        } else {
+            rightShift(n);
+            normalize();
+        }
+    }
+
+    /**
+     * Like {@link #leftShift(int)} but {@code n} can be zero.
+     */
+    private void safeLeftShift(int n) {
+        if (n > 0) {
+            leftShift(n);
+        }
+    }
+
+    /**
+     * Left shift this MutableBigInteger n bits, n must be positive.
+     */
+    private void leftShift(int n) {
+        /*
+         * If there is enough storage space in this MutableBigInteger already
+         * the available space will be used. Space to the right of the used
+         * ints in the value array is faster to utilize, so the extra space
+         * will be taken from the right if possible.
+         */
+        if (intLen == 0)
+           return;
+        int nInts = n >>> 5;
+        int nBits = n & 0x1F;
+        int bitsInHighWord = BigInt.bitLengthForInt(value[offset]);
+
+        // If shift can be done without moving words, do so
+        if (n <= (32 - bitsInHighWord)) {
+            primitiveLeftShift(nBits);
+            return;
+        }
+
+        int newLen = intLen + nInts + 1;
+        if (nBits <= (32 - bitsInHighWord))
+            newLen--;
+        if (value.length < newLen) {
+            // The array must grow
+            int[] result = new int[newLen];
+            for (int i = 0; i < intLen; i++)
+                result[i] = value[offset + i];
+            value = result;
+            offset = 0;
+        } else if (value.length - offset >= newLen) {
+            // Use space on right
+            for (int i = 0; i < newLen - intLen; i++)
+                value[offset + intLen + i] = 0;
+        } else {
+            // Must use space on left
+            for (int i = 0; i < intLen; i++)
+                value[i] = value[offset + i];
+            for (int i = intLen; i < newLen; i++)
+                value[i] = 0;
+            offset = 0;
+        }
+        intLen = newLen;
+        if (nBits == 0)
+            return;
+        if (nBits <= (32 - bitsInHighWord))
+            primitiveLeftShift(nBits);
+        else
+            primitiveRightShift(32 - nBits);
+    }
+
+    /**
+     * Adds the value of {@code addend} to this MutableBigInteger.
+     */
+    private void add(MutableBigInt addend) {
+        add(addend, 0, addend.intLen);
+    }
+
+    /**
+     * Adds the value of {@code addend} shifted {@code n} ints to the left.
+     * Has the same effect as {@code addend.leftShift(32*n); add(addend);}
+     * but doesn't change the value of {@code addend}.
+     */
+    private void addShifted(MutableBigInt addend, int n) {
+        add(addend, n, addend.intLen);
+    }
+
+    /**
+     * Like {@link #addShifted(MutableBigInt, int)} but {@code this.intLen} must
+     * not be greater than {@code n}, so the two numbers don't overlap.
+     */
+    private void addDisjoint(MutableBigInt addend, int n) {
+        add(addend, n, addend.intLen);
+    }
+
+    /**
+     * Adds the low {@code n} ints of {@code addend}.
+     */
+    private void addLower(MutableBigInt addend, int n) {
+        add(addend, 0, Math.min(n, addend.intLen));
+    }
+
+    /**
+     * Adds the {@code addendLen} low ints of {@code addend} shifted {@code shift}
+     * ints to the left. The result is stored in a new array and normalized.
+     */
+    private void add(MutableBigInt addend, int shift, int addendLen) {
+        if (addendLen == 0)
+            return;
+        int[] aval = addend.value;
+        int aend = addend.offset + addend.intLen - 1;   // least significant int of addend
+        int end = offset + intLen - 1;                  // least significant int of this
+        int resultLen = Math.max(intLen, addendLen + shift) + 1;
+        int[] result = new int[resultLen];
+        long carry = 0;
+        for (int k = 0; k < resultLen; k++) {
+            long sum = carry;
+            if (k < intLen)
+                sum += value[end - k] & LONG_MASK;
+            if (k >= shift && k - shift < addendLen)
+                sum += aval[aend - (k - shift)] & LONG_MASK;
+            result[resultLen - 1 - k] = (int) sum;
+            carry = sum >>> 32;
+        }
+        value = result;
+        offset = 0;
+        intLen = resultLen;
+        normalize();
+    }
+
+    /**
+     * Subtracts the value of {@code b} from this MutableBigInteger,
+     * this must be greater or equal to {@code b}.
+     */
+    private void subtract(MutableBigInt b) {
+        int[] bval = b.value;
+        int bend = b.offset + b.intLen - 1;
+        int end = offset + intLen - 1;
+        long borrow = 0;
+        for (int k = 0; k < intLen; k++) {
+            long difference = (value[end - k] & LONG_MASK) - borrow;
+            if (k < b.intLen)
+                difference -= bval[bend - k] & LONG_MASK;
+            value[end - k] = (int) difference;
+            borrow = (difference >> 32) & 1;
+        }
+        normalize();
+    }
+
     /**
      * Compare two longs as if they were unsigned.
      * Returns true iff one is bigger than two.
@@ -7,6 +7,7 @@ import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodHandles.Lookup;
 import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
 
 /*
  * This class use methods java.Math.*exact from OpenJDK.
@@ -23,64 +24,238 @@ public class RT {
     return new ConstantCallSite(MethodHandles.constant(BigInt.class, BigInt.valueOf(bigIntAsString)));
   }
   
-  public static CallSite operatorBSM(Lookup lookup, String name, MethodType methodType) {
-    String methodName;
+  // name of the runtime methods implementing an operator,
+  // the exact int version is suffixed by "Exact", the int version returning a BigInt
+  // when an overflow occurs by "Overflowed" and the BigInt version by "Big"
+  private static String operatorMethodName(String name) {
     switch(name) {
     case "ADD":
-      methodName = "add";
-      break;
+      return "add";
+    case "SUB":
+      return "subtract";
+    case "MUL":
+      return "multiply";
+    case "TRUNC":
+      return "trunc";
+    case "MOD":
+      return "mod";
+    case "NEG":
+      return "negate";
+    case "SHL":
+      return "shiftLeft";
+    case "SAR":
+      return "shiftRight";
+    case "BIT_AND":
+      return "and";
+    case "BIT_OR":
+      return "or";
+    case "BIT_XOR":
+      return "xor";
+    case "BIT_NOT":
+      return "not";
+    case "LT":
+      return "lt";
+    case "LTE":
+      return "le";
+    case "GT":
+      return "gt";
+    case "GTE":
+      return "ge";
+    case "EQ":
+    case "EQ_STRICT":
+      return "eq";
+    case "NE":
+    case "NE_STRICT":
+      return "ne";
     default:
       throw new BootstrapMethodError("operation "+name+" not implemented yet");
     }
-    
-    MethodHandle mh;
+  }
+  
+  private static MethodHandle findOperator(String methodName, MethodType methodType) {
     try {
-      mh = MethodHandles.lookup().findVirtual(BigInt.class, methodName, MethodType.methodType(BigInt.class, BigInt.class));
+      return MethodHandles.lookup().findStatic(RT.class, methodName, methodType);
     } catch (NoSuchMethodException | IllegalAccessException e) {
       throw new BootstrapMethodError(e);
     }
-    
-    return new ConstantCallSite(mh);
   }
   
+  // operation on ints or BigInts
+  public static CallSite operatorBSM(Lookup lookup, String name, MethodType methodType) {
+    String methodName = operatorMethodName(name);
+    boolean intOnly = true;
+    for(Class<?> parameterType: methodType.parameterList()) {
+      intOnly &= parameterType == int.class;
+    }
+    if (intOnly) {
+      return new ConstantCallSite(findOperator(methodName + "Exact", methodType));
+    }
+    return new ConstantCallSite(bigOperator(methodName, methodType));
+  }
+  
+  // operation on ints that has overflowed, so returns a BigInt 
   public static CallSite operatorOverflowBSM(Lookup lookup, String name, MethodType methodType) {
-    String methodName;
-    switch(name) {
-    case "ADD":
-      methodName = "addOverflowed";
-      break;
-    default:
-      throw new BootstrapMethodError("operation "+name+" not implemented yet");
+    String methodName = operatorMethodName(name);
+    return new ConstantCallSite(findOperator(methodName + "Overflowed", methodType));
+  }
+  
+  // operation on mixed ints (an int and a BigInt), ints or BigInts
+  public static CallSite operatorBigBSM(Lookup lookup, String name, MethodType methodType) {
+    String methodName = operatorMethodName(name);
+    return new ConstantCallSite(bigOperator(methodName, methodType));
+  }
+  
+  // all Big operations takes mixed ints (int, BigInt) as parameter,
+  // an operand typed as an int or as a BigInt is adapted by inserting
+  // respectively null or 0 as the missing part.
+  private static MethodHandle bigOperator(String methodName, MethodType methodType) {
+    int operandCount = (methodName.equals("negate") || methodName.equals("not"))? 1: 2;
+    Class<?> returnType = (methodType.returnType() == boolean.class)? boolean.class: BigInt.class;
+    Class<?>[] mixedTypes = new Class<?>[2 * operandCount];
+    for(int i = 0; i < operandCount; i++) {
+      mixedTypes[2 * i] = int.class;
+      mixedTypes[2 * i + 1] = BigInt.class;
     }
+    MethodHandle mh = findOperator(methodName + "Big", MethodType.methodType(returnType, mixedTypes));
     
-    MethodHandle mh;
-    try {
-      mh = MethodHandles.lookup().findStatic(RT.class, methodName, methodType);
-    } catch (NoSuchMethodException | IllegalAccessException e) {
-      throw new BootstrapMethodError(e);
+    // find the representation of each operand
+    int parameterCount = methodType.parameterCount();
+    boolean[] mixed = new boolean[operandCount];
+    Class<?>[] types = new Class<?>[operandCount];
+    int index = 0;
+    for(int i = 0; i < operandCount; i++) {
+      if (index >= parameterCount) {
+        throw new BootstrapMethodError("invalid operation type "+methodType);
+      }
+      Class<?> type = methodType.parameterType(index);
+      // more parameters than remaining operands, so this one is a pair
+      if (parameterCount - index > operandCount - i && type == int.class &&
+          methodType.parameterType(index + 1) == BigInt.class) {
+        mixed[i] = true;
+        index += 2;
+      } else {
+        types[i] = type;
+        index++;
+      }
+    }
+    if (index != parameterCount) {
+      throw new BootstrapMethodError("invalid operation type "+methodType);
     }
     
-    return new ConstantCallSite(mh);
+    // from right to left, so positions of the operands on the left are not shifted
+    for(int i = operandCount; --i >= 0;) {
+      if (mixed[i]) {
+        continue;
+      }
+      if (types[i] == int.class) {
+        mh = MethodHandles.insertArguments(mh, 2 * i + 1, (Object)null);
+      } else {
+        mh = MethodHandles.insertArguments(mh, 2 * i, 0);
+      }
+    }
+    return mh.asType(methodType);
   }
   
-  public static CallSite operatorBigBSM(Lookup lookup, String name, MethodType methodType) {
-    String methodName;
-    switch(name) {
-    case "ADD":
-      methodName = "addBig";
-      break;
-    default:
-      throw new BootstrapMethodError("operation "+name+" not implemented yet");
+  // method call, an inlining cache guarded by the receiver class,
+  // once there are too many receiver classes, a vtable lookup is used
+  public static CallSite methodCallBSM(Lookup lookup, String name, MethodType methodType) {
+    InliningCacheCallSite callSite = new InliningCacheCallSite(lookup, name, methodType);
+    callSite.setTarget(FALLBACK.bindTo(callSite)
+        .asCollector(Object[].class, methodType.parameterCount())
+        .asType(methodType));
+    return callSite;
+  }
+  
+  static class InliningCacheCallSite extends MutableCallSite {
+    // maximum number of receiver classes before going megamorphic 
+    static final int MAX_DEPTH = 3;
+    
+    final Lookup lookup;
+    final String name;
+    // number of receiver classes in the guard chain, guarded by this
+    int depth;
+    // true once the guard chain is replaced by a vtable lookup, guarded by this
+    boolean megamorphic;
+    
+    InliningCacheCallSite(Lookup lookup, String name, MethodType methodType) {
+      super(methodType);
+      this.lookup = lookup;
+      this.name = name;
     }
     
-    MethodHandle mh;
+    MethodHandle findTarget(Class<?> receiverClass) {
+      MethodType methodType = type();
+      MethodHandle target;
+      try {
+        target = lookup.findVirtual(receiverClass, name, methodType.dropParameterTypes(0, 1));
+      } catch (NoSuchMethodException | IllegalAccessException e) {
+        throw new BootstrapMethodError(e);
+      }
+      return target.asType(methodType);
+    }
+  }
+  
+  private static final MethodHandle FALLBACK, CHECK_CLASS, VTABLE_LOOKUP;
+  static {
+    Lookup lookup = MethodHandles.lookup();
     try {
-      mh = MethodHandles.lookup().findStatic(RT.class, methodName, methodType);
+      FALLBACK = lookup.findStatic(RT.class, "fallback",
+          MethodType.methodType(Object.class, InliningCacheCallSite.class, Object[].class));
+      CHECK_CLASS = lookup.findStatic(RT.class, "checkClass",
+          MethodType.methodType(boolean.class, Class.class, Object.class));
+      VTABLE_LOOKUP = lookup.findStatic(RT.class, "vtableLookup",
+          MethodType.methodType(MethodHandle.class, ClassValue.class, Object.class));
     } catch (NoSuchMethodException | IllegalAccessException e) {
-      throw new BootstrapMethodError(e);
+      throw new AssertionError(e);
     }
+  }
+  
+  @SuppressWarnings("unused")  // called by a method handle
+  private static Object fallback(InliningCacheCallSite callSite, Object[] args) throws Throwable {
+    MethodType methodType = callSite.type();
+    Class<?> receiverClass = args[0].getClass();
+    MethodHandle target = callSite.findTarget(receiverClass);
     
-    return new ConstantCallSite(mh);
+    // several threads may miss at the same time, the guard chain is read and extended
+    // under the lock of the call site so no entry is lost and the depth is never exceeded
+    synchronized(callSite) {
+      if (callSite.depth >= InliningCacheCallSite.MAX_DEPTH) {
+        if (!callSite.megamorphic) {
+          callSite.setTarget(megamorphic(callSite));
+          callSite.megamorphic = true;
+        }
+      } else {
+        MethodHandle test = CHECK_CLASS.bindTo(receiverClass)
+            .asType(MethodType.methodType(boolean.class, methodType.parameterType(0)));
+        test = MethodHandles.dropArguments(test, 1, methodType.dropParameterTypes(0, 1).parameterList());
+        callSite.setTarget(MethodHandles.guardWithTest(test, target, callSite.getTarget()));
+        callSite.depth++;
+      }
+    }
+    return target.invokeWithArguments(args);
+  }
+  
+  private static MethodHandle megamorphic(final InliningCacheCallSite callSite) {
+    MethodType methodType = callSite.type();
+    ClassValue<MethodHandle> vtable = new ClassValue<MethodHandle>() {
+      @Override
+      protected MethodHandle computeValue(Class<?> receiverClass) {
+        return callSite.findTarget(receiverClass);
+      }
+    };
+    MethodHandle lookup = VTABLE_LOOKUP.bindTo(vtable)
+        .asType(MethodType.methodType(MethodHandle.class, methodType.parameterType(0)));
+    return MethodHandles.foldArguments(MethodHandles.exactInvoker(methodType), lookup);
+  }
+  
+  @SuppressWarnings("unused")  // called by a method handle
+  private static boolean checkClass(Class<?> receiverClass, Object receiver) {
+    return receiver.getClass() == receiverClass;
+  }
+  
+  @SuppressWarnings("unused")  // called by a method handle
+  private static MethodHandle vtableLookup(ClassValue<MethodHandle> vtable, Object receiver) {
+    return vtable.get(receiver.getClass());
   }
   
   public static CallSite functionCallBSM(Lookup lookup, String name, MethodType methodType, Class<?> unitType) {
@@ -89,12 +264,20 @@ public class RT {
     // temporary hack, trap print()
     if (name.equals("print") && unitType.getName().equals("core_runtime")) {
       MethodType lookupMethodType = methodType;
-      if (!methodType.parameterType(0).isPrimitive()) {
+      Class<?> parameterType = methodType.parameterType(0);
+      // a nullable boolean (a byte) or a nullable double is boxed so null is printed as null
+      boolean boxed = parameterType == byte.class || parameterType == double.class;
+      if (boxed || !parameterType.isPrimitive()) {
         lookupMethodType = methodType.changeParameterType(0, Object.class);
       }
       MethodHandle mh;
       try {
         mh = MethodHandles.lookup().findVirtual(PrintStream.class, "println", lookupMethodType);
+        if (boxed) {
+          String boxName = (parameterType == byte.class)? "boxNullableBoolean": "boxNullableDouble";
+          MethodHandle box = MethodHandles.lookup().findStatic(RT.class, boxName, MethodType.methodType(Object.class, parameterType));
+          mh = MethodHandles.filterArguments(mh, 1, box);
+        }
       } catch (NoSuchMethodException | IllegalAccessException e) {
         throw new BootstrapMethodError(e);
       }
@@ -117,28 +300,380 @@ public class RT {
     throw new ArithmeticException();
   }
   
+  private static BigInt big(int r, BigInt _r) {
+    return (_r == null)? BigInt.valueOf(r): _r;
+  }
+  
+  private static int shiftCount(int r, BigInt _r) {
+    if (_r != null) {
+      // the sign first, a negative count is always an error
+      if (_r.signum < 0) {
+        throw new IllegalArgumentException("negative shift count " + _r);
+      }
+      if (isShiftCountTooBig(_r)) {
+        throw new ArithmeticException("shift count too big");
+      }
+      r = (_r.mag.length == 0)? 0: _r.mag[0];
+    }
+    if (r < 0) {
+      throw new IllegalArgumentException("negative shift count " + r);
+    }
+    return r;
+  }
+  
+  // true if a positive BigInt doesn't fit in an int
+  private static boolean isShiftCountTooBig(BigInt _r) {
+    int[] mag = _r.mag;
+    return mag.length > 1 || (mag.length == 1 && mag[0] < 0);
+  }
+  
+  // --- exact int versions, throw an ArithmeticException if the result doesn't fit in an int
+  
+  // version used for jdk7, jdk8 uses Math.addExact()
+  public static int addExact(int r1, int r2) {
+    int result = r1 + r2;
+    // HD 2-12 Overflow iff both arguments have the opposite sign of the result
+    if (((r1 ^ result) & (r2 ^ result)) < 0) {
+        throw new ArithmeticException("integer overflow");
+    }
+    return result;
+  }
+  
+  // version used for jdk7, jdk8 uses Math.subtractExact()
+  public static int subtractExact(int r1, int r2) {
+    int result = r1 - r2;
+    // HD 2-12 Overflow iff the arguments have different signs and
+    // the sign of the result is different than the sign of r1
+    if (((r1 ^ r2) & (r1 ^ result)) < 0) {
+      throw new ArithmeticException("integer overflow");
+    }
+    return result;
+  }
+  
+  // version used for jdk7, jdk8 uses Math.multiplyExact()
+  public static int multiplyExact(int r1, int r2) {
+    long result = (long)r1 * (long)r2;
+    if ((int)result != result) {
+      throw new ArithmeticException("integer overflow");
+    }
+    return (int)result;
+  }
+  
+  // Dart ~/, the only overflow is MIN_VALUE ~/ -1
+  public static int truncExact(int r1, int r2) {
+    if (r2 == -1 && r1 == Integer.MIN_VALUE) {
+      throw new ArithmeticException("integer overflow");
+    }
+    return r1 / r2;
+  }
+  
+  // Dart %, the result is always positive, never overflows
+  public static int modExact(int r1, int r2) {
+    int result = r1 % r2;
+    if (result < 0) {
+      result = (r2 < 0)? result - r2: result + r2;
+    }
+    return result;
+  }
+  
+  // version used for jdk7, jdk8 uses Math.negateExact()
+  public static int negateExact(int r) {
+    if (r == Integer.MIN_VALUE) {
+      throw new ArithmeticException("integer overflow");
+    }
+    return -r;
+  }
+  
+  public static int shiftLeftExact(int r1, int r2) {
+    if (r2 < 0) {
+      throw new IllegalArgumentException("negative shift count " + r2);
+    }
+    if (r1 == 0) {
+      return 0;
+    }
+    if (r2 < 32) {
+      int result = r1 << r2;
+      if ((result >> r2) == r1) {
+        return result;
+      }
+    }
+    throw new ArithmeticException("integer overflow");
+  }
+  
+  public static int shiftRightExact(int r1, int r2) {
+    if (r2 < 0) {
+      throw new IllegalArgumentException("negative shift count " + r2);
+    }
+    return r1 >> Math.min(r2, 31);
+  }
+  
+  public static int andExact(int r1, int r2) {
+    return r1 & r2;
+  }
+  
+  public static int orExact(int r1, int r2) {
+    return r1 | r2;
+  }
+  
+  public static int xorExact(int r1, int r2) {
+    return r1 ^ r2;
+  }
+  
+  public static int notExact(int r) {
+    return ~r;
+  }
+  
+  public static boolean ltExact(int r1, int r2) {
+    return r1 < r2;
+  }
+  
+  public static boolean leExact(int r1, int r2) {
+    return r1 <= r2;
+  }
+  
+  public static boolean gtExact(int r1, int r2) {
+    return r1 > r2;
+  }
+  
+  public static boolean geExact(int r1, int r2) {
+    return r1 >= r2;
+  }
+  
+  public static boolean eqExact(int r1, int r2) {
+    return r1 == r2;
+  }
+  
+  public static boolean neExact(int r1, int r2) {
+    return r1 != r2;
+  }
+
+  // --- nullable primitives, null is encoded without boxing
+
+  // null as a nullable double, a NaN with a payload, a NaN computed by an operation on non null doubles
+  // never has this payload
+  public static final long NULL_DOUBLE_BITS = 0x7ff80000_dead0000L;
+  public static final double NULL_DOUBLE = Double.longBitsToDouble(NULL_DOUBLE_BITS);
+
+  public static boolean isNullDouble(double value) {
+    return Double.doubleToRawLongBits(value) == NULL_DOUBLE_BITS;
+  }
+
+  // == on nullable doubles, null is only equal to null
+  public static boolean eqNullableDouble(double value1, double value2) {
+    boolean isNull1 = isNullDouble(value1);
+    boolean isNull2 = isNullDouble(value2);
+    if (isNull1 || isNull2) {
+      return isNull1 && isNull2;
+    }
+    return value1 == value2;
+  }
+
+  // an operation on null is an error
+  public static double checkNullDouble(double value) {
+    if (isNullDouble(value)) {
+      throw new NullPointerException();
+    }
+    return value;
+  }
+
+  // boxed values, used when calling a function that is not generated
+
+  public static Object boxNullableDouble(double value) {
+    return (isNullDouble(value))? null: Double.valueOf(value);
+  }
+
+  public static double unboxNullableDouble(Object value) {
+    return (value == null)? NULL_DOUBLE: (Double) value;
+  }
+
+  // a nullable boolean is 0 (false), 1 (true) or 2 (null)
+  public static Object boxNullableBoolean(byte value) {
+    return (value == 2)? null: Boolean.valueOf(value == 1);
+  }
+
+  public static byte unboxNullableBoolean(Object value) {
+    if (value == null) {
+      return 2;
+    }
+    return (byte)(((Boolean) value)? 1: 0);
+  }
+
+  // --- double versions
+
+  // Dart ~/, the quotient is truncated toward zero
+  public static double truncDouble(double r1, double r2) {
+    double result = r1 / r2;
+    return (result < 0)? Math.ceil(result): Math.floor(result);
+  }
+
+  // Dart %, the result is always positive
+  public static double modDouble(double r1, double r2) {
+    double result = r1 % r2;
+    if (result < 0) {
+      result += Math.abs(r2);
+    }
+    return result;
+  }
+
+  // --- int versions that have overflowed, the result is computed as a BigInt
+  
   public static BigInt addOverflowed(int r1, int r2) {
     long result = (long)r1 + (long)r2;
     return BigInt.valueOf(result);
   }
+  
+  public static BigInt subtractOverflowed(int r1, int r2) {
+    long result = (long)r1 - (long)r2;
+    return BigInt.valueOf(result);
+  }
+  
+  public static BigInt multiplyOverflowed(int r1, int r2) {
+    long result = (long)r1 * (long)r2;
+    return BigInt.valueOf(result);
+  }
+  
+  public static BigInt truncOverflowed(int r1, int r2) {
+    long result = (long)r1 / (long)r2;
+    return BigInt.valueOf(result);
+  }
+  
+  public static BigInt negateOverflowed(int r) {
+    return BigInt.valueOf(- (long)r);
+  }
+  
+  public static BigInt shiftLeftOverflowed(int r1, int r2) {
+    return BigInt.valueOf(r1).shiftLeft(shiftCount(r2, null));
+  }
+
+  // the following operations never overflow, the int version only throws
+  // for a division by zero or a negative shift count, so these versions throw the same exception
+
+  public static BigInt modOverflowed(int r1, int r2) {
+    return BigInt.valueOf(modExact(r1, r2));
+  }
 
+  public static BigInt shiftRightOverflowed(int r1, int r2) {
+    return BigInt.valueOf(shiftRightExact(r1, r2));
+  }
+
+  public static BigInt andOverflowed(int r1, int r2) {
+    return BigInt.valueOf(r1 & r2);
+  }
+
+  public static BigInt orOverflowed(int r1, int r2) {
+    return BigInt.valueOf(r1 | r2);
+  }
+
+  public static BigInt xorOverflowed(int r1, int r2) {
+    return BigInt.valueOf(r1 ^ r2);
+  }
+  
+  // --- mixed int versions, a mixed int is an int and a BigInt, if the BigInt is null
+  //     the value is the int
+  
   public static BigInt addBig(int r1, BigInt _r1, int r2, BigInt _r2) {
     if (_r1 == null) {
-      _r1 = BigInt.valueOf(r1);
+      if (_r2 == null) {
+        return BigInt.valueOf((long)r1 + (long)r2);
+      }
+      return _r2.add(r1);
     }
     if (_r2 == null) {
-      _r2 = BigInt.valueOf(r2);
+      return _r1.add(r2);
     }
     return _r1.add(_r2);
   }
   
-  // version used for jdk7, jdk8 uses Math.addExact()
-  public static int addExact(int r1, int r2) {
-    int result = r1 + r2;
-    // HD 2-12 Overflow iff both arguments have the opposite sign of the result
-    if (((r1 ^ result) & (r2 ^ result)) < 0) {
-        throw new ArithmeticException("integer overflow");
+  public static BigInt subtractBig(int r1, BigInt _r1, int r2, BigInt _r2) {
+    if (_r2 == null) {
+      if (_r1 == null) {
+        return BigInt.valueOf((long)r1 - (long)r2);
+      }
+      return _r1.subtract(r2);
+    }
+    return big(r1, _r1).subtract(_r2);
+  }
+  
+  public static BigInt multiplyBig(int r1, BigInt _r1, int r2, BigInt _r2) {
+    if (_r1 == null) {
+      if (_r2 == null) {
+        return BigInt.valueOf((long)r1 * (long)r2);
+      }
+      return _r2.multiply(r1);
+    }
+    if (_r2 == null) {
+      return _r1.multiply(r2);
+    }
+    return _r1.multiply(_r2);
+  }
+  
+  public static BigInt truncBig(int r1, BigInt _r1, int r2, BigInt _r2) {
+    return big(r1, _r1).divide(big(r2, _r2));
+  }
+  
+  public static BigInt modBig(int r1, BigInt _r1, int r2, BigInt _r2) {
+    BigInt divisor = big(r2, _r2);
+    BigInt result = big(r1, _r1).remainder(divisor);
+    if (result.signum < 0) {
+      result = (divisor.signum < 0)? result.subtract(divisor): result.add(divisor);
     }
     return result;
   }
+  
+  public static BigInt negateBig(int r, BigInt _r) {
+    return big(r, _r).negate();
+  }
+  
+  public static BigInt shiftLeftBig(int r1, BigInt _r1, int r2, BigInt _r2) {
+    return big(r1, _r1).shiftLeft(shiftCount(r2, _r2));
+  }
+  
+  public static BigInt shiftRightBig(int r1, BigInt _r1, int r2, BigInt _r2) {
+    BigInt value = big(r1, _r1);
+    if (_r2 != null && _r2.signum > 0 && isShiftCountTooBig(_r2)) {
+      // all the bits are shifted out
+      return (value.signum < 0)? BigInt.valueOf(-1): BigInt.ZERO;
+    }
+    return value.shiftRight(shiftCount(r2, _r2));
+  }
+  
+  public static BigInt andBig(int r1, BigInt _r1, int r2, BigInt _r2) {
+    return big(r1, _r1).and(big(r2, _r2));
+  }
+  
+  public static BigInt orBig(int r1, BigInt _r1, int r2, BigInt _r2) {
+    return big(r1, _r1).or(big(r2, _r2));
+  }
+  
+  public static BigInt xorBig(int r1, BigInt _r1, int r2, BigInt _r2) {
+    return big(r1, _r1).xor(big(r2, _r2));
+  }
+  
+  public static BigInt notBig(int r, BigInt _r) {
+    return big(r, _r).not();
+  }
+  
+  public static boolean ltBig(int r1, BigInt _r1, int r2, BigInt _r2) {
+    return big(r1, _r1).compareTo(big(r2, _r2)) < 0;
+  }
+  
+  public static boolean leBig(int r1, BigInt _r1, int r2, BigInt _r2) {
+    return big(r1, _r1).compareTo(big(r2, _r2)) <= 0;
+  }
+  
+  public static boolean gtBig(int r1, BigInt _r1, int r2, BigInt _r2) {
+    return big(r1, _r1).compareTo(big(r2, _r2)) > 0;
+  }
+  
+  public static boolean geBig(int r1, BigInt _r1, int r2, BigInt _r2) {
+    return big(r1, _r1).compareTo(big(r2, _r2)) >= 0;
+  }
+  
+  public static boolean eqBig(int r1, BigInt _r1, int r2, BigInt _r2) {
+    return big(r1, _r1).compareTo(big(r2, _r2)) == 0;
+  }
+  
+  public static boolean neBig(int r1, BigInt _r1, int r2, BigInt _r2) {
+    return big(r1, _r1).compareTo(big(r2, _r2)) != 0;
+  }
 }
@@ -2,15 +2,19 @@ import static com.google.dart.compiler.SystemLibraryManager.DEFAULT_PLATFORM;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import jdart.compiler.cha.ClassHierarchyAnalysisPhase;
 import jdart.compiler.flow.InterProceduralMethodCallResolver;
 import jdart.compiler.flow.TypeHelper;
 import jdart.compiler.gen.Gen;
+import jdart.compiler.gen.GenOptions;
+import jdart.compiler.gen.ProgramCache;
 import jdart.compiler.type.CoreTypeRepository;
 import jdart.compiler.type.Type;
 import jdart.compiler.type.TypeRepository;
@@ -43,7 +47,8 @@ public class Main {
       e.printStackTrace();
     }
 
-    final ClassHierarchyAnalysisPhase chaInstance = ClassHierarchyAnalysisPhase.getInstance();
+    // the class hierarchy of this compilation
+    final ClassHierarchyAnalysisPhase chaInstance = new ClassHierarchyAnalysisPhase();
     
     CompilerConfiguration config = new DefaultCompilerConfiguration(compilerOptions, libraryManager) {
       @Override
@@ -71,16 +76,37 @@ public class Main {
       return;
     }
     
-     // initialize core type repository
-    CoreTypeRepository coreTypeRepository = CoreTypeRepository.initCoreTypeRepository(chaInstance.getCoreTypeProvider());
-    TypeRepository typeRepository = new TypeRepository(coreTypeRepository);
-    TypeHelper typeHelper = new TypeHelper(typeRepository);
+    GenOptions genOptions = GenOptions.fromSystemProperties();
     
-    // type flow starting with main method
-    InterProceduralMethodCallResolver methodCallResolver = new InterProceduralMethodCallResolver(typeHelper);
-    methodCallResolver.functionCall(mainMethod, Collections.<Type>emptyList(), CoreTypeRepository.VOID_TYPE);
+    // the classes generated for an unchanged program (same sources, options and compiler)
+    // are reused, the type flow and the generation are skipped
+    ProgramCache programCache = ProgramCache.fromSystemProperties();
+    String cacheKey = (programCache == null)? null: ProgramCache.computeKey(units, genOptions);
+    Map<String, byte[]> classMap = (cacheKey == null)? null: programCache.get(cacheKey);
+    if (classMap == null) {
+      // initialize core type repository
+      CoreTypeRepository coreTypeRepository = CoreTypeRepository.initCoreTypeRepository(chaInstance.getCoreTypeProvider());
+      TypeRepository typeRepository = new TypeRepository(coreTypeRepository);
+      TypeHelper typeHelper = new TypeHelper(typeRepository);
+      
+      // type flow starting with main method,
+      // profiles are merged if they have the same shape once generated
+      InterProceduralMethodCallResolver methodCallResolver = new InterProceduralMethodCallResolver(typeHelper, chaInstance, Gen.profileShape(genOptions));
+      methodCallResolver.functionCall(mainMethod, Collections.<Type>emptyList(), CoreTypeRepository.VOID_TYPE);
+      
+      classMap = Gen.genClasses(mainMethod, methodCallResolver.getMethodMap(), genOptions);
+      if (cacheKey != null) {
+        programCache.put(cacheKey, classMap);
+      }
+    }
     
-    Gen.genAll(mainMethod, methodCallResolver.getMethodMap());
+    // the classes are written in a jar if the system property jdart.jar is set
+    String jarName = System.getProperty("jdart.jar");
+    if (jarName != null) {
+      Gen.writeJar(classMap, Paths.get(jarName));
+    } else {
+      Gen.writeClasses(classMap);
+    }
   }
 
   public static void main(String[] args) throws IOException {
@@ -40,7 +40,7 @@ public class Toto {
 
         phases.add(new CompileTimeConstantAnalyzer.Phase());
         phases.add(new Resolver.Phase());
-        // phases.add(ClassHierarchyAnalysisPhase.getInstance());
+        // phases.add(new ClassHierarchyAnalysisPhase());
         /*
          * phases.add(new TypeAnalyzer());
          */
@@ -2,20 +2,49 @@ package jdart.compiler.cha;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map.Entry;
 
 import com.google.dart.compiler.ast.DartMethodDefinition;
+import com.google.dart.compiler.resolver.ClassElement;
 import com.google.dart.compiler.resolver.MethodNodeElement;
 
 class CHAClass {
+  private final ClassElement element;
   private final CHAClass superclass;
   private final List<CHAClass> interfaces;
   final HashMap<String, ArrayList<DartMethodDefinition>> methodMap = new HashMap<>();
+  final LinkedHashSet<ClassElement> subtypes = new LinkedHashSet<>();  // direct and indirect subtypes
   
-  public CHAClass(CHAClass superclass, List<CHAClass> interfaces) {
+  public CHAClass(ClassElement element, CHAClass superclass, List<CHAClass> interfaces) {
+    this.element = element;
     this.superclass = superclass;
     this.interfaces = interfaces;
+    
+    // a class is always created after its supertypes, so only the supertypes need to be updated
+    if (superclass != null) {
+      superclass.addSubtype(element);
+    }
+    for(CHAClass interfaze: interfaces) {
+      interfaze.addSubtype(element);
+    }
+  }
+  
+  private void addSubtype(ClassElement subtype) {
+    if (!subtypes.add(subtype)) {
+      return;
+    }
+    if (superclass != null) {
+      superclass.addSubtype(subtype);
+    }
+    for(CHAClass interfaze: interfaces) {
+      interfaze.addSubtype(subtype);
+    }
+  }
+  
+  public ClassElement getElement() {
+    return element;
   }
 
   public void addMethod(String name, DartMethodDefinition methodDefinition) {
@@ -2,6 +2,7 @@ package jdart.compiler.cha;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -32,21 +33,20 @@ import com.google.dart.compiler.resolver.MethodNodeElement;
 import com.google.dart.compiler.resolver.NodeElement;
 import com.google.dart.compiler.type.InterfaceType;
 
+/**
+ * The class hierarchy index of a compilation.
+ * 
+ * A new instance should be created for each compilation. The index is incremental,
+ * a unit and the units it depends on are analyzed once, a class is added to the index
+ * without changing the classes already indexed apart from the override tables and
+ * the subtype sets of its supertypes.
+ */
 public class ClassHierarchyAnalysisPhase implements DartCompilationPhase {
   private final CHAVisitor visitor = new CHAVisitor();
   final LinkedHashSet<DartUnit> seenUnit = new LinkedHashSet<>();
   final ArrayDeque<DartUnit> pending = new ArrayDeque<>();
   CoreTypeProvider coreTypeProvider;
   
-  private ClassHierarchyAnalysisPhase() {
-    // enforce singleton
-  }
-  
-  public static ClassHierarchyAnalysisPhase getInstance() {
-    return SINGLETON;
-  }
-  private static final ClassHierarchyAnalysisPhase SINGLETON = new ClassHierarchyAnalysisPhase();
-  
   public Set<DartUnit> getUnits() {
     return seenUnit;
   }
@@ -59,33 +59,52 @@ public class ClassHierarchyAnalysisPhase implements DartCompilationPhase {
     return coreTypeProvider;
   }
   
+  /**
+   * Returns the methods named methodName declared by a class and by its subtypes.
+   * 
+   * @param classElement a class.
+   * @param methodName the name of a method.
+   * @return the overriding methods or an empty list if the class was not analyzed.
+   */
   public List<DartMethodDefinition> getOverridingMethods(ClassElement classElement, String methodName) {
-    return visitor.classMap.get(classElement).methodMap.get(methodName);
+    CHAClass chaClass = visitor.classMap.get(classElement);
+    if (chaClass == null) {
+      return Collections.emptyList();
+    }
+    List<DartMethodDefinition> methods = chaClass.methodMap.get(methodName);
+    if (methods == null) {
+      return Collections.emptyList();
+    }
+    return Collections.unmodifiableList(methods);
   }
   
-  @Override
-  public DartUnit exec(DartUnit unit, DartCompilerContext context, CoreTypeProvider coreTypeProvider) {
-    // this phase is a rogue phase that doesn't follow the phase control flow
-    // the first time this phase it called, it crawle all libraries to performs
-    // the CHA analysis which is not incremental
-    //FIXME this doesn't work because there is no way to get all dependency
-    //  so the current algorithm use static dependency to try to find all dependencies
-    
-    this.coreTypeProvider = coreTypeProvider;
-    
+  /**
+   * Returns the direct and indirect subtypes of a class found so far.
+   * 
+   * @param classElement a class.
+   * @return the subtypes or an empty set if the class was not analyzed.
+   */
+  public Set<ClassElement> getSubtypes(ClassElement classElement) {
+    CHAClass chaClass = visitor.classMap.get(classElement);
+    if (chaClass == null) {
+      return Collections.emptySet();
+    }
+    return Collections.unmodifiableSet(chaClass.subtypes);
+  }
+  
+  /**
+   * Adds a unit and the units it depends on to the index,
+   * the units already analyzed are not analyzed again.
+   * 
+   * @param unit a unit.
+   */
+  public void addUnit(DartUnit unit) {
     // already seen
-    if (seenUnit.contains(unit)) {
-      return unit;
+    if (!seenUnit.add(unit)) {
+      return;
     }
     
-    //FIXME it always fails
-    /*if (alreadyCalledOnce) {
-      throw new IllegalStateException("CHA analysis failed "+unit);
-    }*/
-    
     pending.add(unit);
-    seenUnit.add(unit);
-    
     while(!pending.isEmpty()) {
       DartUnit pendingUnit = pending.poll();
       //System.out.println("visit unit "+pendingUnit.getSourceName());
@@ -93,6 +112,17 @@ public class ClassHierarchyAnalysisPhase implements DartCompilationPhase {
     }
     
     //visitor.debug();
+  }
+  
+  @Override
+  public DartUnit exec(DartUnit unit, DartCompilerContext context, CoreTypeProvider coreTypeProvider) {
+    // this phase is a rogue phase that doesn't follow the phase control flow,
+    // it crawls the units the current unit depends on
+    //FIXME there is no way to get all dependencies
+    //  so the current algorithm use static dependency to try to find all dependencies
+    
+    this.coreTypeProvider = coreTypeProvider;
+    addUnit(unit);
     return unit;
   }
   
@@ -128,7 +158,7 @@ public class ClassHierarchyAnalysisPhase implements DartCompilationPhase {
         interfaces.add(getCHAClass(interfaceType.getElement()));
       }
       
-      CHAClass chaClass = new CHAClass(superclass, interfaces);
+      CHAClass chaClass = new CHAClass(element, superclass, interfaces);
       for(Element member: element.getMembers()) {
         if (!(member instanceof MethodNodeElement)) {
           continue;
@@ -2,8 +2,12 @@ package jdart.compiler.flow;
 
 import static jdart.compiler.type.CoreTypeRepository.DYNAMIC_TYPE;
 import static jdart.compiler.type.CoreTypeRepository.VOID_TYPE;
+
+import java.util.HashSet;
+
 import jdart.compiler.type.FunctionType;
 import jdart.compiler.type.Type;
+import jdart.compiler.type.TypeRepository;
 import jdart.compiler.visitor.ASTVisitor2;
 
 import com.google.dart.compiler.ast.DartBlock;
@@ -22,6 +26,7 @@ import com.google.dart.compiler.resolver.MethodElement;
 class DefinitionVisitor extends ASTVisitor2<Void, FlowEnv> {
   private final TypeHelper typeHelper;
   private final MethodCallResolver methodCallResolver;
+  private final HashSet<DartNode> analysisElementNodes = new HashSet<>();
 
   DefinitionVisitor(TypeHelper typeHelper, MethodCallResolver methodCallResolver) {
     this.typeHelper = typeHelper;
@@ -29,8 +34,11 @@ class DefinitionVisitor extends ASTVisitor2<Void, FlowEnv> {
   }
 
   // entry point
+  @SuppressWarnings("try")  // the scope is only closed
   public void typeFlow(DartUnit unit) {
-    accept(unit, null);
+    try(TypeRepository.Scope scope = typeHelper.getTypeRepository().enterScope()) {
+      accept(unit, null);
+    }
   }
 
   @Override
@@ -82,7 +90,7 @@ class DefinitionVisitor extends ASTVisitor2<Void, FlowEnv> {
     // extract return type info from function type
     Type returnType = ((FunctionType) typeHelper.asType(false, element.getType())).getReturnType();
 
-    FTVisitor flowTypeVisitor = new FTVisitor(typeHelper, methodCallResolver);
+    FTVisitor flowTypeVisitor = new FTVisitor(typeHelper, methodCallResolver, null, analysisElementNodes);
     FlowEnv flowEnv = new FlowEnv(new FlowEnv(thisType), returnType, VOID_TYPE, false);
     for (DartParameter parameter : function.getParameters()) {
       Type parameterType = flowTypeVisitor.typeFlow(parameter, null);
@@ -93,6 +101,7 @@ class DefinitionVisitor extends ASTVisitor2<Void, FlowEnv> {
     if (body != null) {
       flowTypeVisitor.liveness(body, flowEnv);
     }
+    FTVisitor.applyElements(flowTypeVisitor.getElementMap(), analysisElementNodes);
 
     // TODO test display, to remove.
     System.out.println(flowEnv);
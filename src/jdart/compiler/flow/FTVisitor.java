@@ -6,11 +6,15 @@ import static jdart.compiler.type.CoreTypeRepository.*;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import jdart.compiler.cha.ClassHierarchyAnalysisPhase;
 import jdart.compiler.type.ArrayType;
 import jdart.compiler.type.BoolType;
 import jdart.compiler.type.DoubleType;
@@ -32,6 +36,7 @@ import com.google.dart.compiler.ast.DartBinaryExpression;
 import com.google.dart.compiler.ast.DartBlock;
 import com.google.dart.compiler.ast.DartBooleanLiteral;
 import com.google.dart.compiler.ast.DartBreakStatement;
+import com.google.dart.compiler.ast.DartContinueStatement;
 import com.google.dart.compiler.ast.DartDoWhileStatement;
 import com.google.dart.compiler.ast.DartDoubleLiteral;
 import com.google.dart.compiler.ast.DartEmptyStatement;
@@ -43,6 +48,8 @@ import com.google.dart.compiler.ast.DartFunctionObjectInvocation;
 import com.google.dart.compiler.ast.DartIdentifier;
 import com.google.dart.compiler.ast.DartIfStatement;
 import com.google.dart.compiler.ast.DartIntegerLiteral;
+import com.google.dart.compiler.ast.DartLabel;
+import com.google.dart.compiler.ast.DartMethodDefinition;
 import com.google.dart.compiler.ast.DartMethodInvocation;
 import com.google.dart.compiler.ast.DartNewExpression;
 import com.google.dart.compiler.ast.DartNode;
@@ -76,16 +83,38 @@ import com.google.dart.compiler.resolver.VariableElement;
 public class FTVisitor extends ASTVisitor2<Type, FlowEnv> {
   final TypeHelper typeHelper;
   private final MethodCallResolver methodCallResolver;
+  private final /*maybenull*/ClassHierarchyAnalysisPhase cha;
+  private final Set<DartNode> analysisElementNodes;
   private final StatementVisitor statementVisitor;
 
   private final HashMap<DartNode, Type> typeMap = new HashMap<>();
   final HashMap<DartNode, Liveness> livenessMap = new HashMap<>();
   final HashMap<DartNode, Map<VariableElement, Type>> phiTableMap = new HashMap<>();
+  private final LinkedHashMap<DartNode, Element> elementMap = new LinkedHashMap<>();
+  private final HashMap<DartNode, List<DartMethodDefinition>> implementationMap = new HashMap<>();
   private Type inferredReturnType;
+  private boolean unknownPath;
 
   public FTVisitor(TypeHelper typeHelper, MethodCallResolver methodCallResolver) {
+    this(typeHelper, methodCallResolver, null, Collections.<DartNode>emptySet());
+  }
+
+  /**
+   * Creates a visitor that records the implementations of the virtual calls
+   * found in the class hierarchy.
+   * 
+   * @param typeHelper the type helper.
+   * @param methodCallResolver the resolver of the calls.
+   * @param cha the class hierarchy of the compilation or null.
+   * @param analysisElementNodes the nodes whose element was set by a previous analysis,
+   *        their element is not read but computed again.
+   * @see #applyElements(Map)
+   */
+  public FTVisitor(TypeHelper typeHelper, MethodCallResolver methodCallResolver, /*maybenull*/ClassHierarchyAnalysisPhase cha, Set<DartNode> analysisElementNodes) {
     this.typeHelper = typeHelper;
     this.methodCallResolver = methodCallResolver;
+    this.cha = cha;
+    this.analysisElementNodes = analysisElementNodes;
     this.statementVisitor = new StatementVisitor();
   }
 
@@ -106,6 +135,17 @@ public class FTVisitor extends ASTVisitor2<Type, FlowEnv> {
   public Type getInferredReturnType(Type declaredReturnType) {
     return (inferredReturnType == null) ? declaredReturnType : inferredReturnType;
   }
+  
+  /**
+   * Returns true if no return statement was reached because
+   * the return type of some calls is not known yet.
+   * 
+   * @return true if the inferred return type is not known yet.
+   * @see UnknownReturnTypeException
+   */
+  public boolean isInferredReturnTypeUnknown() {
+    return inferredReturnType == null && unknownPath;
+  }
 
   public Map<DartNode, Type> getTypeMap() {
     return typeMap;
@@ -114,6 +154,59 @@ public class FTVisitor extends ASTVisitor2<Type, FlowEnv> {
     return livenessMap;
   }
 
+  /**
+   * Returns the implementations found by the class hierarchy analysis
+   * for the virtual calls on this.
+   * 
+   * @return the implementations of the called method by call site.
+   */
+  public Map<DartNode, List<DartMethodDefinition>> getImplementationMap() {
+    return implementationMap;
+  }
+  
+  /**
+   * Returns the elements found during the analysis for the AST nodes.
+   * Several analyses may run concurrently on the same AST,
+   * so the elements are not set on the nodes during the analysis,
+   * the caller should apply them in a deterministic order once the analysis is done.
+   * 
+   * @return the elements of the AST nodes.
+   * @see #applyElements(Map, Set)
+   */
+  public Map<DartNode, Element> getElementMap() {
+    return elementMap;
+  }
+  
+  private void setElement(DartNode node, Element element) {
+    elementMap.put(node, element);
+  }
+  
+  /**
+   * Sets the elements found by an analysis on the AST nodes,
+   * must not be called while an analysis is running.
+   * 
+   * @param elementMap the elements found by an analysis.
+   * @param analysisElementNodes the nodes whose element was set by an analysis, updated.
+   */
+  public static void applyElements(Map<DartNode, Element> elementMap, Set<DartNode> analysisElementNodes) {
+    for(Map.Entry<DartNode, Element> entry: elementMap.entrySet()) {
+      applyElement(entry.getKey(), entry.getValue());
+      analysisElementNodes.add(entry.getKey());
+    }
+  }
+  
+  private static void applyElement(DartNode node, Element element) {
+    if (node instanceof DartPropertyAccess) {
+      ((DartPropertyAccess) node).setElement(element);
+      return;
+    }
+    if (node instanceof DartArrayAccess) {
+      ((DartArrayAccess) node).setElement(element);
+      return;
+    }
+    ((DartFunctionObjectInvocation) node).setElement(element);
+  }
+
   // entry points
   public Type typeFlow(DartNode node, FlowEnv flowEnv) {
     return accept(node, flowEnv);
@@ -234,7 +327,17 @@ public class FTVisitor extends ASTVisitor2<Type, FlowEnv> {
 
     @Override
     protected Liveness accept(DartNode node, FlowEnv flowEnv) {
-      Liveness liveness = super.accept(node, flowEnv);
+      Liveness liveness;
+      try {
+        liveness = super.accept(node, flowEnv);
+      } catch(UnknownReturnTypeException e) {
+        if (!(node instanceof DartStatement)) {
+          throw e;
+        }
+        // a call to a function with an unknown return type doesn't return (yet)
+        unknownPath = true;
+        liveness = DEAD;
+      }
       livenessMap.put(node, liveness);
       return liveness;
     }
@@ -283,6 +386,16 @@ public class FTVisitor extends ASTVisitor2<Type, FlowEnv> {
       return DEAD;
     }
 
+    @Override
+    public Liveness visitContinueStatement(DartContinueStatement node, FlowEnv parameter) {
+      return DEAD;
+    }
+
+    @Override
+    public Liveness visitLabel(DartLabel node, FlowEnv parameter) {
+      return accept(node.getStatement(), parameter);
+    }
+
     @Override
     public Liveness visitVariableStatement(DartVariableStatement node, FlowEnv flowEnv) {
       for (DartVariable variable : node.getVariables()) {
@@ -294,15 +407,17 @@ public class FTVisitor extends ASTVisitor2<Type, FlowEnv> {
     @Override
     public Liveness visitVariable(DartVariable node, FlowEnv flowEnv) {
       DartExpression value = node.getValue();
+      VariableElement element = node.getElement();
+      Type declaredType = typeHelper.asType(true, element.getType());
+      // the declared type is recorded so the generator knows how to store null
+      typeMap.put(node, declaredType);
       if (value == null) {
         // variable is not initialized, in Dart variables are initialized
         // with null by default
-        flowEnv.register(node.getElement(), NULL_TYPE);
+        flowEnv.register(element, NULL_TYPE);
         return null;
       }
       // the type is the type of the initialization expression
-      VariableElement element = node.getElement();
-      Type declaredType = typeHelper.asType(true, element.getType());
       Type type = FTVisitor.this.accept(value, flowEnv.expectedType(declaredType));
       flowEnv.register(element, type);
       return null;
@@ -360,13 +475,20 @@ public class FTVisitor extends ASTVisitor2<Type, FlowEnv> {
       
       //removeUnknow(changeSet, flowEnv);
 
-      FlowEnv loopEnv = new FlowEnv(flowEnv, flowEnv.getReturnType(), flowEnv.getExpectedType(), true, changeSet);
-      FlowEnv afterLoopEnv = new FlowEnv(flowEnv);
       FlowEnv paramWithInit = new FlowEnv(flowEnv);
+      if (init != null) {
+        accept(init, paramWithInit);
+      }
+      Map<VariableElement, Type> inductionMap = computeInductionMap(condition, body, increment, paramWithInit);
+
+      FlowEnv loopEnv = new FlowEnv(flowEnv, flowEnv.getReturnType(), flowEnv.getExpectedType(), true, changeSet, inductionMap);
+      FlowEnv afterLoopEnv = new FlowEnv(flowEnv);
       if (init != null) {
         accept(init, loopEnv);
         accept(init, afterLoopEnv);
-        accept(init, paramWithInit);
+      }
+      for(Map.Entry<VariableElement, Type> entry: inductionMap.entrySet()) {
+        loopEnv.register(entry.getKey(), entry.getValue());
       }
 
       // condition should be a boolean
@@ -391,6 +513,92 @@ public class FTVisitor extends ASTVisitor2<Type, FlowEnv> {
       return ALIVE;
     }
 
+    /**
+     * Computes the values of the induction variable of a loop from the loop condition,
+     * so the induction variable is not widened in the loop.
+     * The loop condition must compare the induction variable (or its pre-increment) to
+     * a bound that doesn't change in the loop. 
+     */
+    private Map<VariableElement, Type> computeInductionMap(/*maybenull*/DartExpression condition, /*maybenull*/DartStatement body,
+        /*maybenull*/DartExpression increment, FlowEnv paramWithInit) {
+      while (condition instanceof DartParenthesizedExpression) {
+        condition = ((DartParenthesizedExpression) condition).getExpression();
+      }
+      if (!(condition instanceof DartBinaryExpression)) {
+        return Collections.emptyMap();
+      }
+      DartBinaryExpression binary = (DartBinaryExpression) condition;
+      Token operator = binary.getOperator();
+      if (operator != Token.LT && operator != Token.LTE && operator != Token.GT && operator != Token.GTE) {
+        return Collections.emptyMap();
+      }
+
+      InductionVisitor inductionVisitor = new InductionVisitor();
+      inductionVisitor.visitLoop(condition, body, increment);
+
+      DartExpression variableExpr = binary.getArg1();
+      DartExpression boundExpr = binary.getArg2();
+      VariableElement variable = inductionVariable(variableExpr, inductionVisitor);
+      if (variable == null) {
+        // bound < variable is variable > bound
+        variableExpr = binary.getArg2();
+        boundExpr = binary.getArg1();
+        variable = inductionVariable(variableExpr, inductionVisitor);
+        if (variable == null) {
+          return Collections.emptyMap();
+        }
+        operator = (operator == Token.LT)? Token.GT: (operator == Token.LTE)? Token.GTE: (operator == Token.GT)? Token.LT: Token.LTE;
+      }
+
+      BigInteger step = inductionVisitor.getStep(variable);
+      boolean increasing = operator == Token.LT || operator == Token.LTE;
+      if (increasing != (step.signum() > 0)) {
+        return Collections.emptyMap();
+      }
+      if (!(boundExpr instanceof DartIntegerLiteral)) {
+        Element boundElement = boundExpr.getElement();
+        if (!(boundExpr instanceof DartIdentifier) || !(boundElement instanceof VariableElement) ||
+            inductionVisitor.isChanged((VariableElement) boundElement)) {
+          return Collections.emptyMap();
+        }
+      }
+
+      Type type = paramWithInit.getType(variable);
+      Type boundType = FTVisitor.this.accept(boundExpr, paramWithInit);
+      if (!(type instanceof IntType) || type.isNullable() || !(boundType instanceof IntType)) {
+        return Collections.emptyMap();
+      }
+      boolean inclusive = operator == Token.LTE || operator == Token.GTE;
+      IntType inductionType = ((IntType) type).inductionValues((IntType) boundType, inclusive, step);
+      if (inductionType == null) {
+        return Collections.emptyMap();
+      }
+      return Collections.<VariableElement, Type>singletonMap(variable, inductionType);
+    }
+
+    // the variable is an induction variable, and if it's updated in the condition
+    // the update is done before being compared
+    private /*maybenull*/VariableElement inductionVariable(DartExpression expr, InductionVisitor inductionVisitor) {
+      Element element = expr.getElement();
+      if (expr instanceof DartUnaryExpression) {
+        DartUnaryExpression unary = (DartUnaryExpression) expr;
+        element = unary.getArg().getElement();
+        if (!unary.isPrefix() || !(element instanceof VariableElement) || inductionVisitor.getUpdate((VariableElement) element) != unary) {
+          return null;
+        }
+      } else if (!(expr instanceof DartIdentifier) || !(element instanceof VariableElement)) {
+        return null;
+      }
+      VariableElement variable = (VariableElement) element;
+      if (inductionVisitor.getStep(variable) == null) {
+        return null;
+      }
+      if (inductionVisitor.isUpdatedInCondition(variable) && inductionVisitor.getUpdate(variable) != expr) {
+        return null;
+      }
+      return variable;
+    }
+
     @Override
     public Liveness visitForStatement(DartForStatement node, FlowEnv parameter) {
       return computeLoop(node, node.getCondition(), node.getBody(), node.getInit(), node.getIncrement(), parameter);
@@ -923,12 +1131,16 @@ public class FTVisitor extends ASTVisitor2<Type, FlowEnv> {
       break;
     case INC:
       if (type instanceof NumType) {
-        return ((NumType) type).add(IntType.constant(BigInteger.ONE));
+        Type resultType = ((NumType) type).add(IntType.constant(BigInteger.ONE));
+        registerIncrement(arg, resultType, parameter);
+        return resultType;
       }
       break;
     case DEC:
       if (type instanceof NumType) {
-        return ((NumType) type).sub(IntType.constant(BigInteger.ONE));
+        Type resultType = ((NumType) type).sub(IntType.constant(BigInteger.ONE));
+        registerIncrement(arg, resultType, parameter);
+        return resultType;
       }
       break;
     case SUB:
@@ -947,6 +1159,15 @@ public class FTVisitor extends ASTVisitor2<Type, FlowEnv> {
     return typeHelper.asType(true, node.getElement().getFunctionType().getReturnType());
   }
 
+  // like an assignment, an increment or a decrement of a variable changes its type
+  private static void registerIncrement(DartExpression arg, Type resultType, FlowEnv flowEnv) {
+    Element element = arg.getElement();
+    if (element instanceof VariableElement &&
+        (element.getKind() == ElementKind.VARIABLE || element.getKind() == ElementKind.PARAMETER)) {
+      flowEnv.register((VariableElement) element, resultType);
+    }
+  }
+
   @Override
   public Type visitNewExpression(DartNewExpression node, FlowEnv flowEnv) {
     ArrayList<Type> argumentTypes = new ArrayList<>();
@@ -1050,6 +1271,25 @@ public class FTVisitor extends ASTVisitor2<Type, FlowEnv> {
     });
   }
 
+  // record the non abstract methods that a virtual call may reach,
+  // nothing is recorded if there is no class hierarchy or the class was not analyzed
+  private void recordImplementations(DartNode node, ClassElement classElement, String methodName) {
+    if (cha == null) {
+      return;
+    }
+    List<DartMethodDefinition> overridingMethods = cha.getOverridingMethods(classElement, methodName);
+    if (overridingMethods.isEmpty()) {
+      return;
+    }
+    ArrayList<DartMethodDefinition> implementations = new ArrayList<>();
+    for(DartMethodDefinition methodDefinition: overridingMethods) {
+      if (!methodDefinition.getModifiers().isAbstract()) {
+        implementations.add(methodDefinition);
+      }
+    }
+    implementationMap.put(node, implementations);
+  }
+
   @Override
   public Type visitUnqualifiedInvocation(DartUnqualifiedInvocation node, FlowEnv flowEnv) {
     ArrayList<Type> argumentTypes = new ArrayList<>();
@@ -1074,6 +1314,9 @@ public class FTVisitor extends ASTVisitor2<Type, FlowEnv> {
     case METHOD: { // polymorphic method call on 'this'
       EnclosingElement enclosingElement = nodeElement.getEnclosingElement();
       if (enclosingElement instanceof ClassElement) {
+        if (!nodeElement.getModifiers().isStatic()) {
+          recordImplementations(node, (ClassElement) enclosingElement, node.getObjectIdentifier());
+        }
         Type receiverType = typeHelper.findType(false, (ClassElement) enclosingElement);
         return methodCallResolver.methodCall(node.getObjectIdentifier(), receiverType, argumentTypes, flowEnv.getExpectedType(), true);
       }
@@ -1101,7 +1344,7 @@ public class FTVisitor extends ASTVisitor2<Type, FlowEnv> {
       if (node.getTarget().getElement().getKind() == ElementKind.SUPER) {
         if (parameter.getThisType() instanceof OwnerType) {
           ClassElement element = ((OwnerType) parameter.getThisType()).getSuperType().getElement();
-          node.setElement(element);
+          setElement(node, element);
           return typeHelper.asType(false, element.getType());
         }
       }
@@ -1175,9 +1418,13 @@ public class FTVisitor extends ASTVisitor2<Type, FlowEnv> {
 
   @Override
   public Type visitPropertyAccess(final DartPropertyAccess node, FlowEnv parameter) {
-    NodeElement nodeElement = node.getElement();
-    if (nodeElement != null) {
-      return propertyType(typeHelper.asType(true, node.getType()), nodeElement.getKind());
+    // only the elements set by the Dart resolver are used,
+    // an element set by another analysis depends on the type of the qualifier in that analysis
+    if (!analysisElementNodes.contains(node)) {
+      NodeElement nodeElement = node.getElement();
+      if (nodeElement != null) {
+        return propertyType(typeHelper.asType(true, node.getType()), nodeElement.getKind());
+      }
     }
     DartNode qualifier = node.getQualifier();
     Type qualifierType = accept(qualifier, parameter);
@@ -1195,7 +1442,7 @@ public class FTVisitor extends ASTVisitor2<Type, FlowEnv> {
         // FIXME, don't set the element if we don't needed when generating the
         // bytecode.
         // We need to set the element to compile DartTest/PropertyAcces.dart
-        node.setElement(element);
+        setElement(node, element);
 
         return propertyType(typeHelper.asType(true, element.getType()), element.getKind());
       }
@@ -1231,7 +1478,7 @@ public class FTVisitor extends ASTVisitor2<Type, FlowEnv> {
         // the class doesn't provide any operator [] ou []=
         return DYNAMIC_NON_NULL_TYPE;
       }
-      node.setElement(element);
+      setElement(node, element);
       return typeHelper.asType(true, ((MethodElement) element).getReturnType());
     }
 
@@ -23,9 +23,11 @@ public class FlowEnv {
   private final/* maybenull */ HashMap<VariableElement, Type> variableTypeMap;
   private final boolean inLoop;
   private final Set<VariableElement> loopSet;
+  private final /* maybenull */Map<VariableElement, Type> inductionMap;
 
   private FlowEnv(/* maybenull */FlowEnv parent, /* maybenull */Type thisType, Type returnType, Type expectedType,
-      /* maybenull */HashMap<VariableElement, Type> variableTypeMap, boolean inLoop, Set<VariableElement> loopSet) {
+      /* maybenull */HashMap<VariableElement, Type> variableTypeMap, boolean inLoop, Set<VariableElement> loopSet,
+      /* maybenull */Map<VariableElement, Type> inductionMap) {
     this.parent = parent;
     this.thisType = thisType;
     this.returnType = Objects.requireNonNull(returnType);
@@ -33,10 +35,11 @@ public class FlowEnv {
     this.variableTypeMap = variableTypeMap;
     this.inLoop = inLoop;
     this.loopSet = loopSet;
+    this.inductionMap = inductionMap;
   }
 
   public FlowEnv(Type thisType) {
-    this(null, thisType, CoreTypeRepository.VOID_TYPE, CoreTypeRepository.VOID_TYPE, null, false, null);
+    this(null, thisType, CoreTypeRepository.VOID_TYPE, CoreTypeRepository.VOID_TYPE, null, false, null, null);
   }
 
   /**
@@ -48,7 +51,7 @@ public class FlowEnv {
    * @param inLoop 
    */
   public FlowEnv(FlowEnv parent, Type returnType, Type expectedType, boolean inLoop) {
-    this(parent, parent.thisType, returnType, expectedType, new HashMap<VariableElement, Type>(), inLoop, null);
+    this(parent, parent.thisType, returnType, expectedType, new HashMap<VariableElement, Type>(), inLoop, null, null);
   }
   
   /**
@@ -61,7 +64,22 @@ public class FlowEnv {
    * @param loopSet
    */
   public FlowEnv(FlowEnv parent, Type returnType, Type expectedType, boolean inLoop, Set<VariableElement> loopSet) {
-    this(parent, parent.thisType, returnType, expectedType, new HashMap<VariableElement, Type>(), inLoop, loopSet);
+    this(parent, returnType, expectedType, inLoop, loopSet, null);
+  }
+  
+  /**
+   * Create a new flow environment with a parent and an expected type.
+   * 
+   * @param parent
+   * @param returnType 
+   * @param expectedType
+   * @param inLoop 
+   * @param loopSet
+   * @param inductionMap the values of the induction variables of the loop
+   */
+  public FlowEnv(FlowEnv parent, Type returnType, Type expectedType, boolean inLoop, Set<VariableElement> loopSet,
+      /* maybenull */Map<VariableElement, Type> inductionMap) {
+    this(parent, parent.thisType, returnType, expectedType, new HashMap<VariableElement, Type>(), inLoop, loopSet, inductionMap);
   }
   
   /**
@@ -71,7 +89,7 @@ public class FlowEnv {
    * @param parent Parent to use.
    */
   public FlowEnv(FlowEnv parent) {
-    this(parent, parent.getReturnType(), parent.getExpectedType(), parent.inLoop(), parent.loopSet);
+    this(parent, parent.getReturnType(), parent.getExpectedType(), parent.inLoop(), parent.loopSet, parent.inductionMap);
   }
 
   /**
@@ -109,6 +127,12 @@ public class FlowEnv {
     Objects.requireNonNull(variable);
     Objects.requireNonNull(type);
     
+    Type inductionType = getInductionType(variable);
+    if (inductionType != null) {
+      // the values of an induction variable are known for the whole loop
+      variableTypeMap.put(variable, inductionType);
+      return;
+    }
     if (inLoop && loopSet != null) {
       if (loopSet.contains(variable)) {
         variableTypeMap.put(variable, Types.widening(type));
@@ -130,12 +154,28 @@ public class FlowEnv {
     Objects.requireNonNull(variable);
     Objects.requireNonNull(type);
     if (loopCondition) {
-      variableTypeMap.put(variable, type);
+      Type inductionType = getInductionType(variable);
+      variableTypeMap.put(variable, (inductionType != null)? inductionType: type);
     } else {
       register(variable, type);
     }
   }
 
+  /**
+   * Returns the values of an induction variable of the current loop.
+   * 
+   * @param variable
+   *          a variable
+   * @return the values of the variable in the whole loop or null if the variable
+   *         is not an induction variable.
+   */
+  public /* maybenull */Type getInductionType(VariableElement variable) {
+    if (!inLoop || inductionMap == null) {
+      return null;
+    }
+    return inductionMap.get(variable);
+  }
+
   /**
    * Returns the type of '{@code this}'.
    * 
@@ -166,7 +206,7 @@ public class FlowEnv {
     if (expectedType.equals(this.expectedType)) { // implicit null check
       return this;
     }
-    return new FlowEnv(parent, thisType, returnType, expectedType, variableTypeMap, inLoop, loopSet);
+    return new FlowEnv(parent, thisType, returnType, expectedType, variableTypeMap, inLoop, loopSet, inductionMap);
   }
 
   /**
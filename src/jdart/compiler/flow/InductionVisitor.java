@@ -0,0 +1,201 @@
+package jdart.compiler.flow;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import jdart.compiler.visitor.ASTVisitor2;
+
+import com.google.dart.compiler.ast.DartBinaryExpression;
+import com.google.dart.compiler.ast.DartDoWhileStatement;
+import com.google.dart.compiler.ast.DartExpression;
+import com.google.dart.compiler.ast.DartForInStatement;
+import com.google.dart.compiler.ast.DartForStatement;
+import com.google.dart.compiler.ast.DartFunctionExpression;
+import com.google.dart.compiler.ast.DartIntegerLiteral;
+import com.google.dart.compiler.ast.DartNode;
+import com.google.dart.compiler.ast.DartUnaryExpression;
+import com.google.dart.compiler.ast.DartVariable;
+import com.google.dart.compiler.ast.DartWhileStatement;
+import com.google.dart.compiler.parser.Token;
+import com.google.dart.compiler.resolver.Element;
+import com.google.dart.compiler.resolver.VariableElement;
+
+// InductionVisitor finds the induction variables of a loop, the variables only changed
+// by adding a constant step, at most once by iteration.
+// Unlike LoopVisitor, all the nodes of the loop are visited so no change is missed.
+class InductionVisitor extends ASTVisitor2<Void, Void> {
+  private final HashSet<VariableElement> changeSet = new HashSet<>();
+  private final HashMap<VariableElement, BigInteger> stepMap = new HashMap<>();
+  private final HashMap<VariableElement, DartExpression> updateMap = new HashMap<>();
+  private final HashSet<DartExpression> conditionUpdateSet = new HashSet<>();
+  private int depth;         // depth of the nested loops and functions
+  private boolean inCondition;
+
+  /**
+   * Visits the loop condition, the loop body and the loop increment.
+   */
+  void visitLoop(/*maybenull*/DartExpression condition, /*maybenull*/DartNode body, /*maybenull*/DartExpression increment) {
+    if (condition != null) {
+      inCondition = true;
+      accept(condition, null);
+      inCondition = false;
+    }
+    if (body != null) {
+      accept(body, null);
+    }
+    if (increment != null) {
+      accept(increment, null);
+    }
+  }
+
+  /**
+   * Returns true if the variable may be changed in the loop.
+   */
+  boolean isChanged(VariableElement variable) {
+    return changeSet.contains(variable);
+  }
+
+  /**
+   * Returns the step of an induction variable or null if the variable is not an induction variable.
+   */
+  /*maybenull*/BigInteger getStep(VariableElement variable) {
+    return stepMap.get(variable);
+  }
+
+  /**
+   * Returns the expression that changes an induction variable.
+   */
+  DartExpression getUpdate(VariableElement variable) {
+    return updateMap.get(variable);
+  }
+
+  /**
+   * Returns true if the expression that changes an induction variable is part of the loop condition.
+   */
+  boolean isUpdatedInCondition(VariableElement variable) {
+    return conditionUpdateSet.contains(updateMap.get(variable));
+  }
+
+  private void change(VariableElement variable, DartExpression update, /*maybenull*/BigInteger step) {
+    boolean firstChange = changeSet.add(variable);
+    if (firstChange && depth == 0 && step != null && step.signum() != 0) {
+      stepMap.put(variable, step);
+      updateMap.put(variable, update);
+      if (inCondition) {
+        conditionUpdateSet.add(update);
+      }
+      return;
+    }
+    // changed twice, in a nested loop or not by a constant
+    stepMap.remove(variable);
+  }
+
+  private static /*maybenull*/BigInteger constantStep(Token operator, DartExpression expr) {
+    if (!(expr instanceof DartIntegerLiteral)) {
+      return null;
+    }
+    BigInteger value = ((DartIntegerLiteral) expr).getValue();
+    switch(operator) {
+    case ADD:
+    case ASSIGN_ADD:
+      return value;
+    case SUB:
+    case ASSIGN_SUB:
+      return value.negate();
+    default:
+      return null;
+    }
+  }
+
+  // variable = variable + constant, variable = constant + variable or variable = variable - constant
+  private static /*maybenull*/BigInteger assignStep(Element element, DartExpression value) {
+    if (!(value instanceof DartBinaryExpression)) {
+      return null;
+    }
+    DartBinaryExpression binary = (DartBinaryExpression) value;
+    Token operator = binary.getOperator();
+    if (binary.getArg1().getElement() == element) {
+      return constantStep(operator, binary.getArg2());
+    }
+    if (binary.getArg2().getElement() == element && operator == Token.ADD) {
+      return constantStep(operator, binary.getArg1());
+    }
+    return null;
+  }
+
+  @Override
+  public Void visitNode(DartNode node, Void parameter) {
+    acceptChildren(node);
+    return null;
+  }
+
+  private Void visitNested(DartNode node) {
+    // a change in a nested loop or function may occur several times by iteration
+    depth++;
+    try {
+      acceptChildren(node);
+    } finally {
+      depth--;
+    }
+    return null;
+  }
+
+  @Override
+  public Void visitForStatement(DartForStatement node, Void parameter) {
+    return visitNested(node);
+  }
+
+  @Override
+  public Void visitForInStatement(DartForInStatement node, Void parameter) {
+    return visitNested(node);
+  }
+
+  @Override
+  public Void visitWhileStatement(DartWhileStatement node, Void parameter) {
+    return visitNested(node);
+  }
+
+  @Override
+  public Void visitDoWhileStatement(DartDoWhileStatement node, Void parameter) {
+    return visitNested(node);
+  }
+
+  @Override
+  public Void visitFunctionExpression(DartFunctionExpression node, Void parameter) {
+    return visitNested(node);
+  }
+
+  @Override
+  public Void visitBinaryExpression(DartBinaryExpression node, Void parameter) {
+    Token operator = node.getOperator();
+    Element element = node.getArg1().getElement();
+    if (operator.isAssignmentOperator() && element instanceof VariableElement) {
+      BigInteger step = (operator == Token.ASSIGN)?
+          assignStep(element, node.getArg2()):
+          constantStep(operator, node.getArg2());
+      change((VariableElement) element, node, step);
+    }
+    acceptChildren(node);
+    return null;
+  }
+
+  @Override
+  public Void visitUnaryExpression(DartUnaryExpression node, Void parameter) {
+    Token operator = node.getOperator();
+    Element element = node.getArg().getElement();
+    if ((operator == Token.INC || operator == Token.DEC) && element instanceof VariableElement) {
+      change((VariableElement) element, node, (operator == Token.INC)? BigInteger.ONE: BigInteger.ONE.negate());
+    }
+    acceptChildren(node);
+    return null;
+  }
+
+  @Override
+  public Void visitVariable(DartVariable node, Void parameter) {
+    // a variable declared in the loop is a new variable at each iteration
+    change(node.getElement(), null, null);
+    acceptChildren(node);
+    return null;
+  }
+}
@@ -5,9 +5,18 @@ import static jdart.compiler.type.CoreTypeRepository.VOID_TYPE;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import jdart.compiler.cha.ClassHierarchyAnalysisPhase;
 import jdart.compiler.type.CoreTypeRepository;
@@ -16,6 +25,7 @@ import jdart.compiler.type.FunctionType;
 import jdart.compiler.type.IntType;
 import jdart.compiler.type.OwnerType;
 import jdart.compiler.type.Type;
+import jdart.compiler.type.TypeRepository;
 import jdart.compiler.type.TypeVisitor;
 import jdart.compiler.type.Types;
 
@@ -30,175 +40,728 @@ import com.google.dart.compiler.resolver.Element;
 import com.google.dart.compiler.resolver.MethodElement;
 import com.google.dart.compiler.resolver.MethodNodeElement;
 
+/**
+ * Inter-procedural type flow, each function is analyzed once by signature (profile).
+ *
+ * The analysis is a fixed point computed by rounds using a work list:
+ * all the profiles of the work list are analyzed in parallel, each analysis only reads
+ * the profiles computed by the previous rounds, then the results are merged on the current
+ * thread in the work list order.
+ * The return type of a profile is unknown until the profile is analyzed, a call to such profile
+ * is considered as never returning (see {@link UnknownReturnTypeException}).
+ * A profile is analyzed again if the return type of a profile it depends on has changed,
+ * the return type of a profile only grows and is widened after some changes so
+ * the fixed point is reached quickly. The profiles that never return are finally
+ * typed with their declared return type.
+ *
+ * The maps are only mutated during the merge, and the merge happens-before the next round,
+ * so they don't need to be concurrent maps. Because the merge is done in a deterministic order,
+ * the profiles and the method map are the same from one run to another.
+ *
+ * To bound the size of the generated code, the number of profiles of a function is limited
+ * by a budget (system property jdart.flow.maxprofiles), when a new profile would exceed it,
+ * all the profiles of the function are merged into one profile whose signature is
+ * the least upper bound of their signatures. The profiles that have the same
+ * {@link ProfileShape shape} are merged the same way unless one of them is more general
+ * than the others. The callers of a merged profile are analyzed again.
+ */
 public class InterProceduralMethodCallResolver implements MethodCallResolver {
+  // number of changes of the return type of a profile before widening it
+  private static final int WIDENING_RETURN_TYPE_CHANGES = 3;
+  // number of changes of the return type of a profile before using the declared return type
+  private static final int MAX_RETURN_TYPE_CHANGES = 8;
+  // default maximum number of profiles by function
+  private static final int DEFAULT_MAX_PROFILES = 8;
+
   final TypeHelper typeHelper;
-  private final HashMap<DartMethodDefinition, Profiles> methodMap = new HashMap<>();
-  
-  public InterProceduralMethodCallResolver(TypeHelper typeHelper) {
+  final ClassHierarchyAnalysisPhase cha;
+  private final int parallelism;
+  private final int maxProfiles;
+  private final /*maybenull*/ProfileShape profileShape;
+  private final LinkedHashMap<DartMethodDefinition, Profiles> methodMap = new LinkedHashMap<>();
+  private final LinkedHashMap<ProfileKey, ProfileState> stateMap = new LinkedHashMap<>();
+  private final LinkedHashSet<ProfileState> workList = new LinkedHashSet<>();
+  // the nodes whose element was set by an analysis, only changed between the rounds
+  private final HashSet<DartNode> analysisElementNodes = new HashSet<>();
+
+  public InterProceduralMethodCallResolver(TypeHelper typeHelper, ClassHierarchyAnalysisPhase cha) {
+    this(typeHelper, cha, null);
+  }
+
+  public InterProceduralMethodCallResolver(TypeHelper typeHelper, ClassHierarchyAnalysisPhase cha, /*maybenull*/ProfileShape profileShape) {
+    this(typeHelper, cha, Runtime.getRuntime().availableProcessors(), maxProfilesFromSystemProperties(), profileShape);
+  }
+
+  public InterProceduralMethodCallResolver(TypeHelper typeHelper, ClassHierarchyAnalysisPhase cha, int parallelism) {
+    this(typeHelper, cha, parallelism, maxProfilesFromSystemProperties(), null);
+  }
+
+  /**
+   * Creates a resolver.
+   *
+   * @param typeHelper the type helper.
+   * @param cha the class hierarchy of the compilation.
+   * @param parallelism the number of profiles analyzed in parallel.
+   * @param maxProfiles the maximum number of profiles by function.
+   * @param profileShape the shape of the generated profiles or null if the profiles are not generated.
+   */
+  public InterProceduralMethodCallResolver(TypeHelper typeHelper, ClassHierarchyAnalysisPhase cha, int parallelism, int maxProfiles, /*maybenull*/ProfileShape profileShape) {
+    if (maxProfiles < 1) {
+      throw new IllegalArgumentException("maxProfiles must be positive " + maxProfiles);
+    }
     this.typeHelper = typeHelper;
+    this.cha = Objects.requireNonNull(cha);
+    this.parallelism = parallelism;
+    this.maxProfiles = maxProfiles;
+    this.profileShape = profileShape;
+  }
+
+  /**
+   * Returns the maximum number of profiles by function specified by
+   * the system property jdart.flow.maxprofiles (default 8).
+   */
+  private static int maxProfilesFromSystemProperties() {
+    return Integer.getInteger("jdart.flow.maxprofiles", DEFAULT_MAX_PROFILES);
   }
-  
+
   public Map<DartMethodDefinition, Profiles> getMethodMap() {
     return methodMap;
   }
 
-  private Type actualCall(DartMethodDefinition node, /*maybenull*/OwnerType receiverType, List<Type> argumentTypes, Type expectedType) {
-    System.out.println("actual call "+receiverType+'.'+node.getName()+argumentTypes);
-    
-    Profiles profiles = methodMap.get(node);
-    if (profiles == null) {
-      // try to not widen argument if the method is called once
-      methodMap.put(node, profiles = new Profiles());  
-    } else {
-      Type signatureReturnType = profiles.lookupForACompatibleSignature(argumentTypes);
-      if (signatureReturnType != null) {
-        return signatureReturnType;
-      }
-      
-      // already a signature, try to generalize the signature by widening it
-      // FIXME, you try to do an union of type if parameters are different
-      List<Type> windenedArgumentTypes = new ArrayList<>(argumentTypes.size());
-      for(Type argumentType: argumentTypes) {
-        windenedArgumentTypes.add(Types.widening(argumentType));
-      }
-      
-      signatureReturnType = profiles.lookupForACompatibleSignature(windenedArgumentTypes);
-      if (signatureReturnType != null) {
-        return signatureReturnType;
-      }
-      
-      argumentTypes = windenedArgumentTypes;
-    }
-    
-    // separate profiles if an integer is too big to fit in int32
-    Type[] preciseArgumentTypes = null; // lazy allocated
-    for(int i=0; i<argumentTypes.size(); i++) {
-      Type argumentType = argumentTypes.get(i);
+  /**
+   * A method and the parameter types of one of its profiles.
+   */
+  private static class ProfileKey {
+    final DartMethodDefinition node;
+    final List<Type> signature;
+
+    ProfileKey(DartMethodDefinition node, List<Type> signature) {
+      this.node = node;
+      this.signature = signature;
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(node) ^ signature.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof ProfileKey)) {
+        return false;
+      }
+      ProfileKey key = (ProfileKey) obj;
+      return node == key.node && signature.equals(key.signature);
+    }
+
+    @Override
+    public String toString() {
+      return node.getName() + signature.toString();
+    }
+  }
+
+  private static class ProfileState {
+    final ProfileKey key;
+    final /*maybenull*/OwnerType receiverType;
+    final Type declaredReturnType;
+    final LinkedHashSet<ProfileState> dependents = new LinkedHashSet<>();
+    ProfileInfo profileInfo;
+    /*maybenull*/Type returnType;  // null if unknown
+    int returnTypeChanges;
+
+    ProfileState(ProfileKey key, /*maybenull*/OwnerType receiverType, Type declaredReturnType, /*maybenull*/Type returnType) {
+      this.key = key;
+      this.receiverType = receiverType;
+      this.declaredReturnType = declaredReturnType;
+      this.returnType = returnType;
+
+      // temporary profile with the declared return type, used until the profile is analyzed
+      this.profileInfo = new ProfileInfo(declaredReturnType, key.signature, null, null, null);
+    }
+  }
+
+  Type declaredReturnType(DartMethodDefinition node) {
+    if (node.getFunction() == null) {
+      // native function use declared return type
+      return typeHelper.asType(true, node.getType());
+    }
+
+    // extract return type info from function type
+    return ((FunctionType) typeHelper.asType(false, node.getElement().getType())).getReturnType();
+  }
+
+  /*maybenull*/Type initialReturnType(DartMethodDefinition node, Type declaredReturnType) {
+    if (node.getFunction() == null || declaredReturnType == VOID_TYPE) {
+      // no need to analyze the body to know the return type
+      return declaredReturnType;
+    }
+    return null;
+  }
+
+  /**
+   * Resolves the calls of an analysis against the profiles of the previous rounds
+   * and records the profiles used and the profiles requested.
+   */
+  private class CallRecorder implements MethodCallResolver {
+    final LinkedHashSet<ProfileKey> dependencies = new LinkedHashSet<>();
+    final LinkedHashMap<ProfileKey, OwnerType> requests = new LinkedHashMap<>();
+
+    CallRecorder() {
+      // package visibility
+    }
+
+    private Type actualCall(DartMethodDefinition node, /*maybenull*/OwnerType receiverType, List<Type> argumentTypes, Type expectedType) {
+      Profiles profiles = methodMap.get(node);
+      if (profiles != null || isRequested(node)) {
+        ProfileKey key = lookup(profiles, node, argumentTypes);
+        if (key != null) {
+          return returnType(key, expectedType);
+        }
+
+        // already a signature, try to generalize the signature by widening it
+        // FIXME, you try to do an union of type if parameters are different
+        List<Type> windenedArgumentTypes = new ArrayList<>(argumentTypes.size());
+        for(Type argumentType: argumentTypes) {
+          windenedArgumentTypes.add(Types.widening(argumentType));
+        }
+
+        key = lookup(profiles, node, windenedArgumentTypes);
+        if (key != null) {
+          return returnType(key, expectedType);
+        }
+
+        argumentTypes = windenedArgumentTypes;
+      }
+      // else try to not widen argument if the method is called once
+
+      // separate profiles if an integer is too big to fit in int32,
+      // unless the two profiles would exceed the budget of the function
+      Type[] preciseArgumentTypes = null; // lazy allocated
+      for(int i=0; i<argumentTypes.size() && hasRoomForTwoProfiles(profiles); i++) {
+        Type argumentType = argumentTypes.get(i);
+        if (preciseArgumentTypes != null) {
+          preciseArgumentTypes[i] = argumentType;
+        }
+        if (argumentType instanceof IntType) {
+          IntType intArgumentType = (IntType)argumentType;
+
+          if (intArgumentType.isIncludeIn(CoreTypeRepository.INT32_TYPE) ||
+              !intArgumentType.hasCommonValuesWith(CoreTypeRepository.INT32_TYPE)) {
+            continue;
+          }
+          if (preciseArgumentTypes == null) {
+            preciseArgumentTypes = argumentTypes.subList(0, i).toArray(new Type[argumentTypes.size()]);
+          }
+          preciseArgumentTypes[i] = CoreTypeRepository.INT32_TYPE;
+        }
+      }
       if (preciseArgumentTypes != null) {
-        preciseArgumentTypes[i] = argumentType;
+        try {
+          actualCall(node, receiverType, Arrays.asList(preciseArgumentTypes), expectedType);
+        } catch(UnknownReturnTypeException e) {
+          // the precise profile is requested, the return type is not needed
+        }
+      }
+
+      // the profile will be analyzed by the next round
+      ProfileKey key = new ProfileKey(node, argumentTypes);
+      requests.put(key, receiverType);
+      dependencies.add(key);
+      return returnType(key, expectedType);
+    }
+
+    private boolean hasRoomForTwoProfiles(/*maybenull*/Profiles profiles) {
+      int profileCount = (profiles == null)? 0: profiles.profileMap.size();
+      return profileCount + 2 <= maxProfiles;
+    }
+
+    private boolean isRequested(DartMethodDefinition node) {
+      for(ProfileKey key: requests.keySet()) {
+        if (key.node == node) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private /*maybenull*/ProfileKey lookup(/*maybenull*/Profiles profiles, DartMethodDefinition node, List<Type> argumentTypes) {
+      if (profiles != null) {
+        ProfileInfo profileInfo = profiles.lookupForACompatibleProfile(argumentTypes);
+        if (profileInfo != null) {
+          ProfileKey key = new ProfileKey(node, profileInfo.getParameterTypes());
+          dependencies.add(key);
+          return key;
+        }
+      }
+      ProfileKey key = new ProfileKey(node, argumentTypes);
+      if (requests.containsKey(key)) {
+        return key;
+      }
+      return null;
+    }
+
+    private Type returnType(ProfileKey key, Type expectedType) {
+      ProfileState state = stateMap.get(key);
+      Type returnType;
+      if (state != null) {
+        returnType = state.returnType;
+      } else {  // requested by this analysis
+        returnType = initialReturnType(key.node, declaredReturnType(key.node));
+      }
+      if (returnType == null) {
+        throw UnknownReturnTypeException.INSTANCE;
+      }
+      if (returnType instanceof DynamicType) {
+        return expectedType;
+      }
+      return returnType;
+    }
+
+    Type directCall(MethodNodeElement element, OwnerType receiverType, List<Type> argumentType, Type expectedType, boolean virtual) {
+      if (!virtual) {
+        return actualCall((DartMethodDefinition)element.getNode(), receiverType, argumentType, expectedType);
+      }
+
+      ClassElement classElement = (ClassElement)element.getEnclosingElement();
+      List<DartMethodDefinition> overridingMethods = cha.getOverridingMethods(classElement, element.getName());
+      if (overridingMethods.isEmpty()) {
+        // the class was not analyzed, only the method itself is known
+        return actualCall((DartMethodDefinition)element.getNode(), receiverType, argumentType, expectedType);
       }
-      if (argumentType instanceof IntType) {
-        IntType intArgumentType = (IntType)argumentType;
-        
-        if (intArgumentType.isIncludeIn(CoreTypeRepository.INT32_TYPE) ||
-            !intArgumentType.hasCommonValuesWith(CoreTypeRepository.INT32_TYPE)) {
+      Type resultType = null;
+      for(DartMethodDefinition methodDefinition: overridingMethods) {
+        OwnerType ownerType = (OwnerType)typeHelper.findType(false, classElement);
+        Type returnType;
+        try {
+          returnType = actualCall(methodDefinition, ownerType, argumentType, expectedType);
+        } catch(UnknownReturnTypeException e) {
+          // an overriding method that doesn't return (yet) doesn't contribute to the return type
           continue;
         }
-        if (preciseArgumentTypes == null) {
-          preciseArgumentTypes = argumentTypes.subList(0, i).toArray(new Type[argumentTypes.size()]);
+        if (resultType == null) {
+          resultType = returnType;
+        } else {
+          resultType = Types.union(resultType, returnType);
         }
-        preciseArgumentTypes[i] = CoreTypeRepository.INT32_TYPE;
       }
+
+      if (resultType == null) {
+        throw UnknownReturnTypeException.INSTANCE;
+      }
+      return resultType;
     }
-    if (preciseArgumentTypes != null) {
-      actualCall(node, receiverType, Arrays.asList(preciseArgumentTypes), expectedType);
+
+    @Override
+    public Type methodCall(final String methodName, final Type receiverType, final List<Type> argumentType, final Type expectedType, final boolean virtual) {
+      Type returnType = receiverType.accept(new TypeVisitor<Type, Void>() {
+        @Override
+        protected Type visitOwnerType(OwnerType type, Void parameter) {
+          Element member = type.lookupMember(methodName);
+          return directCall((MethodNodeElement)member, type, argumentType, expectedType, virtual);
+        }
+
+        @Override
+        public Type visitDynamicType(DynamicType type, Void parameter) {
+          return expectedType;
+        }
+
+      }, null);
+      return (returnType instanceof DynamicType)? expectedType: returnType;
     }
-    
-    ProfileInfo profileInfo = doActualCall(node, receiverType, argumentTypes, profiles);
-    profiles.profileMap.put(argumentTypes, profileInfo);
-    
-    Type returnType = profileInfo.getReturnType();
-    if (returnType instanceof DynamicType) {
-      return expectedType;
+
+    @Override
+    public Type functionCall(MethodElement nodeElement, List<Type> argumentTypes, Type expectedType) {
+      MethodNodeElement methodNodeElement = (MethodNodeElement)nodeElement;
+      return actualCall((DartMethodDefinition)methodNodeElement.getNode(), null, argumentTypes, expectedType);
     }
-    return returnType;
   }
-  
-  private ProfileInfo doActualCall(DartMethodDefinition node, /*maybenull*/OwnerType receiverType, List<Type> argumentTypes, Profiles profiles) {
-    //System.out.println("call "+node.getName()+" receiver "+receiverType+" "+argumentTypes);
-    
-    DartFunction function = node.getFunction();
-    if (function == null) {
-      // native function use declared return type
-      return new ProfileInfo(typeHelper.asType(true, node.getType()), argumentTypes, null, null);
-    }
-    
-    // We should allow to propagate the type of 'this' in the flow env
-    // to be more precise, but currently we don't specialize method call,
-    // but only function call
-    
-    Type thisType = null;
-    Modifiers modifiers = node.getModifiers();
-    MethodElement element = node.getElement();
-    if (!modifiers.isStatic() && !modifiers.isFactory()) {
-      if (element.getEnclosingElement() instanceof ClassElement) {
-        thisType = receiverType;
-      } else {
-        thisType = DYNAMIC_TYPE;  //FIXME, is it really necessary ??
+
+  /**
+   * The analysis of the body of a profile.
+   */
+  private class ProfileAnalysis extends CallRecorder implements Callable<ProfileInfo> {
+    final ProfileState state;
+    Map<DartNode, Element> elementMap = Collections.emptyMap();
+    boolean returnTypeUnknown;
+
+    ProfileAnalysis(ProfileState state) {
+      this.state = state;
+    }
+
+    @Override
+    @SuppressWarnings("try")  // the scope is only closed
+    public ProfileInfo call() {
+      // the types created by the analysis are cached by the repository of the compilation
+      try(TypeRepository.Scope scope = typeHelper.getTypeRepository().enterScope()) {
+        return analyze();
       }
     }
 
-    // extract return type info from function type
-    Type returnType = ((FunctionType) typeHelper.asType(false, element.getType())).getReturnType();
-
-    // register temporary signature with declared return type for recursive function 
-    profiles.profileMap.put(argumentTypes, new ProfileInfo(returnType, argumentTypes, null, null));
-    
-    FTVisitor flowTypeVisitor = new FTVisitor(typeHelper, this);
-    FlowEnv flowEnv = new FlowEnv(new FlowEnv(thisType), returnType, VOID_TYPE, false);
-    List<DartParameter> parameters = function.getParameters();
-    for(int i=0; i<parameters.size(); i++) {
-      DartParameter parameter = parameters.get(i);
-      flowEnv.register(parameter.getElement(), argumentTypes.get(i));
-    }
-
-    Map<DartNode, Type> typeMap = null;
-    Map<DartNode, Liveness> livenessMap = null;
-    DartBlock body = function.getBody();
-    if (body != null) {
-      flowTypeVisitor.liveness(body, flowEnv);
-      returnType = flowTypeVisitor.getInferredReturnType(returnType);
-      typeMap = flowTypeVisitor.getTypeMap();
-      livenessMap = flowTypeVisitor.getLivenessMap();
-    }
-    return new ProfileInfo(returnType, argumentTypes, typeMap, livenessMap);
-  }
-  
-  Type directCall(MethodNodeElement element, OwnerType receiverType, List<Type> argumentType, Type expectedType, boolean virtual) {
-    if (!virtual) {
-      return actualCall((DartMethodDefinition)element.getNode(), receiverType, argumentType, expectedType);
-    }
-    
-    ClassElement classElement = (ClassElement)element.getEnclosingElement();
-    List<DartMethodDefinition> overridingMethods = ClassHierarchyAnalysisPhase.getInstance().getOverridingMethods(classElement, element.getName());
-    Type resultType = null;
-    for(DartMethodDefinition methodDefinition: overridingMethods) {
-      OwnerType ownerType = (OwnerType)typeHelper.findType(false, classElement);
-      Type returnType = actualCall(methodDefinition, ownerType, argumentType, expectedType);
-      if (resultType == null) {
-        resultType = returnType;
+    private ProfileInfo analyze() {
+      DartMethodDefinition node = state.key.node;
+      List<Type> argumentTypes = state.key.signature;
+      Type returnType = state.declaredReturnType;
+
+      DartFunction function = node.getFunction();
+      if (function == null) {
+        // native function use declared return type
+        return new ProfileInfo(returnType, argumentTypes, null, null, null);
+      }
+
+      // We should allow to propagate the type of 'this' in the flow env
+      // to be more precise, but currently we don't specialize method call,
+      // but only function call
+
+      Type thisType = null;
+      Modifiers modifiers = node.getModifiers();
+      MethodElement element = node.getElement();
+      if (!modifiers.isStatic() && !modifiers.isFactory()) {
+        if (element.getEnclosingElement() instanceof ClassElement) {
+          thisType = state.receiverType;
+        } else {
+          thisType = DYNAMIC_TYPE;  //FIXME, is it really necessary ??
+        }
+      }
+
+      FTVisitor flowTypeVisitor = new FTVisitor(typeHelper, this, cha, analysisElementNodes);
+      FlowEnv flowEnv = new FlowEnv(new FlowEnv(thisType), returnType, VOID_TYPE, false);
+      List<DartParameter> parameters = function.getParameters();
+      for(int i=0; i<parameters.size(); i++) {
+        DartParameter parameter = parameters.get(i);
+        flowEnv.register(parameter.getElement(), argumentTypes.get(i));
+      }
+
+      Map<DartNode, Type> typeMap = null;
+      Map<DartNode, Liveness> livenessMap = null;
+      Map<DartNode, List<DartMethodDefinition>> implementationMap = null;
+      DartBlock body = function.getBody();
+      if (body != null) {
+        flowTypeVisitor.liveness(body, flowEnv);
+        returnType = flowTypeVisitor.getInferredReturnType(returnType);
+        returnTypeUnknown = flowTypeVisitor.isInferredReturnTypeUnknown();
+        typeMap = flowTypeVisitor.getTypeMap();
+        livenessMap = flowTypeVisitor.getLivenessMap();
+        implementationMap = flowTypeVisitor.getImplementationMap();
+      }
+      elementMap = flowTypeVisitor.getElementMap();
+      return new ProfileInfo(returnType, argumentTypes, typeMap, livenessMap, implementationMap);
+    }
+  }
+
+  /**
+   * Creates the profiles requested by an analysis and registers the analyzed profile
+   * as a dependent of the profiles it uses.
+   *
+   * @param recorder the calls of an analysis.
+   * @param dependent the analyzed profile or null if the calls come from an entry point.
+   */
+  private void mergeCalls(CallRecorder recorder, /*maybenull*/ProfileState dependent) {
+    for(Entry<ProfileKey, OwnerType> entry: recorder.requests.entrySet()) {
+      ProfileKey key = entry.getKey();
+      if (stateMap.containsKey(key)) {
+        continue;
+      }
+
+      DartMethodDefinition node = key.node;
+      Profiles profiles = methodMap.get(node);
+      if (profiles == null) {
+        methodMap.put(node, profiles = new Profiles());
       } else {
-        resultType = Types.union(resultType, returnType);
+        // a compatible profile may have been requested by another analysis of the same round
+        ProfileInfo profileInfo = profiles.lookupForACompatibleProfile(key.signature);
+        if (profileInfo != null) {
+          ProfileState state = stateMap.get(new ProfileKey(node, profileInfo.getParameterTypes()));
+          if (dependent != null) {
+            state.dependents.add(dependent);
+            workList.add(dependent);
+          }
+          continue;
+        }
+      }
+
+      if (profiles.profileMap.size() >= maxProfiles) {
+        // budget exceeded, merge all the profiles of the function with the requested one
+        ArrayList<ProfileState> states = getStates(node, profiles);
+        ProfileState state = mergeProfiles(node, profiles, states, key.signature, states.get(0).receiverType);
+        if (dependent != null) {
+          state.dependents.add(dependent);
+          workList.add(dependent);
+        }
+        continue;
+      }
+
+      createState(key, entry.getValue(), profiles);
+    }
+
+    if (dependent == null) {
+      return;
+    }
+    for(ProfileKey key: recorder.dependencies) {
+      ProfileState state = stateMap.get(key);
+      if (state != null) {
+        state.dependents.add(dependent);
       }
     }
-    
-    assert resultType != null;
-    return resultType;
   }
-  
-  
 
-  @Override
-  public Type methodCall(final String methodName, final Type receiverType, final List<Type> argumentType, final Type expectedType, final boolean virtual) {
-    Type returnType = receiverType.accept(new TypeVisitor<Type, Void>() {
-      @Override
-      protected Type visitOwnerType(OwnerType type, Void parameter) {
-        Element member = type.lookupMember(methodName);
-        return directCall((MethodNodeElement)member, type, argumentType, expectedType, virtual);
-      }
-      
-      @Override
-      public Type visitDynamicType(DynamicType type, Void parameter) {
-        return expectedType;
+  private ProfileState createState(ProfileKey key, /*maybenull*/OwnerType receiverType, Profiles profiles) {
+    DartMethodDefinition node = key.node;
+
+    Type declaredReturnType = declaredReturnType(node);
+    ProfileState state = new ProfileState(key, receiverType, declaredReturnType, initialReturnType(node, declaredReturnType));
+    stateMap.put(key, state);
+    profiles.register(key.signature, state.profileInfo);
+    workList.add(state);
+    return state;
+  }
+
+  private ArrayList<ProfileState> getStates(DartMethodDefinition node, Profiles profiles) {
+    ArrayList<ProfileState> states = new ArrayList<>(profiles.profileMap.size());
+    for(List<Type> signature: profiles.profileMap.keySet()) {
+      states.add(stateMap.get(new ProfileKey(node, signature)));
+    }
+    return states;
+  }
+
+  private boolean isMerged(ProfileState state) {
+    return stateMap.get(state.key) != state;
+  }
+
+  /**
+   * Replaces some profiles of a function by a profile whose signature is the least upper bound
+   * of their signatures, the callers of the replaced profiles are analyzed again
+   * and will use the new profile.
+   *
+   * @param node the function.
+   * @param profiles the profiles of the function.
+   * @param states the profiles to merge.
+   * @param signature a signature to merge with the signatures of the profiles or null.
+   * @param receiverType the receiver type of the new profile.
+   * @return the new profile.
+   */
+  private ProfileState mergeProfiles(DartMethodDefinition node, Profiles profiles, List<ProfileState> states, /*maybenull*/List<Type> signature, /*maybenull*/OwnerType receiverType) {
+    List<Type> mergedSignature = signature;
+    for(ProfileState state: states) {
+      mergedSignature = (mergedSignature == null)? state.key.signature: leastUpperBound(mergedSignature, state.key.signature);
+    }
+
+    LinkedHashSet<ProfileState> dependents = new LinkedHashSet<>();
+    ProfileKey mergedKey = new ProfileKey(node, mergedSignature);
+    for(ProfileState state: states) {
+      if (state.key.equals(mergedKey)) {
+        continue;
+      }
+      stateMap.remove(state.key);
+      profiles.unregister(state.key.signature);
+      workList.remove(state);
+      dependents.addAll(state.dependents);
+    }
+
+    ProfileState mergedState = stateMap.get(mergedKey);
+    if (mergedState == null) {
+      mergedState = createState(mergedKey, receiverType, profiles);
+    }
+    mergedState.dependents.addAll(dependents);
+    workList.addAll(dependents);
+    return mergedState;
+  }
+
+  private static List<Type> leastUpperBound(List<Type> signature1, List<Type> signature2) {
+    if (signature1.equals(signature2)) {
+      return signature1;
+    }
+    ArrayList<Type> signature = new ArrayList<>(signature1.size());
+    for(int i=0; i<signature1.size(); i++) {
+      signature.add(Types.widening(Types.union(signature1.get(i), signature2.get(i))));
+    }
+    return signature;
+  }
+
+  /**
+   * Merges the profiles of a function that have the same shape
+   * if none of them is more general than the others.
+   */
+  private void mergeCollidingProfiles() {
+    if (profileShape == null) {
+      return;
+    }
+    for(Entry<DartMethodDefinition, Profiles> methodEntry: new ArrayList<>(methodMap.entrySet())) {
+      DartMethodDefinition node = methodEntry.getKey();
+      Profiles profiles = methodEntry.getValue();
+      LinkedHashMap<Object, ArrayList<ProfileState>> shapeMap = new LinkedHashMap<>();
+      for(ProfileState state: getStates(node, profiles)) {
+        Object shape = profileShape.getShape(state.profileInfo);
+        ArrayList<ProfileState> states = shapeMap.get(shape);
+        if (states == null) {
+          shapeMap.put(shape, states = new ArrayList<>());
+        }
+        states.add(state);
+      }
+
+      for(ArrayList<ProfileState> states: shapeMap.values()) {
+        if (states.size() == 1 || findMostGeneral(states) != null) {
+          continue;
+        }
+        mergeProfiles(node, profiles, states, null, states.get(0).receiverType);
+      }
+    }
+  }
+
+  private static /*maybenull*/ProfileState findMostGeneral(List<ProfileState> states) {
+    loop: for(ProfileState state: states) {
+      ProfileInfo profileInfo = state.profileInfo;
+      for(ProfileState state2: states) {
+        ProfileInfo profileInfo2 = state2.profileInfo;
+        if (!Types.isCompatible(profileInfo.getReturnType(), profileInfo2.getReturnType()) ||
+            !Types.isCompatible(profileInfo.getParameterTypes(), profileInfo2.getParameterTypes())) {
+          continue loop;
+        }
+      }
+      return state;
+    }
+    return null;
+  }
+
+  /**
+   * Updates the profile with the result of its analysis, if the return type has changed,
+   * the profiles that depend on it are scheduled to be analyzed again.
+   */
+  private void mergeAnalysis(ProfileAnalysis analysis, ProfileInfo profileInfo) {
+    ProfileState state = analysis.state;
+    if (isMerged(state)) {
+      // merged during this round, the result is discarded
+      return;
+    }
+    FTVisitor.applyElements(analysis.elementMap, analysisElementNodes);
+
+    Type oldReturnType = state.returnType;
+    Type returnType = (analysis.returnTypeUnknown)? oldReturnType: profileInfo.getReturnType();
+    if (oldReturnType != null && returnType != null) {
+      returnType = joinReturnType(state, oldReturnType, returnType);
+    }
+    updateProfile(state, profileInfo, returnType);
+    mergeCalls(analysis, state);
+  }
+
+  private static Type joinReturnType(ProfileState state, Type oldReturnType, Type returnType) {
+    if (returnType.equals(oldReturnType)) {
+      return oldReturnType;
+    }
+    if (oldReturnType != VOID_TYPE && returnType != VOID_TYPE) {
+      // the return type only grows, so the analysis terminates
+      returnType = Types.union(oldReturnType, returnType);
+      if (returnType.equals(oldReturnType)) {
+        return oldReturnType;
+      }
+    }
+
+    int returnTypeChanges = ++state.returnTypeChanges;
+    if (returnTypeChanges >= MAX_RETURN_TYPE_CHANGES) {
+      // doesn't converge, use the declared return type
+      return state.declaredReturnType;
+    }
+    if (returnTypeChanges >= WIDENING_RETURN_TYPE_CHANGES) {
+      return Types.widening(returnType);
+    }
+    return returnType;
+  }
+
+  private void updateProfile(ProfileState state, ProfileInfo profileInfo, /*maybenull*/Type returnType) {
+    Type oldReturnType = state.returnType;
+    Type profileReturnType = (returnType == null)? state.declaredReturnType: returnType;
+    if (!profileReturnType.equals(profileInfo.getReturnType())) {
+      profileInfo = new ProfileInfo(profileReturnType, profileInfo.getParameterTypes(), profileInfo.getTypeMap(), profileInfo.getLivenessMap(), profileInfo.getImplementationMap());
+    }
+
+    state.returnType = returnType;
+    state.profileInfo = profileInfo;
+    methodMap.get(state.key.node).register(state.key.signature, profileInfo);
+    if (!Objects.equals(returnType, oldReturnType)) {
+      workList.addAll(state.dependents);
+    }
+  }
+
+  private void solve() {
+    if (workList.isEmpty()) {
+      return;
+    }
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      do {
+        while(!workList.isEmpty()) {
+          ArrayList<ProfileAnalysis> analyses = new ArrayList<>(workList.size());
+          for(ProfileState state: workList) {
+            if (!isMerged(state)) {
+              analyses.add(new ProfileAnalysis(state));
+            }
+          }
+          workList.clear();
+
+          List<Future<ProfileInfo>> futures = pool.invokeAll(analyses);
+          for(int i=0; i<analyses.size(); i++) {
+            mergeAnalysis(analyses.get(i), getResult(futures.get(i)));
+          }
+        }
+
+        // the profiles that still have an unknown return type never return,
+        // use the declared return type and analyze their callers again
+        for(ProfileState state: stateMap.values()) {
+          if (state.returnType == null) {
+            updateProfile(state, state.profileInfo, state.declaredReturnType);
+          }
+        }
+
+        // the profiles that can not be distinguished once generated are merged
+        if (workList.isEmpty()) {
+          mergeCollidingProfiles();
+        }
+      } while(!workList.isEmpty());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private static ProfileInfo getResult(Future<ProfileInfo> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
       }
-      
-    }, null);
-    return (returnType instanceof DynamicType)? expectedType: returnType;
+      throw new IllegalStateException(cause);
+    }
   }
-  
+
+  @Override
+  public Type methodCall(String methodName, Type receiverType, List<Type> argumentType, Type expectedType, boolean virtual) {
+    CallRecorder recorder = new CallRecorder();
+    try {
+      recorder.methodCall(methodName, receiverType, argumentType, expectedType, virtual);
+    } catch(UnknownReturnTypeException e) {
+      // the requested profiles are analyzed by solve()
+    }
+    mergeCalls(recorder, null);
+    solve();
+    return new CallRecorder().methodCall(methodName, receiverType, argumentType, expectedType, virtual);
+  }
+
   @Override
   public Type functionCall(MethodElement nodeElement, List<Type> argumentTypes, Type expectedType) {
-    MethodNodeElement methodNodeElement = (MethodNodeElement)nodeElement;
-    return actualCall((DartMethodDefinition)methodNodeElement.getNode(), null, argumentTypes, expectedType);
+    CallRecorder recorder = new CallRecorder();
+    try {
+      recorder.functionCall(nodeElement, argumentTypes, expectedType);
+    } catch(UnknownReturnTypeException e) {
+      // the requested profiles are analyzed by solve()
+    }
+    mergeCalls(recorder, null);
+    solve();
+    return new CallRecorder().functionCall(nodeElement, argumentTypes, expectedType);
   }
 }
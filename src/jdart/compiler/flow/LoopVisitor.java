@@ -7,17 +7,20 @@ import jdart.compiler.visitor.ASTVisitor2;
 import com.google.dart.compiler.ast.DartBinaryExpression;
 import com.google.dart.compiler.ast.DartBlock;
 import com.google.dart.compiler.ast.DartBreakStatement;
+import com.google.dart.compiler.ast.DartContinueStatement;
 import com.google.dart.compiler.ast.DartDoWhileStatement;
 import com.google.dart.compiler.ast.DartEmptyStatement;
 import com.google.dart.compiler.ast.DartExprStmt;
 import com.google.dart.compiler.ast.DartForStatement;
 import com.google.dart.compiler.ast.DartIfStatement;
+import com.google.dart.compiler.ast.DartLabel;
 import com.google.dart.compiler.ast.DartNode;
 import com.google.dart.compiler.ast.DartStatement;
 import com.google.dart.compiler.ast.DartUnaryExpression;
 import com.google.dart.compiler.ast.DartUnqualifiedInvocation;
 import com.google.dart.compiler.ast.DartVariable;
 import com.google.dart.compiler.ast.DartVariableStatement;
+import com.google.dart.compiler.ast.DartWhileStatement;
 import com.google.dart.compiler.parser.Token;
 import com.google.dart.compiler.resolver.VariableElement;
 
@@ -43,6 +46,17 @@ class LoopVisitor extends ASTVisitor2<Void, HashSet<VariableElement>> {
     return null;
   }
   
+  @Override
+  public Void visitContinueStatement(DartContinueStatement node, HashSet<VariableElement> parameter) {
+    return null;
+  }
+  
+  @Override
+  public Void visitLabel(DartLabel node, HashSet<VariableElement> parameter) {
+    accept(node.getStatement(), parameter);
+    return null;
+  }
+  
   @Override
   public Void visitDoWhileStatement(DartDoWhileStatement node, HashSet<VariableElement> parameter) {
     accept(node.getBody(), parameter);
@@ -50,6 +64,13 @@ class LoopVisitor extends ASTVisitor2<Void, HashSet<VariableElement>> {
     return null;
   }
   
+  @Override
+  public Void visitWhileStatement(DartWhileStatement node, HashSet<VariableElement> parameter) {
+    accept(node.getCondition(), parameter);
+    accept(node.getBody(), parameter);
+    return null;
+  }
+  
   @Override
   public Void visitExprStmt(DartExprStmt node, HashSet<VariableElement> parameter) {
     accept(node.getExpression(), parameter);
@@ -5,6 +5,7 @@ import java.util.Map;
 
 import jdart.compiler.type.Type;
 
+import com.google.dart.compiler.ast.DartMethodDefinition;
 import com.google.dart.compiler.ast.DartNode;
 
 public class ProfileInfo {
@@ -12,12 +13,14 @@ public class ProfileInfo {
   private final List<Type> parameterTypes;
   private final /*maybenull*/Map<DartNode, Type> typeMap;
   private final /*maybenull*/Map<DartNode, Liveness> livenessMap;
+  private final /*maybenull*/Map<DartNode, List<DartMethodDefinition>> implementationMap;
 
-  ProfileInfo(Type returnType, List<Type> parameterTypes, /*maybenull*/Map<DartNode, Type> typeMap, /*maybenull*/Map<DartNode, Liveness> livenessMap) {
+  ProfileInfo(Type returnType, List<Type> parameterTypes, /*maybenull*/Map<DartNode, Type> typeMap, /*maybenull*/Map<DartNode, Liveness> livenessMap, /*maybenull*/Map<DartNode, List<DartMethodDefinition>> implementationMap) {
     this.returnType = returnType;
     this.parameterTypes = parameterTypes;
     this.typeMap = typeMap;
     this.livenessMap = livenessMap;
+    this.implementationMap = implementationMap;
   }
   
   public Type getReturnType() {
@@ -35,4 +38,12 @@ public class ProfileInfo {
   public /*maybenull*/Map<DartNode, Liveness> getLivenessMap() {
     return livenessMap;
   }
+  
+  /**
+   * Returns the implementations of the method called by each virtual call site,
+   * as found by the class hierarchy analysis.
+   */
+  public /*maybenull*/Map<DartNode, List<DartMethodDefinition>> getImplementationMap() {
+    return implementationMap;
+  }
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package jdart.compiler.flow;
+
+/**
+ * The shape of a profile once generated, usually its method descriptor.
+ *
+ * A call site only sees the shape of a profile, so two profiles of the same function
+ * with the same shape can not be both generated, the {@link InterProceduralMethodCallResolver}
+ * merges them unless one is more general than the other.
+ */
+public interface ProfileShape {
+  /**
+   * Returns the shape of a profile.
+   *
+   * @param profileInfo an analyzed profile.
+   * @return an object with an equals and a hashCode, equal for profiles that have the same shape.
+   */
+  public Object getShape(ProfileInfo profileInfo);
+}
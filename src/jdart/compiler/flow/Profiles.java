@@ -1,9 +1,13 @@
 package jdart.compiler.flow;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 import jdart.compiler.type.Type;
 import jdart.compiler.type.Types;
@@ -11,26 +15,79 @@ import jdart.compiler.type.Types;
 public class Profiles {
   final LinkedHashMap<List<Type>, ProfileInfo> profileMap = new LinkedHashMap<>();
 
+  // signature found by lookupForACompatibleProfile for some argument types,
+  // this cache is read and updated by concurrent analyses
+  private final ConcurrentHashMap<List<Type>, List<Type>> compatibleSignatureMap = new ConcurrentHashMap<>();
+
+  // marker used in compatibleSignatureMap if there is no compatible signature
+  private static final List<Type> NO_SIGNATURE = Collections.unmodifiableList(new ArrayList<Type>());
+
   public Map<List<Type>, ProfileInfo> getSignatureMap() {
     return profileMap;
   }
-  
+
   @Override
   public String toString() {
     return profileMap.toString();
   }
-  
+
+  /**
+   * Registers the profile of a signature or updates it if the signature is already registered.
+   *
+   * @param signature the parameter types of the profile.
+   * @param profileInfo the profile.
+   */
+  void register(List<Type> signature, ProfileInfo profileInfo) {
+    if (profileMap.put(signature, profileInfo) != null) {
+      return;
+    }
+
+    // the new signature may be compatible with argument types that had no compatible signature,
+    // the signatures already found are still valid because the first compatible signature is used
+    for(Iterator<List<Type>> it = compatibleSignatureMap.values().iterator(); it.hasNext();) {
+      if (it.next() == NO_SIGNATURE) {
+        it.remove();
+      }
+    }
+  }
+
+  /**
+   * Removes the profile of a signature, the profile has been merged into a more general one.
+   *
+   * @param signature the parameter types of the profile.
+   */
+  void unregister(List<Type> signature) {
+    profileMap.remove(signature);
+
+    // some argument types may have been resolved to the removed signature
+    compatibleSignatureMap.clear();
+  }
+
   public Type lookupForACompatibleSignature(List<Type> argumentTypes) {
+    ProfileInfo profileInfo = lookupForACompatibleProfile(argumentTypes);
+    return (profileInfo == null)? null: profileInfo.getReturnType();
+  }
+
+  public /*maybenull*/ProfileInfo lookupForACompatibleProfile(List<Type> argumentTypes) {
     ProfileInfo profileInfo = profileMap.get(argumentTypes);
     if (profileInfo != null) {
-      return profileInfo.getReturnType();
+      return profileInfo;
     }
-    
+
+    List<Type> signature = compatibleSignatureMap.get(argumentTypes);
+    if (signature == null) {
+      signature = findACompatibleSignature(argumentTypes);
+      compatibleSignatureMap.put(argumentTypes, signature);
+    }
+    return (signature == NO_SIGNATURE)? null: profileMap.get(signature);
+  }
+
+  private List<Type> findACompatibleSignature(List<Type> argumentTypes) {
     for(Entry<List<Type>, ProfileInfo> entry: profileMap.entrySet()) {
      if (Types.isCompatible(entry.getKey(), argumentTypes)) {
-        return entry.getValue().getReturnType();
+        return entry.getKey();
       }
     }
-    return null;
+    return NO_SIGNATURE;
   }
-}
\ No newline at end of file
+}
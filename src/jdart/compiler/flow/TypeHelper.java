@@ -27,6 +27,10 @@ public class TypeHelper {
     this.typeRepository = typeRepository;
   }
 
+  public TypeRepository getTypeRepository() {
+    return typeRepository;
+  }
+
   public Type asType(boolean nullable, com.google.dart.compiler.type.Type type) {
     switch (type.getKind()) {
     case VOID:
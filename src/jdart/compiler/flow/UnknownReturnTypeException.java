@@ -0,0 +1,16 @@
+package jdart.compiler.flow;
+
+/**
+ * Thrown by a {@link MethodCallResolver} when the return type of a called function
+ * is not known yet because its profile is not yet analyzed.
+ * The call is considered as never returning, so the statement containing it is dead
+ * until the profile is analyzed.
+ */
+@SuppressWarnings("serial")
+public class UnknownReturnTypeException extends RuntimeException {
+  private UnknownReturnTypeException() {
+    super(null, null, false, false);
+  }
+
+  public static final UnknownReturnTypeException INSTANCE = new UnknownReturnTypeException();
+}
@@ -24,26 +24,42 @@ import static jdart.compiler.flow.Liveness.*;
 import static org.objectweb.asm.Type.*;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.math.BigInteger;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
 
 import jdart.compiler.flow.Liveness;
 import jdart.compiler.flow.ProfileInfo;
+import jdart.compiler.flow.ProfileShape;
 import jdart.compiler.flow.Profiles;
+import jdart.compiler.gen.GenOptions.BigReturn;
+import jdart.compiler.gen.GenOptions.FunctionCall;
+import jdart.compiler.gen.GenOptions.OverflowCheck;
 import jdart.compiler.gen.JVMTypes.TypeContext;
 import jdart.compiler.type.Types;
 import jdart.compiler.visitor.ASTVisitor2;
 import jdart.runtime.BigInt;
+import jdart.runtime.BigIntCarrier;
 import jdart.runtime.ControlFlowException;
 import jdart.runtime.RT;
 
@@ -60,19 +76,25 @@ import com.google.dart.compiler.ast.DartArrayLiteral;
 import com.google.dart.compiler.ast.DartBinaryExpression;
 import com.google.dart.compiler.ast.DartBlock;
 import com.google.dart.compiler.ast.DartBooleanLiteral;
+import com.google.dart.compiler.ast.DartBreakStatement;
+import com.google.dart.compiler.ast.DartContinueStatement;
+import com.google.dart.compiler.ast.DartDoWhileStatement;
 import com.google.dart.compiler.ast.DartDoubleLiteral;
 import com.google.dart.compiler.ast.DartEmptyStatement;
 import com.google.dart.compiler.ast.DartExprStmt;
 import com.google.dart.compiler.ast.DartExpression;
 import com.google.dart.compiler.ast.DartForStatement;
 import com.google.dart.compiler.ast.DartFunction;
+import com.google.dart.compiler.ast.DartGotoStatement;
 import com.google.dart.compiler.ast.DartIdentifier;
 import com.google.dart.compiler.ast.DartIfStatement;
 import com.google.dart.compiler.ast.DartIntegerLiteral;
+import com.google.dart.compiler.ast.DartLabel;
 import com.google.dart.compiler.ast.DartMethodDefinition;
 import com.google.dart.compiler.ast.DartNode;
 import com.google.dart.compiler.ast.DartNullLiteral;
 import com.google.dart.compiler.ast.DartParameter;
+import com.google.dart.compiler.ast.DartParenthesizedExpression;
 import com.google.dart.compiler.ast.DartReturnStatement;
 import com.google.dart.compiler.ast.DartStatement;
 import com.google.dart.compiler.ast.DartStringLiteral;
@@ -81,9 +103,11 @@ import com.google.dart.compiler.ast.DartUnaryExpression;
 import com.google.dart.compiler.ast.DartUnqualifiedInvocation;
 import com.google.dart.compiler.ast.DartVariable;
 import com.google.dart.compiler.ast.DartVariableStatement;
+import com.google.dart.compiler.ast.DartWhileStatement;
 import com.google.dart.compiler.parser.Token;
 import com.google.dart.compiler.resolver.ClassElement;
 import com.google.dart.compiler.resolver.Element;
+import com.google.dart.compiler.resolver.ElementKind;
 import com.google.dart.compiler.resolver.EnclosingElement;
 import com.google.dart.compiler.resolver.LibraryElement;
 import com.google.dart.compiler.resolver.MethodNodeElement;
@@ -95,11 +119,17 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
   final Type unitType;
   private final Map<DartNode, jdart.compiler.type.Type> typeMap;
   private final Map<DartNode, Liveness> livenessMap;
+  private final /*maybenull*/Map<DartNode, List<DartMethodDefinition>> implementationMap;
+  private final Map<Element, Set<FunctionDescriptor>> descriptorMap;
+  private final GenOptions options;
 
-  Gen(Type unitType, Map<DartNode, jdart.compiler.type.Type> typeMap, Map<DartNode, Liveness> livenessMap) {
+  Gen(Type unitType, Map<DartNode, jdart.compiler.type.Type> typeMap, Map<DartNode, Liveness> livenessMap, /*maybenull*/Map<DartNode, List<DartMethodDefinition>> implementationMap, Map<Element, Set<FunctionDescriptor>> descriptorMap, GenOptions options) {
     this.unitType = unitType;
     this.typeMap = typeMap;
     this.livenessMap = livenessMap;
+    this.implementationMap = implementationMap;
+    this.descriptorMap = descriptorMap;
+    this.options = options;
   }
 
   // helper methods
@@ -174,6 +204,7 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
   private static void generateDefaultReturn(MethodVisitor mv, Type returnType) {
     switch(returnType.getSort()) {
     case Type.BOOLEAN:
+    case Type.BYTE:  // nullable boolean
     case Type.INT:
       mv.visitInsn(ICONST_0);
       mv.visitInsn(IRETURN);
@@ -185,8 +216,6 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
     case Type.OBJECT:
       if (returnType == BIGINT_TYPE) {
         mv.visitInvokeDynamicInsn("ldc", "()"+BIGINT_DESC, LDC_BIGINT_BSM, "0");
-      } if (returnType == BOXED_BOOLEAN_TYPE) {
-        mv.visitFieldInsn(GETSTATIC, "java/lang/Boolean", "FALSE", "Ljava/lang/Boolean;");
       } else {
         mv.visitInsn(ACONST_NULL);
       }
@@ -209,6 +238,7 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
   static final String CONTROLFLOWEXCEPTION_CLASS = getInternalClassName(ControlFlowException.class);
   static final String CONTROLFLOWEXCEPTION_DESC = 'L' + CONTROLFLOWEXCEPTION_CLASS +';';
   static final String ARITHMETHICEXCEPTION_CLASS = getInternalClassName(ArithmeticException.class);
+  static final String CARRIER_CLASS = getInternalClassName(BigIntCarrier.class);
   private static final Handle LDC_BIGINT_BSM = new Handle(H_INVOKESTATIC, RT_CLASS,
       "ldcBSM", getBSMDesc(String.class));
   static final Handle METHOD_CALL_BSM = new Handle(H_INVOKESTATIC, RT_CLASS,
@@ -224,16 +254,130 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
 
   // entry point
   public static void genAll(MethodNodeElement mainMethod, Map<DartMethodDefinition, Profiles> methodMap) throws IOException {
+    genAll(mainMethod, methodMap, GenOptions.fromSystemProperties());
+  }
+
+  public static void genAll(MethodNodeElement mainMethod, Map<DartMethodDefinition, Profiles> methodMap, GenOptions options) throws IOException {
+    writeClasses(genClasses(mainMethod, methodMap, options));
+  }
+
+  public static Map<String, byte[]> genClasses(MethodNodeElement mainMethod, Map<DartMethodDefinition, Profiles> methodMap, GenOptions options) {
+    return genClasses(mainMethod, methodMap, options, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Generates the classes of the units of a program,
+   * the units are generated in parallel.
+   * 
+   * @param mainMethod the entry point of the program.
+   * @param methodMap the profiles of the methods of the program, not modified during the generation.
+   * @param options the options of the generator.
+   * @param parallelism the number of units generated in parallel.
+   * @return the bytecode of the classes by internal name.
+   */
+  public static Map<String, byte[]> genClasses(final MethodNodeElement mainMethod, Map<DartMethodDefinition, Profiles> methodMap, final GenOptions options, int parallelism) {
     Map<EnclosingElement, ArrayList<Entry<DartMethodDefinition, Profiles>>> unitMap = createUnitMap(methodMap);
-    for(Entry<EnclosingElement, ArrayList<Entry<DartMethodDefinition, Profiles>>> unitEntry: unitMap.entrySet()) {
-      EnclosingElement unitElement = unitEntry.getKey();
-      genUnit(unitElement, unitEntry.getValue(), mainMethod.getEnclosingElement() == unitElement);
+
+    // the descriptors of all the generated profiles, a call to one of them can be direct
+    final HashMap<Element, Set<FunctionDescriptor>> descriptorMap = new HashMap<>();
+    for(Entry<DartMethodDefinition, Profiles> methodEntry: methodMap.entrySet()) {
+      Map<FunctionDescriptor, ProfileInfo> functionDescriptorMap = computeFunctionDescriptorMap(methodEntry.getValue().getSignatureMap(), options);
+      descriptorMap.put(methodEntry.getKey().getElement(), functionDescriptorMap.keySet());
+    }
+
+    // the units are independent, each one uses its own class writer
+    ArrayList<String> unitNames = new ArrayList<>(unitMap.size());
+    ArrayList<Callable<byte[]>> generations = new ArrayList<>(unitMap.size());
+    for(final Entry<EnclosingElement, ArrayList<Entry<DartMethodDefinition, Profiles>>> unitEntry: unitMap.entrySet()) {
+      final EnclosingElement unitElement = unitEntry.getKey();
+      unitNames.add(getInternalName(unitElement));
+      generations.add(new Callable<byte[]>() {
+        @Override
+        public byte[] call() {
+          return genUnit(unitElement, unitEntry.getValue(), mainMethod.getEnclosingElement() == unitElement, descriptorMap, options);
+        }
+      });
+    }
+
+    LinkedHashMap<String, byte[]> classMap = new LinkedHashMap<>();
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      List<Future<byte[]>> futures = pool.invokeAll(generations);
+      for(int i=0; i<unitNames.size(); i++) {
+        classMap.put(unitNames.get(i), getResult(futures.get(i)));
+      }
+    } finally {
+      pool.shutdown();
+    }
+    return classMap;
+  }
+
+  private static byte[] getResult(Future<byte[]> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  /**
+   * Writes classes in the current directory, in a sub directory by package.
+   * 
+   * @param classMap the bytecode of the classes by internal name.
+   * @throws IOException if a class can not be written.
+   */
+  public static void writeClasses(Map<String, byte[]> classMap) throws IOException {
+    // create each directory once before writing the classes
+    LinkedHashSet<Path> directories = new LinkedHashSet<>();
+    for(String name: classMap.keySet()) {
+      Path directory = Paths.get(name + ".class").getParent();
+      if (directory != null) {
+        directories.add(directory);
+      }
+    }
+    for(Path directory: directories) {
+      Files.createDirectories(directory);
+    }
+    for(Entry<String, byte[]> entry: classMap.entrySet()) {
+      Files.write(Paths.get(entry.getKey() + ".class"), entry.getValue());
+    }
+  }
+
+  /**
+   * Writes classes in a jar file, an existing file is replaced.
+   * 
+   * @param classMap the bytecode of the classes by internal name.
+   * @param jarPath the path of the jar file.
+   * @throws IOException if the jar file can not be written.
+   */
+  public static void writeJar(Map<String, byte[]> classMap, Path jarPath) throws IOException {
+    Path directory = jarPath.getParent();
+    if (directory != null) {
+      Files.createDirectories(directory);
+    }
+    try(OutputStream output = Files.newOutputStream(jarPath);
+        JarOutputStream jarOutput = new JarOutputStream(output)) {
+      for(Entry<String, byte[]> entry: classMap.entrySet()) {
+        jarOutput.putNextEntry(new ZipEntry(entry.getKey() + ".class"));
+        jarOutput.write(entry.getValue());
+        jarOutput.closeEntry();
+      }
     }
   }
 
   private static Map<EnclosingElement, ArrayList<Entry<DartMethodDefinition, Profiles>>> createUnitMap(Map<DartMethodDefinition, Profiles> methodMap) {
-    HashMap<EnclosingElement, ArrayList<Entry<DartMethodDefinition, Profiles>>> map =
-        new HashMap<>();
+    LinkedHashMap<EnclosingElement, ArrayList<Entry<DartMethodDefinition, Profiles>>> map =
+        new LinkedHashMap<>();
         for(Entry<DartMethodDefinition, Profiles> entry: methodMap.entrySet()) {
           EnclosingElement enclosingElement = entry.getKey().getElement().getEnclosingElement();
           ArrayList<Entry<DartMethodDefinition, Profiles>> list = map.get(enclosingElement);
@@ -246,7 +390,7 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
         return map;
   }
 
-  private static void genUnit(EnclosingElement enclosingElement, ArrayList<Entry<DartMethodDefinition, Profiles>> methodList, boolean mainUnit) throws IOException {
+  private static byte[] genUnit(EnclosingElement enclosingElement, ArrayList<Entry<DartMethodDefinition, Profiles>> methodList, boolean mainUnit, Map<Element, Set<FunctionDescriptor>> descriptorMap, GenOptions options) {
     ClassWriter cv = new ClassWriter(ClassWriter.COMPUTE_FRAMES);
 
     String unitName = getInternalName(enclosingElement);
@@ -270,7 +414,7 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
     //cv.visitSource(enclosingElement.getSourceInfo().getSource().getName(), null);
 
     for(Entry<DartMethodDefinition, Profiles> methodEntry: methodList) {
-      genMethod(cv, unitType, methodEntry.getKey(), methodEntry.getValue());
+      genMethod(cv, unitType, methodEntry.getKey(), methodEntry.getValue(), descriptorMap, options);
     }
 
     if (mainUnit) {
@@ -280,24 +424,54 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
     cv.visitEnd();
     byte[] byteArray = cv.toByteArray();
 
-    CheckClassAdapter.verify(new ClassReader(byteArray), true, new PrintWriter(System.err));
+    if (options.isVerify()) {
+      // the units are generated in parallel, so the report of a unit is printed at once
+      StringWriter report = new StringWriter();
+      CheckClassAdapter.verify(new ClassReader(byteArray), true, new PrintWriter(report));
+      if (report.getBuffer().length() != 0) {
+        System.err.print(report);
+      }
+    }
+    return byteArray;
+  }
 
-    Path path = Paths.get(unitName+".class");
-    Path directory = path.getParent();
-    if (directory != null) {
-      Files.createDirectories(directory);
+  // true if the function returns a mixed int and a BigIntCarrier is passed as last argument 
+  private static boolean hasCarrier(jdart.compiler.type.Type returnType, GenOptions options) {
+    return options.getBigReturn() == BigReturn.CARRIER &&
+        asJVMType(returnType, TypeContext.VAR_TYPE) == MIXEDINT_TYPE;
+  }
+
+  private static FunctionDescriptor asFunctionDescriptor(List<jdart.compiler.type.Type> types, jdart.compiler.type.Type returnType, GenOptions options) {
+    List<Type> parameterTypes = JVMTypes.asJVMTypes(types, TypeContext.PARAMETER_TYPE);
+    if (hasCarrier(returnType, options)) {
+      parameterTypes.add(CARRIER_TYPE);
     }
-    Files.write(path, byteArray);
+    return new FunctionDescriptor(
+        JVMTypes.asJVMType(returnType, TypeContext.RETURN_TYPE),
+        parameterTypes);
+  }
+
+  /**
+   * Returns the shape of the profiles generated with some options,
+   * the shape of a profile is its function descriptor.
+   * The type flow must use this shape so the profiles of a function have different descriptors
+   * or one profile is more general than the other profiles with the same descriptor.
+   */
+  public static ProfileShape profileShape(final GenOptions options) {
+    return new ProfileShape() {
+      @Override
+      public Object getShape(ProfileInfo profileInfo) {
+        return asFunctionDescriptor(profileInfo.getParameterTypes(), profileInfo.getReturnType(), options);
+      }
+    };
   }
 
-  private static Map<FunctionDescriptor, ProfileInfo> computeFunctionDescriptorMap(Map<List<jdart.compiler.type.Type>, ProfileInfo> signatureMap) {
+  private static Map<FunctionDescriptor, ProfileInfo> computeFunctionDescriptorMap(Map<List<jdart.compiler.type.Type>, ProfileInfo> signatureMap, GenOptions options) {
     HashMap<FunctionDescriptor, ProfileInfo> map = new HashMap<>();
     for(Entry<List<jdart.compiler.type.Type>, ProfileInfo> entry: signatureMap.entrySet()) {
       ProfileInfo profileInfo = entry.getValue();
       List<jdart.compiler.type.Type> types = entry.getKey();
-      FunctionDescriptor signature = new FunctionDescriptor(
-          JVMTypes.asJVMType(profileInfo.getReturnType(), TypeContext.RETURN_TYPE),
-          JVMTypes.asJVMTypes(types, TypeContext.PARAMETER_TYPE)); 
+      FunctionDescriptor signature = asFunctionDescriptor(types, profileInfo.getReturnType(), options);
 
       ProfileInfo profileInfo2 = map.get(signature);
       if (profileInfo2 == null) {
@@ -313,8 +487,9 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
               Types.isCompatible(profileInfo2.getParameterTypes(), types)) {
             // already existing signature is less specific, keep it
           } else {
-            // FIXME, implement but don't use an iterative algorithm
-            throw new UnsupportedOperationException("NIY");
+            // the type flow merges these profiles if it uses the profile shape of the generator
+            throw new IllegalStateException("profiles " + profileInfo2.getParameterTypes() + " and " + types +
+                " have the same descriptor " + signature + ", use Gen.profileShape() to compute the profiles");
           }
         }
       }
@@ -322,15 +497,15 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
     return map;
   }
 
-  private static void genMethod(ClassVisitor cv, Type unitType, DartMethodDefinition methodDefinition, Profiles profiles) {
+  private static void genMethod(ClassVisitor cv, Type unitType, DartMethodDefinition methodDefinition, Profiles profiles, Map<Element, Set<FunctionDescriptor>> descriptorMap, GenOptions options) {
     Map<List<jdart.compiler.type.Type>, ProfileInfo> signatureMap = profiles.getSignatureMap();
-    Map<FunctionDescriptor, ProfileInfo> functionDescripotorMap = computeFunctionDescriptorMap(signatureMap);
+    Map<FunctionDescriptor, ProfileInfo> functionDescripotorMap = computeFunctionDescriptorMap(signatureMap, options);
     for(Entry<FunctionDescriptor, ProfileInfo> entry: functionDescripotorMap.entrySet()) {
-      genMethodWithProfile(cv, unitType, methodDefinition, entry.getKey(), entry.getValue());
+      genMethodWithProfile(cv, unitType, methodDefinition, entry.getKey(), entry.getValue(), descriptorMap, options);
     }
   }
 
-  private static void genMethodWithProfile(ClassVisitor cv, Type unitType, DartMethodDefinition methodDefinition, FunctionDescriptor functionDescriptor, ProfileInfo profileInfo) {
+  private static void genMethodWithProfile(ClassVisitor cv, Type unitType, DartMethodDefinition methodDefinition, FunctionDescriptor functionDescriptor, ProfileInfo profileInfo, Map<Element, Set<FunctionDescriptor>> descriptorMap, GenOptions options) {
     boolean isStatic = methodDefinition.getModifiers().isStatic();
     if (!(methodDefinition.getElement().getEnclosingElement() instanceof ClassElement)) {
       isStatic = true;
@@ -349,9 +524,18 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
 
       Map<DartNode, Liveness> livenessMap = profileInfo.getLivenessMap();
       Map<DartNode, jdart.compiler.type.Type> typeMap = profileInfo.getTypeMap();
-      Gen gen = new Gen(unitType, typeMap, livenessMap);
+      Gen gen = new Gen(unitType, typeMap, livenessMap, profileInfo.getImplementationMap(), descriptorMap, options);
       MethodRecorder methodRecorder = new MethodRecorder();
-      GenEnv env = new GenEnv(mv, methodRecorder, functionDescriptor.getReturnType(), (isStatic)? 0: 1);
+
+      // if there is no carrier passed as argument, the body is recorded
+      // to know if a carrier needs to be created
+      boolean hasCarrier = hasCarrier(profileInfo.getReturnType(), options);
+      MethodRecorder bodyRecorder = null;
+      if (options.getBigReturn() == BigReturn.CARRIER && !hasCarrier) {
+        bodyRecorder = new MethodRecorder();
+      }
+      MethodVisitor bodyMV = (bodyRecorder == null)? mv: bodyRecorder;
+      GenEnv env = new GenEnv(bodyMV, methodRecorder, functionDescriptor.getReturnType(), (isStatic)? 0: 1);
 
       List<DartParameter> parameters = function.getParameters();
       List<Type> parameterTypes = functionDescriptor.getParameterTypes();
@@ -360,11 +544,26 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
         Var var = env.newVar(parameterTypes.get(i));
         env.registerVar(parameter.getElement(), var);
       }
+      if (options.getBigReturn() == BigReturn.CARRIER) {
+        // the carrier is the last parameter or a local variable
+        env.setCarrierVar(env.newVar(CARRIER_TYPE));
+      }
       gen.accept(body, env);
 
       Liveness liveness = livenessMap.get(body);
       if (liveness == ALIVE) {
-        generateDefaultReturn(mv, functionDescriptor.getReturnType());
+        generateDefaultReturn(bodyMV, functionDescriptor.getReturnType());
+      }
+
+      if (bodyRecorder != null) {
+        int carrierSlot = env.getCarrierVar().getSlot();
+        if (bodyRecorder.usesLocal(carrierSlot)) {
+          mv.visitTypeInsn(NEW, CARRIER_CLASS);
+          mv.visitInsn(DUP);
+          mv.visitMethodInsn(INVOKESPECIAL, CARRIER_CLASS, "<init>", "()V");
+          mv.visitVarInsn(ASTORE, carrierSlot);
+        }
+        bodyRecorder.replay(mv);
       }
 
       // generate exceptional paths
@@ -388,9 +587,14 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
 
   @Override
   public GenResult visitBlock(DartBlock node, GenEnv env) {
+    SlotAllocator slotAllocator = env.getSlotAllocator();
+    int blockMark = slotAllocator.mark();
     for (DartStatement statement : node.getStatements()) {
+      int mark = slotAllocator.mark();
       accept(statement, env);
+      slotAllocator.releaseTemporaries(mark);
     }
+    slotAllocator.releaseAll(blockMark);
     return null;
   }
 
@@ -528,10 +732,15 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
     VariableElement element = node.getElement();
 
     DartExpression value = node.getValue();
-    if (value == null) {
-      mv.visitInsn(ACONST_NULL);
-      Var var = env.newVar(OBJECT_TYPE);
-      mv.visitVarInsn(ASTORE, var.getSlot());
+    if (value == null || value instanceof DartNullLiteral) {
+      // a variable declared as a double or a bool stays unboxed
+      Type type = asJVMType(typeMap.get(node), TypeContext.VAR_TYPE);
+      if (type != Type.DOUBLE_TYPE && type != NULLABLE_BOOLEAN_TYPE) {
+        type = OBJECT_TYPE;
+      }
+      genNull(type, mv);
+      Var var = env.newVar(type);
+      mv.visitVarInsn(type.getOpcode(ISTORE), var.getSlot());
       env.registerVar(element, var);
       return null;
     }
@@ -570,15 +779,28 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
   public GenResult visitExprStmt(DartExprStmt node, GenEnv env) {
     DartExpression expression = node.getExpression();
     if (expression != null) {
-      Type type = asJVMType(typeMap.get(expression), TypeContext.VAR_TYPE);
-      accept(expression, env);
-      if (type != Type.VOID_TYPE && type != MIXEDINT_TYPE /* TODO MODIFIED */ && type != INT_TYPE) { // split-path doesn't store value on stack
-        env.getMethodVisitor().visitInsn((type.getSize() == 1)? POP: POP2);
-      }
+      genEffect(expression, env);
     }
     return null;
   }
 
+  // generates an expression only for its side effects, its value is discarded
+  private void genEffect(DartExpression expression, GenEnv env) {
+    if (expression instanceof DartUnaryExpression && isIncrement(((DartUnaryExpression) expression).getOperator())) {
+      genIncrement((DartUnaryExpression) expression, false, env);
+      return;
+    }
+    if (expression instanceof DartBinaryExpression && ((DartBinaryExpression) expression).getOperator().isAssignmentOperator()) {
+      genAssignment((DartBinaryExpression) expression, false, env);
+      return;
+    }
+    Type type = asJVMType(typeMap.get(expression), TypeContext.VAR_TYPE);
+    accept(expression, env);
+    if (type != Type.VOID_TYPE && type != MIXEDINT_TYPE /* TODO MODIFIED */ && type != INT_TYPE) { // split-path doesn't store value on stack
+      env.getMethodVisitor().visitInsn((type.getSize() == 1)? POP: POP2);
+    }
+  }
+
   @Override
   public GenResult visitEmptyStatement(DartEmptyStatement node, GenEnv env) {
     return null;
@@ -589,7 +811,7 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
     MethodVisitor mv = env.getMethodVisitor();
     Label elseLabel = new Label();
     Label endLabel = new Label();
-    accept(node.getCondition(), env.newIf(new IfBranches(true, elseLabel, endLabel)));
+    genBranch(node.getCondition(), new IfBranches(true, elseLabel, endLabel), env);
 
     DartStatement thenStatement = node.getThenStatement();
     accept(thenStatement, env);
@@ -607,25 +829,129 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
     return null;
   }
 
+  // All loops are generated with the condition at the bottom, so an iteration only executes
+  // one conditional jump and the entry of the loop jumps directly to the condition.
+
   @Override
   public GenResult visitForStatement(DartForStatement node, GenEnv env) {
-    // TODO MODIFIED
+    return genFor(node, null, env);
+  }
+
+  private GenResult genFor(DartForStatement node, /*maybenull*/String name, GenEnv env) {
     MethodVisitor mv = env.getMethodVisitor();
+    Label bodyLabel = new Label();
+    Label continueLabel = new Label();
     Label conditionLabel = new Label();
-    Label loopBodyLabel = new Label();
+    Label breakLabel = new Label();
 
-    accept(node.getInit(), env);
+    DartStatement init = node.getInit();
+    if (init != null) {
+      accept(init, env);
+    }
     mv.visitJumpInsn(GOTO, conditionLabel);
 
-    // loop body
-    mv.visitLabel(loopBodyLabel);
-    accept(node.getBody(), env);
-    accept(node.getIncrement(), env);
+    mv.visitLabel(bodyLabel);
+    accept(node.getBody(), env.newLoop(name, breakLabel, continueLabel));
+    mv.visitLabel(continueLabel);
+    DartExpression increment = node.getIncrement();
+    if (increment != null) {
+      genEffect(increment, env);
+    }
 
-    // loop condition
     mv.visitLabel(conditionLabel);
-    accept(node.getCondition(), env.newIf(new IfBranches(false, loopBodyLabel, null)));
+    genLoopCondition(node.getCondition(), bodyLabel, env);
+    mv.visitLabel(breakLabel);
+    return null;
+  }
+
+  @Override
+  public GenResult visitWhileStatement(DartWhileStatement node, GenEnv env) {
+    return genWhile(node, null, env);
+  }
+
+  private GenResult genWhile(DartWhileStatement node, /*maybenull*/String name, GenEnv env) {
+    MethodVisitor mv = env.getMethodVisitor();
+    Label bodyLabel = new Label();
+    Label conditionLabel = new Label();
+    Label breakLabel = new Label();
+
+    mv.visitJumpInsn(GOTO, conditionLabel);
+
+    mv.visitLabel(bodyLabel);
+    accept(node.getBody(), env.newLoop(name, breakLabel, conditionLabel));
 
+    mv.visitLabel(conditionLabel);
+    genLoopCondition(node.getCondition(), bodyLabel, env);
+    mv.visitLabel(breakLabel);
+    return null;
+  }
+
+  @Override
+  public GenResult visitDoWhileStatement(DartDoWhileStatement node, GenEnv env) {
+    return genDoWhile(node, null, env);
+  }
+
+  private GenResult genDoWhile(DartDoWhileStatement node, /*maybenull*/String name, GenEnv env) {
+    MethodVisitor mv = env.getMethodVisitor();
+    Label bodyLabel = new Label();
+    Label conditionLabel = new Label();
+    Label breakLabel = new Label();
+
+    mv.visitLabel(bodyLabel);
+    accept(node.getBody(), env.newLoop(name, breakLabel, conditionLabel));
+
+    mv.visitLabel(conditionLabel);
+    genLoopCondition(node.getCondition(), bodyLabel, env);
+    mv.visitLabel(breakLabel);
+    return null;
+  }
+
+  // jumps back to the loop body if the condition is true, no condition means always true
+  private void genLoopCondition(/*maybenull*/DartExpression condition, Label bodyLabel, GenEnv env) {
+    if (condition == null) {
+      env.getMethodVisitor().visitJumpInsn(GOTO, bodyLabel);
+      return;
+    }
+    genBranch(condition, new IfBranches(false, bodyLabel, null), env);
+  }
+
+  @Override
+  public GenResult visitLabel(DartLabel node, GenEnv env) {
+    String name = node.getLabel().getName();
+    DartStatement statement = node.getStatement();
+    if (statement instanceof DartForStatement) {
+      return genFor((DartForStatement) statement, name, env);
+    }
+    if (statement instanceof DartWhileStatement) {
+      return genWhile((DartWhileStatement) statement, name, env);
+    }
+    if (statement instanceof DartDoWhileStatement) {
+      return genDoWhile((DartDoWhileStatement) statement, name, env);
+    }
+
+    // not a loop, only a break can target the label
+    Label breakLabel = new Label();
+    accept(statement, env.newLoop(name, breakLabel, null));
+    env.getMethodVisitor().visitLabel(breakLabel);
+    return null;
+  }
+
+  private static /*maybenull*/String targetName(DartGotoStatement node) {
+    DartIdentifier label = node.getLabel();
+    return (label == null)? null: label.getName();
+  }
+
+  @Override
+  public GenResult visitBreakStatement(DartBreakStatement node, GenEnv env) {
+    Label breakLabel = env.getLoopLabels().getBreakLabel(targetName(node));
+    env.getMethodVisitor().visitJumpInsn(GOTO, breakLabel);
+    return null;
+  }
+
+  @Override
+  public GenResult visitContinueStatement(DartContinueStatement node, GenEnv env) {
+    Label continueLabel = env.getLoopLabels().getContinueLabel(targetName(node));
+    env.getMethodVisitor().visitJumpInsn(GOTO, continueLabel);
     return null;
   }
 
@@ -641,7 +967,7 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
 
     Type exprType = asJVMType(typeMap.get(value), TypeContext.VAR_TYPE);
     if (exprType != MIXEDINT_TYPE) {
-      accept(value, env);
+      genValue(value, exprType, returnType, env);
       mv.visitInsn(returnType.getOpcode(IRETURN));
       return null;
     }
@@ -656,6 +982,15 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
     mv.visitInsn(IRETURN);
 
     mv.visitLabel(bigPathLabel);
+    Var carrierVar = env.getCarrierVar();
+    if (carrierVar != null) {
+      mv.visitVarInsn(ALOAD, carrierVar.getSlot());
+      mv.visitVarInsn(ALOAD, 1 + result.getVarSlot());
+      mv.visitFieldInsn(PUTFIELD, CARRIER_CLASS, "value", BIGINT_DESC);
+      mv.visitInsn(ICONST_0);
+      mv.visitInsn(IRETURN);
+      return null;
+    }
     mv.visitVarInsn(ALOAD, 1 + result.getVarSlot());
     mv.visitMethodInsn(INVOKESTATIC, CONTROLFLOWEXCEPTION_CLASS, "valueOf",
         '('+BIGINT_DESC+')'+CONTROLFLOWEXCEPTION_DESC);
@@ -676,12 +1011,11 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
       Type type = var.getType();
       int slot = var.getSlot();
       if (type == MIXEDINT_TYPE) {
-        int mixedIntShift = env.getMixedIntShift();
-        type = (mixedIntShift == 0)? Type.INT_TYPE: BIGINT_TYPE;
-        slot += mixedIntShift;
+        // like any mixed int result, the value is already in its slots
+        return new GenResult(slot, var);
       }
       mv.visitVarInsn(type.getOpcode(ILOAD), slot);
-      return (type == MIXEDINT_TYPE)? new GenResult(slot, var): null;
+      return null;
 
     case FIELD:
       //FIXME
@@ -707,6 +1041,126 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
     void genBinaryOverFlowed(Type returnType, Type type1, Type type2, GenEnv env);
 
     void genBinaryBig(Type returnType, List<Type> types, GenEnv env);
+
+    // opcode of the operation on longs, the result of an operation on ints
+    // is never truncated when done with longs, -1 if there is no such opcode
+    int getWidenedOpcode();
+  }
+
+  // a numeric operation is done on doubles if one of the operands or the result is a double,
+  // the int operands are promoted
+  private static boolean isDoubleOperation(Type type1, Type type2, Type returnType) {
+    return type1 == Type.DOUBLE_TYPE || type2 == Type.DOUBLE_TYPE || returnType == Type.DOUBLE_TYPE;
+  }
+
+  // pushes the value of an expression converted to the expected type,
+  // null is encoded in the expected type
+  private void genValue(DartExpression expr, Type type, Type expectedType, GenEnv env) {
+    MethodVisitor mv = env.getMethodVisitor();
+    if (expr instanceof DartNullLiteral) {
+      genNull(expectedType, mv);
+      return;
+    }
+    accept(expr, env);
+    genPromotion(type, expectedType, mv);
+  }
+
+  // pushes null, a nullable double or a nullable boolean is not boxed and use a special value
+  private static void genNull(Type type, MethodVisitor mv) {
+    switch(type.getSort()) {
+    case Type.DOUBLE:
+      mv.visitFieldInsn(GETSTATIC, RT_CLASS, "NULL_DOUBLE", "D");
+      return;
+    case Type.BYTE:  // nullable boolean
+      mv.visitInsn(ICONST_2);
+      return;
+    case Type.OBJECT:
+    case Type.ARRAY:
+      mv.visitInsn(ACONST_NULL);
+      return;
+    default:
+      throw new UnsupportedOperationException("null as " + type);
+    }
+  }
+
+  // compares the value of an expression to null and jumps to the label if the comparison is true,
+  // or false if inversed
+  private void genNullCheck(DartExpression expr, Token operator, boolean inversed, Label label, GenEnv env) {
+    MethodVisitor mv = env.getMethodVisitor();
+    Type type = asJVMType(typeMap.get(expr), TypeContext.VAR_TYPE);
+    boolean jumpIfNull = (operator == Token.EQ || operator == Token.EQ_STRICT) != inversed;
+    accept(expr, env);
+    switch(type.getSort()) {
+    case Type.OBJECT:
+    case Type.ARRAY:
+      mv.visitJumpInsn((jumpIfNull)? IFNULL: IFNONNULL, label);
+      return;
+    case Type.DOUBLE:
+      mv.visitMethodInsn(INVOKESTATIC, RT_CLASS, "isNullDouble", "(D)Z");
+      mv.visitJumpInsn((jumpIfNull)? IFNE: IFEQ, label);
+      return;
+    case Type.BYTE:  // nullable boolean
+      mv.visitInsn(ICONST_2);
+      mv.visitJumpInsn((jumpIfNull)? IF_ICMPEQ: IF_ICMPNE, label);
+      return;
+    default:
+    }
+    throw new UnsupportedOperationException("null check of " + type);
+  }
+
+  // converts the int on top of the stack to a double if a double is expected
+  private static void genPromotion(Type type, Type expectedType, MethodVisitor mv) {
+    if (type == INT_TYPE && expectedType == Type.DOUBLE_TYPE) {
+      mv.visitInsn(I2D);
+    }
+  }
+
+  // pushes the operand of a numeric operation converted to the expected type,
+  // a nullable double is checked because an operation on null is an error in Dart
+  private void genOperand(DartExpression expr, Type type, Type expectedType, GenEnv env) {
+    MethodVisitor mv = env.getMethodVisitor();
+    accept(expr, env);
+    if (type == Type.DOUBLE_TYPE && typeMap.get(expr).isNullable()) {
+      mv.visitMethodInsn(INVOKESTATIC, RT_CLASS, "checkNullDouble", "(D)D");
+    }
+    genPromotion(type, expectedType, mv);
+  }
+
+  // true if the value is a nullable double or a nullable boolean, encoded without boxing
+  private static boolean isUnboxedNullable(jdart.compiler.type.Type flowType, Type type) {
+    return type == NULLABLE_BOOLEAN_TYPE || (type == Type.DOUBLE_TYPE && flowType.isNullable());
+  }
+
+  // boxes the nullable double or nullable boolean on top of the stack, null is boxed as null
+  private static void genBoxNullable(Type type, MethodVisitor mv) {
+    if (type == NULLABLE_BOOLEAN_TYPE) {
+      mv.visitMethodInsn(INVOKESTATIC, RT_CLASS, "boxNullableBoolean", "(B)Ljava/lang/Object;");
+    } else {
+      mv.visitMethodInsn(INVOKESTATIC, RT_CLASS, "boxNullableDouble", "(D)Ljava/lang/Object;");
+    }
+  }
+
+  // unboxes the nullable double or nullable boolean on top of the stack
+  private static void genUnboxNullable(Type type, MethodVisitor mv) {
+    if (type == NULLABLE_BOOLEAN_TYPE) {
+      mv.visitMethodInsn(INVOKESTATIC, RT_CLASS, "unboxNullableBoolean", "(Ljava/lang/Object;)B");
+    } else {
+      mv.visitMethodInsn(INVOKESTATIC, RT_CLASS, "unboxNullableDouble", "(Ljava/lang/Object;)D");
+    }
+  }
+
+  // true if the code of a function is generated, so it uses the unboxed encoding of null,
+  // a native function uses boxed values
+  private boolean isGenerated(Element element) {
+    if (!descriptorMap.containsKey(element) || !(element instanceof NodeElement)) {
+      return false;
+    }
+    DartNode node = ((NodeElement) element).getNode();
+    if (!(node instanceof DartMethodDefinition)) {
+      return false;
+    }
+    DartFunction function = ((DartMethodDefinition) node).getFunction();
+    return function != null && function.getBody() != null;
   }
 
   private GenResult genBinary(DartExpression expr1, DartExpression expr2, Type returnType, GenEnv env, BinaryGenerator binaryGenerator) {
@@ -718,6 +1172,13 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
     boolean needToSpill = returnType == MIXEDINT_TYPE || type1 == MIXEDINT_TYPE || type2 == MIXEDINT_TYPE;
 
     if (!needToSpill) {
+      if (isDoubleOperation(type1, type2, returnType)) {
+        genOperand(expr1, type1, Type.DOUBLE_TYPE, env);
+        genOperand(expr2, type2, Type.DOUBLE_TYPE, env);
+        binaryGenerator.genBinaryNoOverFlow(returnType, Type.DOUBLE_TYPE, Type.DOUBLE_TYPE, env);
+        return null;
+      }
+
       accept(expr1, env);
       accept(expr2, env);
 
@@ -731,8 +1192,17 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
 
     int resultVarSlot;
     GenResult genResult;
+    // overflow checked by a test, otherwise by an exception
+    int widenedOpcode = -1;
+    if (returnType == MIXEDINT_TYPE && options.getOverflowCheck() == OverflowCheck.BRANCH &&
+        type1 != BIGINT_TYPE && type2 != BIGINT_TYPE) {
+      widenedOpcode = binaryGenerator.getWidenedOpcode();
+    }
+
     if (returnType == MIXEDINT_TYPE) {
-      mv.visitTryCatchBlock(try_start, try_end, handler, ARITHMETHICEXCEPTION_CLASS); 
+      if (widenedOpcode == -1) {
+        mv.visitTryCatchBlock(try_start, try_end, handler, ARITHMETHICEXCEPTION_CLASS); 
+      }
       Var resultVar = env.newVar(MIXEDINT_TYPE);
       resultVarSlot = resultVar.getSlot();
       genResult = new GenResult(resultVarSlot, resultVar);
@@ -758,7 +1228,7 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
     if (result2 == null) {
       Var var = env.newVar(type2);
       slot2 = var.getSlot();
-      mv.visitVarInsn(type1.getOpcode(ISTORE), slot2);
+      mv.visitVarInsn(type2.getOpcode(ISTORE), slot2);
     } else {
       slot2 = result2.getVarSlot();
       dependencies.addAll(result2.getDependencies());
@@ -783,13 +1253,29 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
       smallReturnType = Type.INT_TYPE;
     }
 
-    // load spilled vars on stack
-    mv.visitVarInsn(smallType1.getOpcode(ILOAD), slot1);
-    mv.visitVarInsn(smallType2.getOpcode(ILOAD), slot2);
+    if (widenedOpcode != -1) {
+      // do the operation on longs and check that the result fits in an int,
+      // the int value is on stack in both paths 
+      mv.visitVarInsn(ILOAD, slot1);
+      mv.visitInsn(I2L);
+      mv.visitVarInsn(ILOAD, slot2);
+      mv.visitInsn(I2L);
+      mv.visitInsn(widenedOpcode);
+      mv.visitInsn(DUP2);
+      mv.visitInsn(L2I);
+      mv.visitInsn(DUP_X2);
+      mv.visitInsn(I2L);
+      mv.visitInsn(LCMP);
+      mv.visitJumpInsn(IFNE, handler);
+    } else {
+      // load spilled vars on stack
+      mv.visitVarInsn(smallType1.getOpcode(ILOAD), slot1);
+      mv.visitVarInsn(smallType2.getOpcode(ILOAD), slot2);
 
-    mv.visitLabel(try_start);
-    binaryGenerator.genRawBinaryWithOverFlow(smallReturnType, smallType1, smallType2, env);
-    mv.visitLabel(try_end);
+      mv.visitLabel(try_start);
+      binaryGenerator.genRawBinaryWithOverFlow(smallReturnType, smallType1, smallType2, env);
+      mv.visitLabel(try_end);
+    }
 
     if (returnType == MIXEDINT_TYPE) {
       mv.visitVarInsn(ISTORE, resultVarSlot);
@@ -804,7 +1290,7 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
     MethodVisitor sideMV = env.getSideMethodVisitor();
     if (returnType == MIXEDINT_TYPE) { 
       sideMV.visitLabel(handler);
-      sideMV.visitInsn(POP);
+      sideMV.visitInsn(POP);  // the exception or the truncated int value
 
       // reload spilled values
       sideMV.visitVarInsn(smallType1.getOpcode(ILOAD), slot1);
@@ -866,6 +1352,206 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
   }
 
 
+  // A chain of operations on mixed ints, like (a + b) * c - d, is generated as a whole.
+  // The leaves are evaluated and spilled once, the int path computes the chain on the stack
+  // without spilling the intermediate results, and the overflow of any operation exits
+  // to a single big path that computes the chain on BigInts from the spilled leaves.
+
+  private static boolean isIntChainOperator(Token operator) {
+    switch(operator) {
+    case ADD:
+    case SUB:
+    case MUL:
+    case TRUNC:
+    case MOD:
+    case SHL:
+    case SAR:
+    case BIT_AND:
+    case BIT_OR:
+    case BIT_XOR:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  private static DartExpression unparenthesize(DartExpression expr) {
+    while (expr instanceof DartParenthesizedExpression) {
+      expr = ((DartParenthesizedExpression) expr).getExpression();
+    }
+    return expr;
+  }
+
+  // returns the operation if the expression is an operation of a chain, null if it's a leaf
+  private /*maybenull*/DartBinaryExpression asIntChainNode(DartExpression expr) {
+    expr = unparenthesize(expr);
+    if (!(expr instanceof DartBinaryExpression)) {
+      return null;
+    }
+    DartBinaryExpression binary = (DartBinaryExpression) expr;
+    if (!isIntChainOperator(binary.getOperator()) ||
+        asJVMType(typeMap.get(binary), TypeContext.VAR_TYPE) != MIXEDINT_TYPE) {
+      return null;
+    }
+    return binary;
+  }
+
+  // at least two operations and only int or mixed int leaves
+  private boolean isIntChain(DartBinaryExpression node) {
+    return (asIntChainNode(node.getArg1()) != null || asIntChainNode(node.getArg2()) != null) &&
+        hasIntChainLeaves(node);
+  }
+
+  private boolean hasIntChainLeaves(DartBinaryExpression node) {
+    return isIntChainOperand(node.getArg1()) && isIntChainOperand(node.getArg2());
+  }
+
+  private boolean isIntChainOperand(DartExpression expr) {
+    DartBinaryExpression chainNode = asIntChainNode(expr);
+    if (chainNode != null) {
+      return hasIntChainLeaves(chainNode);
+    }
+    Type type = asJVMType(typeMap.get(expr), TypeContext.VAR_TYPE);
+    return type == INT_TYPE || type == MIXEDINT_TYPE;
+  }
+
+  // the leaves from left to right, in evaluation order
+  private void collectIntChainLeaves(DartBinaryExpression node, List<DartExpression> leaves) {
+    for(DartExpression expr: Arrays.asList(node.getArg1(), node.getArg2())) {
+      DartBinaryExpression chainNode = asIntChainNode(expr);
+      if (chainNode != null) {
+        collectIntChainLeaves(chainNode, leaves);
+      } else {
+        leaves.add(unparenthesize(expr));
+      }
+    }
+  }
+
+  private GenResult genIntChain(DartBinaryExpression node, GenEnv env) {
+    MethodVisitor mv = env.getMethodVisitor();
+    Label tryStart = new Label();
+    Label tryEnd = new Label();
+    Label handler = new Label();
+    mv.visitTryCatchBlock(tryStart, tryEnd, handler, ARITHMETHICEXCEPTION_CLASS);
+    Var resultVar = env.newVar(MIXEDINT_TYPE);
+    int resultVarSlot = resultVar.getSlot();
+
+    // spill the leaves, a mixed int leaf is already in its slots
+    ArrayList<DartExpression> leaves = new ArrayList<>();
+    collectIntChainLeaves(node, leaves);
+    HashMap<DartExpression, Integer> slotMap = new HashMap<>();
+    HashSet<DartExpression> mixedLeafSet = new HashSet<>();
+    HashSet<Var> dependencies = new HashSet<>();
+    for(DartExpression leaf: leaves) {
+      GenResult result = accept(leaf, env);
+      if (result == null) {
+        Var var = env.newVar(INT_TYPE);
+        mv.visitVarInsn(ISTORE, var.getSlot());
+        slotMap.put(leaf, var.getSlot());
+      } else {
+        slotMap.put(leaf, result.getVarSlot());
+        mixedLeafSet.add(leaf);
+        dependencies.addAll(result.getDependencies());
+      }
+    }
+
+    Label bigPathLabel = new Label();
+    for(Var dependency: dependencies) {
+      mv.visitVarInsn(ALOAD, 1 + dependency.getSlot());
+      mv.visitJumpInsn(IFNONNULL, bigPathLabel);
+    }
+
+    // int path
+    mv.visitLabel(tryStart);
+    genIntChainIntPath(node, slotMap, mv);
+    mv.visitLabel(tryEnd);
+    mv.visitVarInsn(ISTORE, resultVarSlot);
+    mv.visitInsn(ACONST_NULL);
+    mv.visitVarInsn(ASTORE, 1 + resultVarSlot);
+    Label endLabel = new Label();
+    mv.visitJumpInsn(GOTO, endLabel);
+
+    // the overflow of any operation of the chain
+    MethodVisitor sideMV = env.getSideMethodVisitor();
+    sideMV.visitLabel(handler);
+    sideMV.visitInsn(POP);  // the exception
+    sideMV.visitJumpInsn(GOTO, bigPathLabel);
+
+    // big path
+    mv.visitLabel(bigPathLabel);
+    genIntChainBigPath(node, slotMap, mixedLeafSet, mv);
+    mv.visitVarInsn(ASTORE, 1 + resultVarSlot);
+    mv.visitInsn(ICONST_0);
+    mv.visitVarInsn(ISTORE, resultVarSlot);
+
+    mv.visitLabel(endLabel);
+    return new GenResult(resultVarSlot, resultVar);
+  }
+
+  private void genIntChainIntPath(DartBinaryExpression node, Map<DartExpression, Integer> slotMap, MethodVisitor mv) {
+    for(DartExpression expr: Arrays.asList(node.getArg1(), node.getArg2())) {
+      DartBinaryExpression chainNode = asIntChainNode(expr);
+      if (chainNode != null) {
+        genIntChainIntPath(chainNode, slotMap, mv);
+      } else {
+        mv.visitVarInsn(ILOAD, slotMap.get(unparenthesize(expr)));
+      }
+    }
+    mv.visitMethodInsn(INVOKESTATIC, RT_CLASS, exactMethodName(node.getOperator()), "(II)I");
+  }
+
+  private void genIntChainBigPath(DartBinaryExpression node, Map<DartExpression, Integer> slotMap, Set<DartExpression> mixedLeafSet, MethodVisitor mv) {
+    ArrayList<Type> types = new ArrayList<>(4);
+    for(DartExpression expr: Arrays.asList(node.getArg1(), node.getArg2())) {
+      DartBinaryExpression chainNode = asIntChainNode(expr);
+      if (chainNode != null) {
+        genIntChainBigPath(chainNode, slotMap, mixedLeafSet, mv);
+        types.add(BIGINT_TYPE);
+        continue;
+      }
+      DartExpression leaf = unparenthesize(expr);
+      int slot = slotMap.get(leaf);
+      mv.visitVarInsn(ILOAD, slot);
+      types.add(INT_TYPE);
+      if (mixedLeafSet.contains(leaf)) {
+        mv.visitVarInsn(ALOAD, 1 + slot);
+        types.add(BIGINT_TYPE);
+      }
+    }
+    mv.visitInvokeDynamicInsn(node.getOperator().name(),
+        Type.getMethodDescriptor(BIGINT_TYPE, types.toArray(new Type[types.size()])),
+        OPERATOR_BIG_BSM);
+  }
+
+  // name of the method of RT that does the operation on ints and
+  // throws an ArithmeticException if the result overflows
+  static String exactMethodName(Token operator) {
+    switch(operator) {
+    case ADD:
+      return "addExact";
+    case SUB:
+      return "subtractExact";
+    case MUL:
+      return "multiplyExact";
+    case TRUNC:
+      return "truncExact";
+    case MOD:
+      return "modExact";
+    case SHL:
+      return "shiftLeftExact";
+    case SAR:
+      return "shiftRightExact";
+    case BIT_AND:
+      return "andExact";
+    case BIT_OR:
+      return "orExact";
+    case BIT_XOR:
+      return "xorExact";
+    default:
+      throw new UnsupportedOperationException("operator " + operator + " (" + operator.name() + ")");
+    }
+  }
+
   @Override
   public GenResult visitBinaryExpression(DartBinaryExpression node, GenEnv env) {
     MethodVisitor mv = env.getMethodVisitor();
@@ -876,24 +1562,74 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
     Type returnType = asJVMType(typeMap.get(node), TypeContext.VAR_TYPE);
 
     final Token operator = node.getOperator();
+    if (operator.isAssignmentOperator()) {
+      genAssignment(node, true, subEnv);
+      return null;
+    }
+
     IfBranches ifBranches = env.getIfBranches();
     if (ifBranches != null) {
-      int opcode;
       boolean inversed = ifBranches.isInversed();
 
-      accept(expr1, subEnv);
-      accept(expr2, subEnv);
+      if (operator == Token.AND || operator == Token.OR) {
+        if ((operator == Token.AND) == inversed) {
+          // jump as soon as one operand jumps
+          genBranch(expr1, ifBranches, env);
+          genBranch(expr2, ifBranches, env);
+          return null;
+        }
+        // jump only if both operands jump
+        Label skipLabel = new Label();
+        genBranch(expr1, new IfBranches(!inversed, skipLabel, null), env);
+        genBranch(expr2, ifBranches, env);
+        mv.visitLabel(skipLabel);
+        return null;
+      }
 
-      //FIXME, check argument types
+      if ((operator == Token.EQ || operator == Token.NE || operator == Token.EQ_STRICT || operator == Token.NE_STRICT) &&
+          (expr1 instanceof DartNullLiteral || expr2 instanceof DartNullLiteral)) {
+        genNullCheck((expr1 instanceof DartNullLiteral)? expr2: expr1, operator, inversed, ifBranches.getElseLabel(), subEnv);
+        return null;
+      }
 
-      switch(operator) {
-      case ASSIGN:
-        // TODO MODIFIED
-        mv.visitVarInsn(ISTORE, subEnv.getVar((VariableElement) expr1.getElement()).getSlot()); 
+      Type type1 = asJVMType(typeMap.get(expr1), TypeContext.VAR_TYPE);
+      Type type2 = asJVMType(typeMap.get(expr2), TypeContext.VAR_TYPE);
+      Type operandType1 = type1, operandType2 = type2;
+      if (isDoubleOperation(type1, type2, null)) {
+        operandType1 = operandType2 = Type.DOUBLE_TYPE;
+      }
+      if (operator == Token.EQ || operator == Token.NE || operator == Token.EQ_STRICT || operator == Token.NE_STRICT) {
+        accept(expr1, subEnv);
+        genPromotion(type1, operandType1, mv);
+        accept(expr2, subEnv);
+        genPromotion(type2, operandType2, mv);
+      } else {
+        // comparing null is an error
+        genOperand(expr1, type1, operandType1, subEnv);
+        genOperand(expr2, type2, operandType2, subEnv);
+      }
+
+      // null is encoded as a NaN in a nullable double and a NaN is not equal to itself,
+      // so two nulls are compared by the runtime
+      if ((operator == Token.EQ || operator == Token.NE || operator == Token.EQ_STRICT || operator == Token.NE_STRICT) &&
+          operandType1 == Type.DOUBLE_TYPE &&
+          (isUnboxedNullable(typeMap.get(expr1), type1) || isUnboxedNullable(typeMap.get(expr2), type2))) {
+        boolean jumpIfEqual = (operator == Token.EQ || operator == Token.EQ_STRICT) != inversed;
+        mv.visitMethodInsn(INVOKESTATIC, RT_CLASS, "eqNullableDouble", "(DD)Z");
+        mv.visitJumpInsn((jumpIfEqual)? IFNE: IFEQ, ifBranches.getElseLabel());
         return null;
+      }
+
+      switch(operator) {
       case LT:
-        opcode = (inversed)? IF_ICMPGE: IF_ICMPLT;
-        mv.visitJumpInsn(opcode, ifBranches.getElseLabel());
+      case LTE:
+      case GT:
+      case GTE:
+      case EQ:
+      case NE:
+      case EQ_STRICT:
+      case NE_STRICT:
+        genCompare(operator, operandType1, operandType2, inversed, ifBranches.getElseLabel(), mv);
         return null;
       default:
         throw new UnsupportedOperationException("operator " + operator + " (" + operator.name() + ")");
@@ -904,41 +1640,30 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
     switch(operator) {
     case SUB:
     case ADD:
+    case MUL:
+    case DIV:
+    case TRUNC:
+    case MOD:
+    case SHL:
+    case SAR:
+    case BIT_AND:
+    case BIT_OR:
+    case BIT_XOR:
+      if (returnType == MIXEDINT_TYPE && options.getOverflowCheck() == OverflowCheck.EXCEPTION && isIntChain(node)) {
+        return genIntChain(node, subEnv);
+      }
       return genBinary(expr1, expr2, returnType, subEnv, new BinaryGenerator() {
         @Override
         public void genBinaryNoOverFlow(Type returnType, Type type1, Type type2, GenEnv env) {
-          MethodVisitor mv = env.getMethodVisitor();
-          int sort1 = type1.getSort();
-          int sort2 = type2.getSort();
-          if (sort1 == Type.INT && sort2 == Type.INT) { //FIXME add support of doubles
-            switch(operator) {
-            case ADD:
-              mv.visitInsn(IADD);
-              return;
-            case SUB:
-              mv.visitInsn(ISUB);
-              return;
-            default:
-              throw new UnsupportedOperationException("binary no overflow "+returnType+" "+type1+" "+type2);
-            }
-          }
-
-          throw new UnsupportedOperationException("binary no overflow "+returnType+" "+type1+" "+type2);
+          genOperation(operator, returnType, type1, type2, env.getMethodVisitor());
         }
 
         @Override
         public void genRawBinaryWithOverFlow(Type returnType, Type type1, Type type2, GenEnv env) {
           MethodVisitor mv = env.getMethodVisitor();
           if (type1 == Type.INT_TYPE && type2 == Type.INT_TYPE) {
-            switch(operator) {
-            case ADD:
-              mv.visitMethodInsn(INVOKESTATIC, RT_CLASS, "addExact", "(II)I");
-              return;
-            case SUB:
-              mv.visitMethodInsn(INVOKESTATIC, RT_CLASS, "subtractExact", "(II)I");
-              return;
-            default:
-            }
+            mv.visitMethodInsn(INVOKESTATIC, RT_CLASS, exactMethodName(operator), "(II)I");
+            return;
           }
           throw new UnsupportedOperationException("binary with overflow "+returnType+" "+type1+" "+type2);
         }
@@ -960,6 +1685,20 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
               OPERATOR_BIG_BSM);
         }
 
+        @Override
+        public int getWidenedOpcode() {
+          switch(operator) {
+          case ADD:
+            return LADD;
+          case SUB:
+            return LSUB;
+          case MUL:
+            return LMUL;
+          default:
+            return -1;
+          }
+        }
+
         /*
         @Override
         public void genIntPath(GenResult result, GenResult result2, GenEnv env) {
@@ -1027,17 +1766,269 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
       // so it's a boolean operator
     }
 
-    // push true or false
+    genBooleanValue(node, subEnv);
+    return null;
+  }
+
+  // operation that can not overflow, the two operands are on the stack
+  private static void genOperation(Token operator, Type returnType, Type type1, Type type2, MethodVisitor mv) {
+    int sort1 = type1.getSort();
+    int sort2 = type2.getSort();
+    if (sort1 == Type.INT && sort2 == Type.INT) {
+      switch(operator) {
+      case ADD:
+        mv.visitInsn(IADD);
+        return;
+      case SUB:
+        mv.visitInsn(ISUB);
+        return;
+      case MUL:
+        mv.visitInsn(IMUL);
+        return;
+      case TRUNC:
+        mv.visitInsn(IDIV);
+        return;
+      case BIT_AND:
+        mv.visitInsn(IAND);
+        return;
+      case BIT_OR:
+        mv.visitInsn(IOR);
+        return;
+      case BIT_XOR:
+        mv.visitInsn(IXOR);
+        return;
+      case MOD:    // Dart modulo is always positive
+      case SHL:    // JVM shifts mask the shift count 
+      case SAR:
+        mv.visitMethodInsn(INVOKESTATIC, RT_CLASS, exactMethodName(operator), "(II)I");
+        return;
+      default:
+        throw new UnsupportedOperationException("binary no overflow "+returnType+" "+type1+" "+type2);
+      }
+    }
+    if (sort1 == Type.DOUBLE && sort2 == Type.DOUBLE) {
+      switch(operator) {
+      case ADD:
+        mv.visitInsn(DADD);
+        return;
+      case SUB:
+        mv.visitInsn(DSUB);
+        return;
+      case MUL:
+        mv.visitInsn(DMUL);
+        return;
+      case DIV:
+        mv.visitInsn(DDIV);
+        return;
+      case TRUNC:  // the quotient is truncated toward zero
+        mv.visitMethodInsn(INVOKESTATIC, RT_CLASS, "truncDouble", "(DD)D");
+        return;
+      case MOD:    // Dart modulo is always positive
+        mv.visitMethodInsn(INVOKESTATIC, RT_CLASS, "modDouble", "(DD)D");
+        return;
+      default:
+        throw new UnsupportedOperationException("binary no overflow "+returnType+" "+type1+" "+type2);
+      }
+    }
+
+    throw new UnsupportedOperationException("binary no overflow "+returnType+" "+type1+" "+type2);
+  }
+
+  // assignment of a local variable, if push is true the assigned value is also pushed on the stack
+  private void genAssignment(DartBinaryExpression node, boolean push, GenEnv env) {
+    MethodVisitor mv = env.getMethodVisitor();
+    Token operator = node.getOperator();
+    Element element = node.getArg1().getElement();
+    if (!(element instanceof VariableElement)) {  //FIXME add support of fields and array elements
+      throw new UnsupportedOperationException("assignment " + operator + " of " + element);
+    }
+    Var var = env.getVar((VariableElement) element);
+    Type type = var.getType();
+    DartExpression value = node.getArg2();
+    Type valueType = asJVMType(typeMap.get(value), TypeContext.VAR_TYPE);
+    if (type == MIXEDINT_TYPE || valueType == MIXEDINT_TYPE) {
+      throw new UnsupportedOperationException("assignment " + operator + " " + type + " " + valueType);
+    }
+
+    if (operator != Token.ASSIGN) {
+      // the compound operation is done with the type of the variable
+      // so the type flow must prove that the result fits in it
+      Type resultType = asJVMType(typeMap.get(node), TypeContext.VAR_TYPE);
+      if (resultType == MIXEDINT_TYPE || (type == INT_TYPE && valueType != INT_TYPE)) {
+        throw new UnsupportedOperationException("assignment " + operator + " " + type + " " + valueType);
+      }
+      mv.visitVarInsn(type.getOpcode(ILOAD), var.getSlot());
+    } else if (!isAssignable(value, valueType, type)) {
+      // the slot of the variable is typed by its initial value, no boxing or conversion is done
+      throw new UnsupportedOperationException("assignment " + operator + " of a " + valueType + " to a variable of type " + type);
+    }
+    genValue(value, valueType, type, env);
+    if (operator != Token.ASSIGN) {
+      genOperation(operator.asBinaryOperator(), type, type, type, mv);
+    }
+
+    if (push) {
+      mv.visitInsn((type.getSize() == 1)? DUP: DUP2);
+    }
+    mv.visitVarInsn(type.getOpcode(ISTORE), var.getSlot());
+  }
+
+  // true if the value can be stored in a slot of the type without boxing,
+  // an int is promoted to a double and a boolean is a nullable boolean that is not null
+  private static boolean isAssignable(DartExpression value, Type valueType, Type type) {
+    if (value instanceof DartNullLiteral) {
+      // see genNull()
+      int sort = type.getSort();
+      return sort == Type.DOUBLE || sort == Type.BYTE || sort == Type.OBJECT || sort == Type.ARRAY;
+    }
+    if (valueType.equals(type)) {
+      return true;
+    }
+    if (type == Type.DOUBLE_TYPE) {
+      return valueType == INT_TYPE;
+    }
+    if (type == NULLABLE_BOOLEAN_TYPE) {
+      return valueType == Type.BOOLEAN_TYPE;
+    }
+    if (type.equals(OBJECT_TYPE)) {
+      int sort = valueType.getSort();
+      return sort == Type.OBJECT || sort == Type.ARRAY;
+    }
+    return false;
+  }
+
+  // push true or false
+  private void genBooleanValue(DartExpression condition, GenEnv env) {
+    MethodVisitor mv = env.getMethodVisitor();
     Label elseLabel = new Label();
     Label endLabel = new Label();
-    ifBranches = new IfBranches(true, elseLabel, endLabel);
-    visitBinaryExpression(node, subEnv.newIf(ifBranches));
+    genBranch(condition, new IfBranches(true, elseLabel, endLabel), env);
     mv.visitInsn(ICONST_1);
     mv.visitJumpInsn(GOTO, endLabel);
     mv.visitLabel(elseLabel);
     mv.visitInsn(ICONST_0);
     mv.visitLabel(endLabel);
-    return null;
+  }
+
+  /**
+   * Generates a condition as jumps, without computing its boolean value.
+   * Jumps to the else label of the branches if the condition is true,
+   * or if the condition is false when the branches are inversed.
+   */
+  private void genBranch(DartExpression condition, IfBranches ifBranches, GenEnv env) {
+    if (condition instanceof DartParenthesizedExpression) {
+      genBranch(((DartParenthesizedExpression) condition).getExpression(), ifBranches, env);
+      return;
+    }
+    if (condition instanceof DartUnaryExpression && ((DartUnaryExpression) condition).getOperator() == Token.NOT) {
+      genBranch(((DartUnaryExpression) condition).getArg(),
+          new IfBranches(!ifBranches.isInversed(), ifBranches.getElseLabel(), ifBranches.getEndLabel()), env);
+      return;
+    }
+    if (condition instanceof DartBinaryExpression && isBranchOperator(((DartBinaryExpression) condition).getOperator())) {
+      visitBinaryExpression((DartBinaryExpression) condition, env.newIf(ifBranches));
+      return;
+    }
+
+    // a boolean value, a nullable boolean is true only if it is true, null is not true
+    Type type = asJVMType(typeMap.get(condition), TypeContext.VAR_TYPE);
+    if (!isBoolean(type)) {
+      throw new UnsupportedOperationException("condition of type " + type);
+    }
+    MethodVisitor mv = env.getMethodVisitor();
+    accept(condition, env.newIf(null));
+    if (type == NULLABLE_BOOLEAN_TYPE) {
+      mv.visitInsn(ICONST_1);
+      mv.visitJumpInsn((ifBranches.isInversed())? IF_ICMPNE: IF_ICMPEQ, ifBranches.getElseLabel());
+      return;
+    }
+    mv.visitJumpInsn((ifBranches.isInversed())? IFEQ: IFNE, ifBranches.getElseLabel());
+  }
+
+  private static boolean isBranchOperator(Token operator) {
+    switch(operator) {
+    case AND:
+    case OR:
+    case LT:
+    case LTE:
+    case GT:
+    case GTE:
+    case EQ:
+    case NE:
+    case EQ_STRICT:
+    case NE_STRICT:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  // a boolean, nullable or not
+  private static boolean isBoolean(Type type) {
+    return type == Type.BOOLEAN_TYPE || type == NULLABLE_BOOLEAN_TYPE;
+  }
+
+  private static Token negate(Token operator) {
+    switch(operator) {
+    case LT:
+      return Token.GTE;
+    case LTE:
+      return Token.GT;
+    case GT:
+      return Token.LTE;
+    case GTE:
+      return Token.LT;
+    case EQ:
+    case EQ_STRICT:
+      return Token.NE;
+    case NE:
+    case NE_STRICT:
+      return Token.EQ;
+    default:
+      throw new AssertionError("not a comparison " + operator);
+    }
+  }
+
+  // opcode of the jump that compares an int to zero
+  private static int ifOpcode(Token operator) {
+    switch(operator) {
+    case LT:
+      return IFLT;
+    case LTE:
+      return IFLE;
+    case GT:
+      return IFGT;
+    case GTE:
+      return IFGE;
+    case EQ:
+    case EQ_STRICT:
+      return IFEQ;
+    case NE:
+    case NE_STRICT:
+      return IFNE;
+    default:
+      throw new AssertionError("not a comparison " + operator);
+    }
+  }
+
+  // compares the two values on top of the stack and jumps to the label if the comparison is true,
+  // or false if inversed
+  private static void genCompare(Token operator, Type type1, Type type2, boolean inversed, Label label, MethodVisitor mv) {
+    Token jumpOperator = (inversed)? negate(operator): operator;
+    if ((type1 == INT_TYPE && type2 == INT_TYPE) ||
+        (isBoolean(type1) && isBoolean(type2) && (jumpOperator == Token.EQ || jumpOperator == Token.NE))) {
+      // IF_ICMPxx opcodes are in the same order as IFxx opcodes
+      mv.visitJumpInsn(ifOpcode(jumpOperator) + (IF_ICMPEQ - IFEQ), label);
+      return;
+    }
+    if (type1 == Type.DOUBLE_TYPE && type2 == Type.DOUBLE_TYPE) {
+      // a comparison with NaN is always false, so the compare instruction depends on
+      // the original operator and not on the negated one
+      mv.visitInsn((operator == Token.LT || operator == Token.LTE)? DCMPG: DCMPL);
+      mv.visitJumpInsn(ifOpcode(jumpOperator), label);
+      return;
+    }
+    throw new UnsupportedOperationException("operator " + operator + " " + type1 + " " + type2);
   }
 
   @Override
@@ -1048,29 +2039,224 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
     Token operator = node.getOperator();
     switch (operator) {
     case INC:
-      int varSlot = env.getVar((VariableElement) node.getArg().getElement()).getSlot();
-      mv.visitIincInsn(varSlot, 1);
+    case DEC:
+      genIncrement(node, true, env);
       return null;
+    case NOT:
+      genBooleanValue(node, env);
+      return null;
+    case SUB:
+    case BIT_NOT: {
+      DartExpression arg = node.getArg();
+      Type type = asJVMType(typeMap.get(arg), TypeContext.VAR_TYPE);
+      Type returnType = asJVMType(typeMap.get(node), TypeContext.VAR_TYPE);
+      if (operator == Token.SUB && type == Type.DOUBLE_TYPE && returnType == Type.DOUBLE_TYPE) {
+        genOperand(arg, type, type, env);
+        mv.visitInsn(DNEG);
+        return null;
+      }
+      return genUnaryInt(node, type, returnType, env);
+    }
       default:
         throw new UnsupportedOperationException("operator " + operator + " (" + operator.name() + ")");
     }
   }
 
+  // negation or bitwise not of an int, a mixed int or a BigInt,
+  // only the negation of Integer.MIN_VALUE overflows
+  private GenResult genUnaryInt(DartUnaryExpression node, Type type, Type returnType, GenEnv env) {
+    MethodVisitor mv = env.getMethodVisitor();
+    Token operator = node.getOperator();
+    DartExpression arg = node.getArg();
+    // the runtime names the unary minus NEG, SUB is the binary minus
+    String operatorName = (operator == Token.SUB)? "NEG": operator.name();
+
+    if (type == INT_TYPE && returnType == INT_TYPE) {
+      // the type flow proves that the operand is not Integer.MIN_VALUE
+      accept(arg, env);
+      genUnaryIntOperation(operator, mv);
+      return null;
+    }
+    if (type == BIGINT_TYPE && returnType == BIGINT_TYPE) {
+      accept(arg, env);
+      mv.visitInvokeDynamicInsn(operatorName, Type.getMethodDescriptor(BIGINT_TYPE, BIGINT_TYPE), OPERATOR_BIG_BSM);
+      return null;
+    }
+    if (returnType != MIXEDINT_TYPE || (type != INT_TYPE && type != MIXEDINT_TYPE && type != BIGINT_TYPE)) {
+      throw new UnsupportedOperationException("operator " + operator + " " + type + " " + returnType);
+    }
+
+    Var resultVar = env.newVar(MIXEDINT_TYPE);
+    int resultVarSlot = resultVar.getSlot();
+
+    // spill the operand
+    int slot;
+    GenResult result = accept(arg, env);
+    if (result == null) {
+      slot = env.newVar(type).getSlot();
+      mv.visitVarInsn(type.getOpcode(ISTORE), slot);
+    } else {
+      slot = result.getVarSlot();
+    }
+
+    Label bigPathLabel = new Label();
+    Label endLabel = new Label();
+    if (type != BIGINT_TYPE) {
+      if (type == MIXEDINT_TYPE) {
+        mv.visitVarInsn(ALOAD, 1 + slot);
+        mv.visitJumpInsn(IFNONNULL, bigPathLabel);
+      }
+
+      // int path
+      mv.visitVarInsn(ILOAD, slot);
+      if (operator == Token.SUB) {
+        Label handler = new Label();
+        if (options.getOverflowCheck() == OverflowCheck.BRANCH) {
+          mv.visitInsn(DUP);
+          mv.visitLdcInsn(Integer.MIN_VALUE);
+          mv.visitJumpInsn(IF_ICMPEQ, handler);
+          mv.visitInsn(INEG);
+        } else {
+          Label try_start = new Label();
+          Label try_end = new Label();
+          mv.visitTryCatchBlock(try_start, try_end, handler, ARITHMETHICEXCEPTION_CLASS);
+          mv.visitLabel(try_start);
+          mv.visitMethodInsn(INVOKESTATIC, RT_CLASS, "negateExact", "(I)I");
+          mv.visitLabel(try_end);
+        }
+
+        // overflow handler
+        MethodVisitor sideMV = env.getSideMethodVisitor();
+        sideMV.visitLabel(handler);
+        sideMV.visitInsn(POP);  // the exception or the operand
+        sideMV.visitVarInsn(ILOAD, slot);
+        sideMV.visitInvokeDynamicInsn(operatorName, Type.getMethodDescriptor(BIGINT_TYPE, INT_TYPE), OPERATOR_OVERFLOW_BSM);
+        sideMV.visitVarInsn(ASTORE, 1 + resultVarSlot);
+        sideMV.visitInsn(ICONST_0);
+        sideMV.visitVarInsn(ISTORE, resultVarSlot);
+        sideMV.visitJumpInsn(GOTO, endLabel);
+      } else {
+        genUnaryIntOperation(operator, mv);
+      }
+      mv.visitVarInsn(ISTORE, resultVarSlot);
+      mv.visitInsn(ACONST_NULL);
+      mv.visitVarInsn(ASTORE, 1 + resultVarSlot);
+      mv.visitJumpInsn(GOTO, endLabel);
+    }
+
+    // big path
+    if (type != INT_TYPE) {
+      mv.visitLabel(bigPathLabel);
+      if (type == BIGINT_TYPE) {
+        mv.visitVarInsn(ALOAD, slot);
+        mv.visitInvokeDynamicInsn(operatorName, Type.getMethodDescriptor(BIGINT_TYPE, BIGINT_TYPE), OPERATOR_BIG_BSM);
+      } else {
+        mv.visitVarInsn(ILOAD, slot);
+        mv.visitVarInsn(ALOAD, 1 + slot);
+        mv.visitInvokeDynamicInsn(operatorName, Type.getMethodDescriptor(BIGINT_TYPE, INT_TYPE, BIGINT_TYPE), OPERATOR_BIG_BSM);
+      }
+      mv.visitVarInsn(ASTORE, 1 + resultVarSlot);
+      mv.visitInsn(ICONST_0);
+      mv.visitVarInsn(ISTORE, resultVarSlot);
+    }
+
+    mv.visitLabel(endLabel);
+    return new GenResult(resultVarSlot, resultVar);
+  }
+
+  private static void genUnaryIntOperation(Token operator, MethodVisitor mv) {
+    if (operator == Token.BIT_NOT) {
+      mv.visitInsn(ICONST_M1);
+      mv.visitInsn(IXOR);
+    } else {
+      mv.visitInsn(INEG);
+    }
+  }
+
+  private static boolean isIncrement(Token operator) {
+    return operator == Token.INC || operator == Token.DEC;
+  }
+
+  // if push is true, the value of the expression, before or after the increment, is pushed on the stack
+  private void genIncrement(DartUnaryExpression node, boolean push, GenEnv env) {
+    MethodVisitor mv = env.getMethodVisitor();
+    Var var = env.getVar((VariableElement) node.getArg().getElement());
+    if (var.getType() != INT_TYPE) {
+      throw new UnsupportedOperationException("operator " + node.getOperator() + " " + var.getType());
+    }
+    int varSlot = var.getSlot();
+    boolean pushBefore = push && !node.isPrefix();
+    if (pushBefore) {
+      mv.visitVarInsn(ILOAD, varSlot);
+    }
+    boolean increment = node.getOperator() == Token.INC;
+    if (asJVMType(typeMap.get(node), TypeContext.VAR_TYPE) == INT_TYPE) {
+      // the type flow proves that the result fits in an int (by example an induction variable)
+      mv.visitIincInsn(varSlot, increment? 1: -1);
+    } else {
+      // the slot of the variable is an int, so an overflow can not be stored as a big int,
+      // it's reported as an ArithmeticException instead of silently wrapping around
+      mv.visitVarInsn(ILOAD, varSlot);
+      mv.visitInsn(ICONST_1);
+      mv.visitMethodInsn(INVOKESTATIC, RT_CLASS, increment? "addExact": "subtractExact", "(II)I");
+      mv.visitVarInsn(ISTORE, varSlot);
+    }
+    if (push && !pushBefore) {
+      mv.visitVarInsn(ILOAD, varSlot);
+    }
+  }
+
   interface MethodGenerator {
     void genMethodCall(Type returnType, Type[] parameterType, GenEnv env);
   }
 
-  private GenResult genMethodCall(List<DartExpression> exprs, Type declaredReturnType, Type returnType, GenEnv env, MethodGenerator methodGenerator) {
+  // store the int returned by a call and the big value of the carrier (if any)
+  // in the mixed int result variable, the carrier is cleared in the side path  
+  private static void genCarrierCheck(int resultVarSlot, GenEnv env) {
     MethodVisitor mv = env.getMethodVisitor();
+    int carrierSlot = env.getCarrierVar().getSlot();
+    mv.visitVarInsn(ISTORE, resultVarSlot);
+    mv.visitVarInsn(ALOAD, carrierSlot);
+    mv.visitFieldInsn(GETFIELD, CARRIER_CLASS, "value", BIGINT_DESC);
+    mv.visitInsn(DUP);
+    mv.visitVarInsn(ASTORE, 1 + resultVarSlot);
+    Label bigLabel = new Label();
+    Label endLabel = new Label();
+    mv.visitJumpInsn(IFNONNULL, bigLabel);
+    mv.visitLabel(endLabel);
+
+    MethodVisitor sideMV = env.getSideMethodVisitor();
+    sideMV.visitLabel(bigLabel);
+    sideMV.visitVarInsn(ALOAD, carrierSlot);
+    sideMV.visitInsn(ACONST_NULL);
+    sideMV.visitFieldInsn(PUTFIELD, CARRIER_CLASS, "value", BIGINT_DESC);
+    sideMV.visitInsn(ICONST_0);
+    sideMV.visitVarInsn(ISTORE, resultVarSlot);
+    sideMV.visitJumpInsn(GOTO, endLabel);
+  }
+
+  // if hasReceiver is true, this is loaded as first argument,
+  // if boxNullables is true, the nullable doubles and nullable booleans are passed boxed
+  private GenResult genMethodCall(boolean hasReceiver, List<DartExpression> exprs, boolean boxNullables, Type declaredReturnType, Type returnType, GenEnv env, MethodGenerator methodGenerator) {
+    MethodVisitor mv = env.getMethodVisitor();
+
+    // the big value returned is stored in a carrier passed as last argument
+    boolean carrier = declaredReturnType == MIXEDINT_TYPE && options.getBigReturn() == BigReturn.CARRIER;
+    int parameterCount = exprs.size() + (carrier? 1: 0);
 
-    Type[] parameterTypes = new Type[exprs.size()];
+    Type[] parameterTypes = new Type[parameterCount];
     Type[] bigTypes = null;  // lazy allocated
+    final Type[] boxedTypes = new Type[exprs.size()];  // the unboxed type of a boxed argument or null
     for(int i=0; i<exprs.size(); i++) {
       DartExpression expr = exprs.get(i);
       Type type = asJVMType(typeMap.get(expr), TypeContext.VAR_TYPE);
+      if (boxNullables && isUnboxedNullable(typeMap.get(expr), type)) {
+        boxedTypes[i] = type;
+        type = OBJECT_TYPE;
+      }
       if (type == MIXEDINT_TYPE) {
         if (bigTypes == null) {
-          bigTypes = new Type[exprs.size()];
+          bigTypes = new Type[parameterCount];
           System.arraycopy(parameterTypes, 0, bigTypes, 0, i);
         }
         parameterTypes[i] = Type.INT_TYPE;
@@ -1082,6 +2268,12 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
         }
       }
     }
+    if (carrier) {
+      parameterTypes[exprs.size()] = CARRIER_TYPE;
+      if (bigTypes != null) {
+        bigTypes[exprs.size()] = CARRIER_TYPE;
+      }
+    }
 
     Label try_start = new Label();
     Label try_end = new Label();
@@ -1090,7 +2282,9 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
     int resultVarSlot;
     GenResult genResult;
     if (declaredReturnType == MIXEDINT_TYPE) {
-      mv.visitTryCatchBlock(try_start, try_end, handler, CONTROLFLOWEXCEPTION_CLASS); 
+      if (!carrier) {
+        mv.visitTryCatchBlock(try_start, try_end, handler, CONTROLFLOWEXCEPTION_CLASS);
+      }
       Var resultVar = env.newVar(MIXEDINT_TYPE);
       resultVarSlot = resultVar.getSlot();
       genResult = new GenResult(resultVarSlot, resultVar);
@@ -1100,8 +2294,17 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
     }
 
     if (bigTypes == null) { // easy case, no mixed int types involved as parameter
-      for(DartExpression expr: exprs) {
-        accept(expr, env);
+      if (hasReceiver) {
+        mv.visitVarInsn(ALOAD, 0);
+      }
+      for(int i=0; i<exprs.size(); i++) {
+        accept(exprs.get(i), env);
+        if (boxedTypes[i] != null) {
+          genBoxNullable(boxedTypes[i], mv);
+        }
+      }
+      if (carrier) {
+        mv.visitVarInsn(ALOAD, env.getCarrierVar().getSlot());
       }
 
       mv.visitLabel(try_start);
@@ -1111,6 +2314,10 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
       if (declaredReturnType != MIXEDINT_TYPE) {
         return null;
       }
+      if (carrier) {
+        genCarrierCheck(resultVarSlot, env);
+        return genResult;
+      }
 
       mv.visitVarInsn(ISTORE, resultVarSlot);
       mv.visitInsn(ACONST_NULL);
@@ -1139,6 +2346,9 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
       GenResult result = accept(expr, env);
       int slot;
       if (result == null) {
+        if (boxedTypes[i] != null) {
+          genBoxNullable(boxedTypes[i], mv);
+        }
         Type type = parameterTypes[i];
         Var var = env.newVar(type);
         slot = var.getSlot();
@@ -1153,7 +2363,7 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
     // declare a second try/catch blocks
     Label try_start2 = new Label();
     Label try_end2 = new Label();
-    if (declaredReturnType == MIXEDINT_TYPE) {
+    if (declaredReturnType == MIXEDINT_TYPE && !carrier) {
       mv.visitTryCatchBlock(try_start2, try_end2, handler, CONTROLFLOWEXCEPTION_CLASS);
     }
 
@@ -1163,19 +2373,25 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
       mv.visitJumpInsn(IFNONNULL, bigPathLabel);
     }
 
+    if (hasReceiver) {
+      mv.visitVarInsn(ALOAD, 0);
+    }
     for(int i=0; i<exprs.size(); i++) {
       mv.visitVarInsn(parameterTypes[i].getOpcode(ILOAD), slots[i]);
     }
+    if (carrier) {
+      mv.visitVarInsn(ALOAD, env.getCarrierVar().getSlot());
+    }
     mv.visitLabel(try_start);
     methodGenerator.genMethodCall(returnType, parameterTypes, env);
-    mv.visitLabel(try_start);
+    mv.visitLabel(try_end);
 
     Label endOfCallLabel = new Label();
     mv.visitJumpInsn(GOTO, endOfCallLabel);
 
     Label endLabel = new Label();
     MethodVisitor sideMV = env.getSideMethodVisitor();
-    if (declaredReturnType == MIXEDINT_TYPE) { // exception handler
+    if (declaredReturnType == MIXEDINT_TYPE && !carrier) { // exception handler
       sideMV.visitLabel(handler);
 
       sideMV.visitFieldInsn(GETFIELD, CONTROLFLOWEXCEPTION_CLASS, "value", BIGINT_DESC);
@@ -1199,6 +2415,9 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
       }
     }
 
+    if (hasReceiver) {
+      mv.visitVarInsn(ALOAD, 0);
+    }
     for(int i=0; i<exprs.size(); i++) {
       DartExpression expr = exprs.get(i);
       int slot = slots[i];
@@ -1208,6 +2427,9 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
       }
       mv.visitVarInsn(bigTypes[i].getOpcode(ILOAD), slot);
     }
+    if (carrier) {
+      mv.visitVarInsn(ALOAD, env.getCarrierVar().getSlot());
+    }
 
     mv.visitLabel(try_start2);
     methodGenerator.genMethodCall(returnType, bigTypes, env);
@@ -1215,7 +2437,9 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
 
     mv.visitLabel(endOfCallLabel);
 
-    if (declaredReturnType == MIXEDINT_TYPE) {
+    if (carrier) {
+      genCarrierCheck(resultVarSlot, env);
+    } else if (declaredReturnType == MIXEDINT_TYPE) {
       mv.visitVarInsn(ISTORE, resultVarSlot);
       mv.visitInsn(ACONST_NULL);
       mv.visitVarInsn(ASTORE, 1 + resultVarSlot);
@@ -1230,19 +2454,44 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
     jdart.compiler.type.Type flowReturnType = typeMap.get(node);
     Type declaredReturnType = asJVMType(flowReturnType, TypeContext.VAR_TYPE);
     Type returnType = asJVMType(flowReturnType, TypeContext.RETURN_TYPE);
-    return genMethodCall(node.getArguments(), declaredReturnType, returnType, env, new MethodGenerator() {
+    final NodeElement nodeElement = node.getTarget().getElement();
+    
+    // an instance method of the current class is called on this
+    final boolean virtualCall = nodeElement.getKind() == ElementKind.METHOD &&
+        nodeElement.getEnclosingElement() instanceof ClassElement &&
+        !nodeElement.getModifiers().isStatic();
+
+    // a function that is not generated (print by example) takes and returns boxed values,
+    // the methods called on this are generated
+    boolean boxNullables = !virtualCall && !isGenerated(nodeElement);
+    final Type unboxedReturnType = (boxNullables && isUnboxedNullable(flowReturnType, declaredReturnType))? declaredReturnType: null;
+    if (unboxedReturnType != null) {
+      returnType = OBJECT_TYPE;
+    }
+    return genMethodCall(virtualCall, node.getArguments(), boxNullables, declaredReturnType, returnType, env, new MethodGenerator() {
       @Override
       public void genMethodCall(Type returnType, Type[] parameterType, GenEnv env) {
+        genCall(returnType, parameterType, env);
+        if (unboxedReturnType != null) {
+          genUnboxNullable(unboxedReturnType, env.getMethodVisitor());
+        }
+      }
+
+      private void genCall(Type returnType, Type[] parameterType, GenEnv env) {
         MethodVisitor mv = env.getMethodVisitor();
-        NodeElement nodeElement = node.getTarget().getElement();
         switch (nodeElement.getKind()) {
         case METHOD:
           EnclosingElement enclosingElement = nodeElement.getEnclosingElement();
-          String methodDesc = Type.getMethodDescriptor(returnType, parameterType);
-          if (enclosingElement instanceof ClassElement) {
-            mv.visitInvokeDynamicInsn(nodeElement.getName(), methodDesc, METHOD_CALL_BSM);
+          if (virtualCall) {
+            genVirtualCall(node, nodeElement.getName(), returnType, parameterType, env);
           } else {
+            // a function or a static method
+            String methodDesc = Type.getMethodDescriptor(returnType, parameterType);
             Type libraryType = Type.getObjectType(getInternalName(enclosingElement));
+            if (isDirectCall(nodeElement, returnType, parameterType)) {
+              mv.visitMethodInsn(INVOKESTATIC, libraryType.getInternalName(), nodeElement.getName(), methodDesc);
+              return;
+            }
             mv.visitInvokeDynamicInsn(nodeElement.getName(), methodDesc, FUNCTION_CALL_BSM, libraryType);
           }
           return;
@@ -1254,6 +2503,103 @@ public class Gen extends ASTVisitor2<GenResult, GenEnv> {
     });
   }
 
+  // a call is direct if the called profile is generated
+  private boolean isDirectCall(Element element, Type returnType, Type[] parameterTypes) {
+    if (options.getFunctionCall() != FunctionCall.DIRECT) {
+      return false;
+    }
+    Set<FunctionDescriptor> descriptors = descriptorMap.get(element);
+    return descriptors != null && descriptors.contains(new FunctionDescriptor(returnType, Arrays.asList(parameterTypes)));
+  }
+
+  // the maximum number of implementations tested by a guarded call
+  private static final int MAX_GUARDED_IMPLEMENTATIONS = 3;
+
+  // this and the arguments are on the stack,
+  // if the class hierarchy analysis finds only one implementation with a generated profile, the call is direct,
+  // if it finds a few implementations, the receiver is tested against their classes, the most specific first,
+  // otherwise or if no test succeeds, the method is called through invokedynamic
+  private void genVirtualCall(DartNode node, String name, Type returnType, Type[] parameterTypes, GenEnv env) {
+    MethodVisitor mv = env.getMethodVisitor();
+    String methodDesc = Type.getMethodDescriptor(returnType, parameterTypes);
+    Type[] types = new Type[1 + parameterTypes.length];
+    types[0] = unitType;
+    System.arraycopy(parameterTypes, 0, types, 1, parameterTypes.length);
+    String indyDesc = Type.getMethodDescriptor(returnType, types);
+
+    List<DartMethodDefinition> implementations = (implementationMap == null)? null: implementationMap.get(node);
+    if (implementations == null || implementations.isEmpty() || implementations.size() > MAX_GUARDED_IMPLEMENTATIONS) {
+      mv.visitInvokeDynamicInsn(name, indyDesc, METHOD_CALL_BSM);
+      return;
+    }
+    for(DartMethodDefinition implementation: implementations) {
+      if (!isDirectCall(implementation.getElement(), returnType, parameterTypes)) {
+        mv.visitInvokeDynamicInsn(name, indyDesc, METHOD_CALL_BSM);
+        return;
+      }
+    }
+
+    boolean singleImplementation = implementations.size() == 1;
+    if (singleImplementation) {
+      String owner = getInternalName(implementations.get(0).getElement().getEnclosingElement());
+      if (owner.equals(unitType.getInternalName())) {
+        mv.visitMethodInsn(INVOKESPECIAL, owner, name, methodDesc);
+        return;
+      }
+      if (parameterTypes.length == 0) {
+        mv.visitTypeInsn(CHECKCAST, owner);
+        mv.visitMethodInsn(INVOKEVIRTUAL, owner, name, methodDesc);
+        return;
+      }
+    }
+
+    // the receiver is this, so only the arguments are spilled
+    int[] slots = new int[parameterTypes.length];
+    for(int i = parameterTypes.length; --i >= 0;) {
+      Type type = parameterTypes[i];
+      int slot = env.newVar(type).getSlot();
+      mv.visitVarInsn(type.getOpcode(ISTORE), slot);
+      slots[i] = slot;
+    }
+    mv.visitInsn(POP);
+
+    if (singleImplementation) {
+      // the receiver can only be an instance of the class of the implementation
+      String owner = getInternalName(implementations.get(0).getElement().getEnclosingElement());
+      mv.visitVarInsn(ALOAD, 0);
+      mv.visitTypeInsn(CHECKCAST, owner);
+      genLoadArguments(parameterTypes, slots, mv);
+      mv.visitMethodInsn(INVOKEVIRTUAL, owner, name, methodDesc);
+      return;
+    }
+
+    // a subclass is analyzed after its superclass, so its methods come later
+    Label endLabel = new Label();
+    for(int i = implementations.size(); --i >= 0;) {
+      String owner = getInternalName(implementations.get(i).getElement().getEnclosingElement());
+      Label nextLabel = new Label();
+      mv.visitVarInsn(ALOAD, 0);
+      mv.visitTypeInsn(INSTANCEOF, owner);
+      mv.visitJumpInsn(IFEQ, nextLabel);
+      mv.visitVarInsn(ALOAD, 0);
+      mv.visitTypeInsn(CHECKCAST, owner);
+      genLoadArguments(parameterTypes, slots, mv);
+      mv.visitMethodInsn(INVOKEVIRTUAL, owner, name, methodDesc);
+      mv.visitJumpInsn(GOTO, endLabel);
+      mv.visitLabel(nextLabel);
+    }
+    mv.visitVarInsn(ALOAD, 0);
+    genLoadArguments(parameterTypes, slots, mv);
+    mv.visitInvokeDynamicInsn(name, indyDesc, METHOD_CALL_BSM);
+    mv.visitLabel(endLabel);
+  }
+
+  private static void genLoadArguments(Type[] parameterTypes, int[] slots, MethodVisitor mv) {
+    for(int i=0; i<parameterTypes.length; i++) {
+      mv.visitVarInsn(parameterTypes[i].getOpcode(ILOAD), slots[i]);
+    }
+  }
+
   //--- literals
 
   @Override
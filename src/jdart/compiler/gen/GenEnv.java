@@ -3,6 +3,7 @@ package jdart.compiler.gen;
 import java.util.HashMap;
 import java.util.Objects;
 
+import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Type;
 
@@ -14,24 +15,28 @@ class GenEnv {
   private final Type returnType;
   private final int mixedIntShift;  // 0 for int and 1 for BigInt
   private final IfBranches ifBranches;
+  private final /*maybenull*/LoopLabels loopLabels;
   
   private final /*maybenull*/GenEnv parent;
   private final HashMap<VariableElement, Var> variableMap;
-  private int slotCount;
+  private final SlotAllocator slotAllocator;  // shared by all derived environments
+  private /*maybenull*/Var carrierVar;
   
-  private GenEnv(MethodVisitor methodVisitor, MethodVisitor sideMethodVisitor, Type returnType, int mixedIntShift, IfBranches ifBranches, /*maybenull*/GenEnv parent, HashMap<VariableElement, Var> variableMap, int slotCount) {
+  private GenEnv(MethodVisitor methodVisitor, MethodVisitor sideMethodVisitor, Type returnType, int mixedIntShift, IfBranches ifBranches, /*maybenull*/LoopLabels loopLabels, /*maybenull*/GenEnv parent, HashMap<VariableElement, Var> variableMap, SlotAllocator slotAllocator, /*maybenull*/Var carrierVar) {
     this.methodVisitor = methodVisitor;
     this.sideMethodVisitor = sideMethodVisitor;
     this.returnType = returnType;
     this.mixedIntShift = mixedIntShift;
     this.ifBranches = ifBranches;
+    this.loopLabels = loopLabels;
     this.parent = parent;
     this.variableMap = variableMap;
-    this.slotCount = slotCount;
+    this.slotAllocator = slotAllocator;
+    this.carrierVar = carrierVar;
   }
   
   public GenEnv(MethodVisitor methodVisitor, MethodVisitor sideMethodVisitor, Type returnType, int slotCount) {
-    this(methodVisitor, sideMethodVisitor, returnType, 0, null, null, new HashMap<VariableElement, Var>(), slotCount);
+    this(methodVisitor, sideMethodVisitor, returnType, 0, null, null, null, new HashMap<VariableElement, Var>(), new SlotAllocator(slotCount), null);
   }
   
   public MethodVisitor getMethodVisitor() {
@@ -49,27 +54,56 @@ class GenEnv {
   public /*maybenull*/IfBranches getIfBranches() {
     return ifBranches;
   }
+  /**
+   * Returns the jump targets of the enclosing loops and labeled statements.
+   */
+  public /*maybenull*/LoopLabels getLoopLabels() {
+    return loopLabels;
+  }
+  /**
+   * Returns the variable containing the BigIntCarrier used to return a big value
+   * and to get the big values returned by the called functions.
+   */
+  public /*maybenull*/Var getCarrierVar() {
+    return carrierVar;
+  }
+  
+  // must be called before any derived environment is created
+  public void setCarrierVar(Var carrierVar) {
+    this.carrierVar = carrierVar;
+  }
   
   public GenEnv newSplitPathEnv(MethodVisitor mv, int mixedIntShift) {
-    return new GenEnv(mv, sideMethodVisitor, returnType, mixedIntShift, ifBranches, parent, variableMap, slotCount);
+    return new GenEnv(mv, sideMethodVisitor, returnType, mixedIntShift, ifBranches, loopLabels, parent, variableMap, slotAllocator, carrierVar);
   }
   
   public GenEnv newIf(IfBranches ifBranches) {
-    return new GenEnv(methodVisitor, sideMethodVisitor, returnType, mixedIntShift, ifBranches, parent, variableMap, slotCount);
+    return new GenEnv(methodVisitor, sideMethodVisitor, returnType, mixedIntShift, ifBranches, loopLabels, parent, variableMap, slotAllocator, carrierVar);
   }
   
+  public GenEnv newLoop(/*maybenull*/String name, Label breakLabel, /*maybenull*/Label continueLabel) {
+    LoopLabels loopLabels = new LoopLabels(this.loopLabels, name, breakLabel, continueLabel);
+    return new GenEnv(methodVisitor, sideMethodVisitor, returnType, mixedIntShift, null, loopLabels, parent, variableMap, slotAllocator, carrierVar);
+  }
+  
+  /**
+   * Allocates a temporary variable, released at the end of the current statement.
+   * The variable lives until the end of the block if it is registered.
+   */
   public Var newVar(Type type) {
     Objects.requireNonNull(type);
-    int slot = slotCount;
-    slotCount += type.getSize();
-    Var var = new Var(type, slot);
-    return var;
+    return slotAllocator.newVar(type);
   }
   
   public void registerVar(VariableElement element, Var var) {
     Objects.requireNonNull(element);
     Objects.requireNonNull(var);
     variableMap.put(element, var);
+    slotAllocator.declare(var);
+  }
+  
+  public SlotAllocator getSlotAllocator() {
+    return slotAllocator;
   }
   
   public Var getVar(VariableElement element) {
@@ -0,0 +1,126 @@
+package jdart.compiler.gen;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Options of the code generator.
+ * 
+ * The default options can be changed using system properties,
+ * so the generated code can be compared in benchmarks.
+ */
+public class GenOptions {
+  /**
+   * How the overflow of an int operation is detected.
+   */
+  public enum OverflowCheck {
+    /**
+     * The operation is done by a method of RT that throws an ArithmeticException,
+     * the handler computes the result as a BigInt.
+     */
+    EXCEPTION,
+    /**
+     * The operation is done on longs and the result is tested,
+     * the overflow path is a branch.
+     */
+    BRANCH
+  }
+  
+  /**
+   * How a function returning a mixed int returns a result that doesn't fit in an int.
+   */
+  public enum BigReturn {
+    /**
+     * The BigInt is thrown wrapped in a ControlFlowException.
+     */
+    EXCEPTION,
+    /**
+     * The BigInt is stored in a BigIntCarrier, passed as last argument.
+     */
+    CARRIER
+  }
+  
+  /**
+   * How a call to a function or a static method is linked.
+   */
+  public enum FunctionCall {
+    /**
+     * The call is an invokedynamic, linked by RT.functionCallBSM at its first execution.
+     */
+    INVOKEDYNAMIC,
+    /**
+     * The call is an invokestatic if the called profile is generated,
+     * an invokedynamic otherwise.
+     */
+    DIRECT
+  }
+  
+  private final OverflowCheck overflowCheck;
+  private final BigReturn bigReturn;
+  private final FunctionCall functionCall;
+  private final boolean verify;
+  
+  public GenOptions(OverflowCheck overflowCheck, BigReturn bigReturn) {
+    this(overflowCheck, bigReturn, FunctionCall.DIRECT);
+  }
+  
+  public GenOptions(OverflowCheck overflowCheck, BigReturn bigReturn, FunctionCall functionCall) {
+    this(overflowCheck, bigReturn, functionCall, false);
+  }
+  
+  /**
+   * Creates the options of the generator.
+   * 
+   * @param overflowCheck how the overflow of an int operation is detected.
+   * @param bigReturn how a big int is returned.
+   * @param functionCall how a call to a function is linked.
+   * @param verify true if the generated classes are checked by the ASM verifier.
+   */
+  public GenOptions(OverflowCheck overflowCheck, BigReturn bigReturn, FunctionCall functionCall, boolean verify) {
+    this.overflowCheck = Objects.requireNonNull(overflowCheck);
+    this.bigReturn = Objects.requireNonNull(bigReturn);
+    this.functionCall = Objects.requireNonNull(functionCall);
+    this.verify = verify;
+  }
+  
+  public OverflowCheck getOverflowCheck() {
+    return overflowCheck;
+  }
+  
+  public BigReturn getBigReturn() {
+    return bigReturn;
+  }
+  
+  public FunctionCall getFunctionCall() {
+    return functionCall;
+  }
+  
+  public boolean isVerify() {
+    return verify;
+  }
+  
+  @Override
+  public String toString() {
+    return "overflow: " + overflowCheck + ", big return: " + bigReturn + ", function call: " + functionCall;
+  }
+  
+  /**
+   * Returns the options specified by the system properties:
+   * <ul>
+   *   <li>jdart.gen.overflow, exception or branch (default exception),
+   *   <li>jdart.gen.bigreturn, exception or carrier (default exception),
+   *   <li>jdart.gen.functioncall, invokedynamic or direct (default direct),
+   *   <li>jdart.gen.verify, true or false (default false).
+   * </ul>
+   */
+  public static GenOptions fromSystemProperties() {
+    OverflowCheck overflowCheck = OverflowCheck.valueOf(
+        System.getProperty("jdart.gen.overflow", "exception").toUpperCase(Locale.ROOT));
+    BigReturn bigReturn = BigReturn.valueOf(
+        System.getProperty("jdart.gen.bigreturn", "exception").toUpperCase(Locale.ROOT));
+    FunctionCall functionCall = FunctionCall.valueOf(
+        System.getProperty("jdart.gen.functioncall", "direct").toUpperCase(Locale.ROOT));
+    boolean verify = Boolean.getBoolean("jdart.gen.verify");
+    return new GenOptions(overflowCheck, bigReturn, functionCall, verify);
+  }
+}
@@ -20,6 +20,7 @@ import jdart.compiler.type.TypeVisitor;
 import jdart.compiler.type.UnionType;
 import jdart.compiler.type.VoidType;
 import jdart.runtime.BigInt;
+import jdart.runtime.BigIntCarrier;
 
 import static org.objectweb.asm.Type.*;
 
@@ -27,8 +28,9 @@ class JVMTypes {
   static final Type OBJECT_TYPE = Type.getType(Object.class);
   static final Type BIGINT_TYPE = Type.getType(BigInt.class);
   static final Type MIXEDINT_TYPE = Type.getType(long.class);  // fake type, but should occupy two slots
-  static final Type BOXED_BOOLEAN_TYPE = Type.getType(Boolean.class);
+  static final Type NULLABLE_BOOLEAN_TYPE = Type.getType(byte.class);  // fake type, an int slot: 0 false, 1 true, 2 null
   static final Type FUNCTION_TYPE = Type.getType(MethodHandle.class);
+  static final Type CARRIER_TYPE = Type.getType(BigIntCarrier.class);
   
   /*
   public static jdart.compiler.type.Type unconvert(Type type) {
@@ -71,7 +73,7 @@ class JVMTypes {
       @Override
       public Type visitBoolType(BoolType type, Void unused) {
         if (type.isNullable())
-          return BOXED_BOOLEAN_TYPE;
+          return NULLABLE_BOOLEAN_TYPE;
         return BOOLEAN_TYPE;
       }
       @Override
@@ -92,6 +94,7 @@ class JVMTypes {
       }
       @Override
       public Type visitDoubleType(DoubleType type, Void unused) {
+        // a nullable double is not boxed, null is encoded as RT.NULL_DOUBLE
         return DOUBLE_TYPE;
       }
       @Override
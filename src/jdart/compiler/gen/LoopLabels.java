@@ -0,0 +1,42 @@
+package jdart.compiler.gen;
+
+import org.objectweb.asm.Label;
+
+// the jump targets of an enclosing loop or labeled statement
+class LoopLabels {
+  private final /*maybenull*/LoopLabels parent;
+  private final /*maybenull*/String name;
+  private final Label breakLabel;
+  private final /*maybenull*/Label continueLabel;  // null if not a loop
+
+  public LoopLabels(/*maybenull*/LoopLabels parent, /*maybenull*/String name, Label breakLabel, /*maybenull*/Label continueLabel) {
+    this.parent = parent;
+    this.name = name;
+    this.breakLabel = breakLabel;
+    this.continueLabel = continueLabel;
+  }
+
+  /**
+   * Returns the label of the end of the innermost loop or of the statement with the given name.
+   */
+  public Label getBreakLabel(/*maybenull*/String targetName) {
+    for(LoopLabels labels = this; labels != null; labels = labels.parent) {
+      if ((targetName == null)? labels.continueLabel != null: targetName.equals(labels.name)) {
+        return labels.breakLabel;
+      }
+    }
+    throw new IllegalStateException("no break target " + targetName);
+  }
+
+  /**
+   * Returns the label of the next iteration of the innermost loop or of the loop with the given name.
+   */
+  public Label getContinueLabel(/*maybenull*/String targetName) {
+    for(LoopLabels labels = this; labels != null; labels = labels.parent) {
+      if (labels.continueLabel != null && (targetName == null || targetName.equals(labels.name))) {
+        return labels.continueLabel;
+      }
+    }
+    throw new IllegalStateException("no continue target " + targetName);
+  }
+}
@@ -4,7 +4,9 @@ import java.util.ArrayList;
 
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.VarInsnNode;
 
 public class MethodRecorder extends MethodNode {
   public MethodRecorder() {
@@ -30,6 +32,15 @@ public class MethodRecorder extends MethodNode {
     }
   }
   
+  public boolean usesLocal(int slot) {
+    for(AbstractInsnNode insn = instructions.getFirst(); insn != null; insn = insn.getNext()) {
+      if (insn instanceof VarInsnNode && ((VarInsnNode)insn).var == slot) {
+        return true;
+      }
+    }
+    return false;
+  }
+  
   @Override
   public void visitCode() {
     throw new IllegalStateException("recorder doesn't allow that");
@@ -0,0 +1,267 @@
+package jdart.compiler.gen;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import com.google.dart.compiler.Source;
+import com.google.dart.compiler.ast.DartUnit;
+
+/**
+ * An on-disk cache of the classes generated for a whole program,
+ * reused only if the program is compiled again unchanged.
+ *
+ * The key of a program is a SHA-256 hash of the sources of all its units,
+ * of the options of the type flow and of the generator and of the compiler itself
+ * (the jar or the directory of classes it is loaded from).
+ * A change in any unit, including an edit of a single file, misses the cache,
+ * and the front end (parsing, resolution and class hierarchy analysis of the program
+ * and of the SDK libraries) always runs, only the type flow and the generation are skipped.
+ *
+ * The classes of a program are stored in a zip file named by the key,
+ * written atomically so several compilers can share the same directory.
+ */
+public class ProgramCache {
+  private static final String CACHE_PROPERTY = "jdart.programCache";
+
+  private final Path directory;
+
+  public ProgramCache(Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Returns the cache whose directory is specified by the system property jdart.programCache,
+   * or null if the property is not set or if the compiler can not be identified.
+   */
+  public static /*maybenull*/ProgramCache fromSystemProperties() {
+    String directory = System.getProperty(CACHE_PROPERTY);
+    if (directory == null || CompilerIdentity.VALUE == null) {
+      return null;
+    }
+    return new ProgramCache(Paths.get(directory));
+  }
+
+  // computed once, and only if the cache is used
+  private static class CompilerIdentity {
+    static final /*maybenull*/String VALUE = computeCompilerIdentity();
+  }
+
+  // a hash of the jar or of the class files of the compiler, so the classes generated
+  // by another version of the compiler are never reused, null if the code source is unknown
+  private static /*maybenull*/String computeCompilerIdentity() {
+    CodeSource codeSource = ProgramCache.class.getProtectionDomain().getCodeSource();
+    if (codeSource == null || codeSource.getLocation() == null) {
+      return null;
+    }
+    try {
+      final Path location = Paths.get(codeSource.getLocation().toURI());
+      final MessageDigest digest = newDigest();
+      if (!Files.isDirectory(location)) {
+        digest.update(Files.readAllBytes(location));
+        return toHexString(digest.digest());
+      }
+
+      final ArrayList<Path> classFiles = new ArrayList<>();
+      Files.walkFileTree(location, new SimpleFileVisitor<Path>() {
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+          if (file.toString().endsWith(".class")) {
+            classFiles.add(file);
+          }
+          return FileVisitResult.CONTINUE;
+        }
+      });
+      // the order of a directory listing is not specified
+      Collections.sort(classFiles);
+      for(Path classFile: classFiles) {
+        update(digest, location.relativize(classFile).toString());
+        digest.update(Files.readAllBytes(classFile));
+      }
+      return toHexString(digest.digest());
+    } catch (IOException | URISyntaxException | IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private static String toHexString(byte[] bytes) {
+    StringBuilder builder = new StringBuilder();
+    for(byte b: bytes) {
+      builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Computes the key of a program from the sources of its units, the generator options,
+   * the jdart.flow system properties (the options of the type flow) and the identity of the compiler.
+   *
+   * @param units all the units of the program.
+   * @param options the options of the generator.
+   * @return a hexadecimal SHA-256 hash.
+   * @throws IOException if a source can not be read or if the compiler can not be identified.
+   */
+  public static String computeKey(Collection<DartUnit> units, GenOptions options) throws IOException {
+    HashMap<String, String> sourceMap = new HashMap<>();
+    for(DartUnit unit: units) {
+      Source source = unit.getSourceInfo().getSource();
+      sourceMap.put(unit.getSourceName(), (source == null)? "": readSource(source));
+    }
+    return computeKey(sourceMap, options);
+  }
+
+  /**
+   * Computes the key of a program from the text of its units, the generator options,
+   * the jdart.flow system properties (the options of the type flow) and the identity of the compiler.
+   *
+   * @param sourceMap the source of each unit of the program by source name.
+   * @param options the options of the generator.
+   * @return a hexadecimal SHA-256 hash.
+   * @throws IOException if the compiler can not be identified.
+   */
+  static String computeKey(Map<String, String> sourceMap, GenOptions options) throws IOException {
+    String compilerIdentity = CompilerIdentity.VALUE;
+    if (compilerIdentity == null) {
+      throw new IOException("the code source of the compiler is unknown");
+    }
+    MessageDigest digest = newDigest();
+    update(digest, compilerIdentity);
+    update(digest, options.toString());
+
+    TreeMap<String, String> propertyMap = new TreeMap<>();
+    Properties properties = System.getProperties();
+    for(String name: properties.stringPropertyNames()) {
+      if (name.startsWith("jdart.flow.")) {
+        propertyMap.put(name, properties.getProperty(name));
+      }
+    }
+    for(Entry<String, String> entry: propertyMap.entrySet()) {
+      update(digest, entry.getKey());
+      update(digest, entry.getValue());
+    }
+
+    // the order of the units depends on the order of the analysis
+    for(Entry<String, String> entry: new TreeMap<>(sourceMap).entrySet()) {
+      update(digest, entry.getKey());
+      update(digest, entry.getValue());
+    }
+
+    return toHexString(digest.digest());
+  }
+
+  private static void update(MessageDigest digest, String text) {
+    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+    // the length avoids collisions between concatenations
+    int length = bytes.length;
+    digest.update(new byte[] { (byte)(length >>> 24), (byte)(length >>> 16), (byte)(length >>> 8), (byte)length });
+    digest.update(bytes);
+  }
+
+  private static String readSource(Source source) throws IOException {
+    StringBuilder builder = new StringBuilder();
+    char[] buffer = new char[8192];
+    try(Reader reader = source.getSourceReader()) {
+      int read;
+      while((read = reader.read(buffer)) != -1) {
+        builder.append(buffer, 0, read);
+      }
+    }
+    return builder.toString();
+  }
+
+  private Path path(String key) {
+    return directory.resolve(key + ".zip");
+  }
+
+  /**
+   * Returns the classes stored with a key.
+   *
+   * @param key the key of a program.
+   * @return the bytecode of the classes by internal name or null if the cache has no entry for the key.
+   * @throws IOException if the entry can not be read.
+   */
+  public /*maybenull*/Map<String, byte[]> get(String key) throws IOException {
+    Path path = path(key);
+    if (!Files.exists(path)) {
+      return null;
+    }
+    LinkedHashMap<String, byte[]> classMap = new LinkedHashMap<>();
+    try(ZipInputStream input = new ZipInputStream(Files.newInputStream(path))) {
+      ZipEntry entry;
+      while((entry = input.getNextEntry()) != null) {
+        String name = entry.getName();
+        classMap.put(name.substring(0, name.length() - ".class".length()), readFully(input));
+      }
+    }
+    return classMap;
+  }
+
+  private static byte[] readFully(InputStream input) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    byte[] buffer = new byte[8192];
+    int read;
+    while((read = input.read(buffer)) != -1) {
+      output.write(buffer, 0, read);
+    }
+    return output.toByteArray();
+  }
+
+  /**
+   * Stores the classes of a program, an existing entry is replaced.
+   *
+   * @param key the key of the program.
+   * @param classMap the bytecode of the classes by internal name.
+   * @throws IOException if the entry can not be written.
+   */
+  public void put(String key, Map<String, byte[]> classMap) throws IOException {
+    Files.createDirectories(directory);
+    Path temporary = Files.createTempFile(directory, key, ".tmp");
+    try {
+      try(OutputStream output = Files.newOutputStream(temporary);
+          ZipOutputStream zipOutput = new ZipOutputStream(output)) {
+        for(Entry<String, byte[]> entry: classMap.entrySet()) {
+          zipOutput.putNextEntry(new ZipEntry(entry.getKey() + ".class"));
+          zipOutput.write(entry.getValue());
+          zipOutput.closeEntry();
+        }
+      }
+      Files.move(temporary, path(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+}
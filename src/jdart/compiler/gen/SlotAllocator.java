@@ -0,0 +1,83 @@
+package jdart.compiler.gen;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import org.objectweb.asm.Type;
+
+// allocates the local variable slots of a method,
+// the temporaries of a statement are released at the end of the statement and
+// the variables declared in a block at the end of the block,
+// a released slot is reused by a variable with the same JVM type.
+class SlotAllocator {
+  private int slotCount;
+  private final ArrayList<Var> allocatedVars = new ArrayList<>();  // in allocation order
+  private final HashSet<Var> declaredVarSet = new HashSet<>();
+  private final HashMap<Type, ArrayDeque<Integer>> freeSlotMap = new HashMap<>();
+
+  public SlotAllocator(int slotCount) {
+    this.slotCount = slotCount;
+  }
+
+  public Var newVar(Type type) {
+    ArrayDeque<Integer> freeSlots = freeSlotMap.get(type);
+    int slot;
+    if (freeSlots != null && !freeSlots.isEmpty()) {
+      slot = freeSlots.pop();
+    } else {
+      slot = slotCount;
+      slotCount += type.getSize();
+    }
+    Var var = new Var(type, slot);
+    allocatedVars.add(var);
+    return var;
+  }
+
+  /**
+   * Marks a variable as a declared variable, not released at the end of the statement.
+   */
+  public void declare(Var var) {
+    declaredVarSet.add(var);
+  }
+
+  /**
+   * Returns a mark to release the variables allocated after this call.
+   */
+  public int mark() {
+    return allocatedVars.size();
+  }
+
+  /**
+   * Releases the temporaries allocated after the mark, declared variables are kept.
+   */
+  public void releaseTemporaries(int mark) {
+    release(mark, false);
+  }
+
+  /**
+   * Releases all the variables allocated after the mark.
+   */
+  public void releaseAll(int mark) {
+    release(mark, true);
+  }
+
+  private void release(int mark, boolean all) {
+    for(int i = allocatedVars.size(); --i >= mark;) {
+      Var var = allocatedVars.get(i);
+      if (!all && declaredVarSet.contains(var)) {
+        continue;
+      }
+      allocatedVars.remove(i);
+      declaredVarSet.remove(var);
+      Type type = var.getType();
+      ArrayDeque<Integer> freeSlots = freeSlotMap.get(type);
+      if (freeSlots == null) {
+        freeSlots = new ArrayDeque<>();
+        freeSlotMap.put(type, freeSlots);
+      }
+      freeSlots.push(var.getSlot());
+    }
+  }
+}
@@ -14,17 +14,17 @@ public class CoreTypeRepository extends TypeRepository {
   public final static BoolType TRUE_TYPE = new BoolType(false, true);
   public final static BoolType FALSE_TYPE = new BoolType(false, false);
 
-  public final static IntType INT_TYPE = new IntType(true, null, null);
-  public final static IntType INT_NON_NULL_TYPE = new IntType(false, null, null);
-  public final static IntType INT32_TYPE = new IntType(false, BigInteger.valueOf(Integer.MIN_VALUE), BigInteger.valueOf(Integer.MAX_VALUE));
-  public final static IntType POSITIVE_INT32_TYPE = new IntType(false, BigInteger.ZERO, BigInteger.valueOf(Integer.MAX_VALUE));
-  public final static IntType NEGATIVE_INT32_TYPE = new IntType(false, BigInteger.valueOf(Integer.MIN_VALUE), BigInteger.ZERO);
+  public final static IntType INT_TYPE = IntType.valueOf(true, null, null);
+  public final static IntType INT_NON_NULL_TYPE = IntType.valueOf(false, null, null);
+  public final static IntType INT32_TYPE = IntType.valueOf(false, BigInteger.valueOf(Integer.MIN_VALUE), BigInteger.valueOf(Integer.MAX_VALUE));
+  public final static IntType POSITIVE_INT32_TYPE = IntType.valueOf(false, BigInteger.ZERO, BigInteger.valueOf(Integer.MAX_VALUE));
+  public final static IntType NEGATIVE_INT32_TYPE = IntType.valueOf(false, BigInteger.valueOf(Integer.MIN_VALUE), BigInteger.ZERO);
   
- /* public final static IntType POSITIVE_INT32 = new IntType(true, BigInteger.ZERO, BigInteger.valueOf((((long) 1) << 32) - 1));
-  public final static IntType NEGATIVE_INT32 = new IntType(true, BigInteger.valueOf(- ((((long) 1) << 32) - 1)), BigInteger.ZERO);*/
+ /* public final static IntType POSITIVE_INT32 = IntType.valueOf(true, BigInteger.ZERO, BigInteger.valueOf((((long) 1) << 32) - 1));
+  public final static IntType NEGATIVE_INT32 = IntType.valueOf(true, BigInteger.valueOf(- ((((long) 1) << 32) - 1)), BigInteger.ZERO);*/
 
-  public final static DoubleType DOUBLE_TYPE = new DoubleType(true, null);
-  public final static DoubleType DOUBLE_NON_NULL_TYPE = new DoubleType(false, null);
+  public final static DoubleType DOUBLE_TYPE = DoubleType.valueOf(true, null);
+  public final static DoubleType DOUBLE_NON_NULL_TYPE = DoubleType.valueOf(false, null);
 
   public final static VoidType VOID_TYPE = new VoidType();
 
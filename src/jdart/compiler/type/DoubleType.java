@@ -11,13 +11,17 @@ import com.google.dart.compiler.resolver.ClassElement;
 public class DoubleType extends PrimitiveType implements NumType {
   private final Double constant;
 
-  DoubleType(boolean isNullable, Double constant) {
+  private DoubleType(boolean isNullable, Double constant) {
     super(isNullable);
     this.constant = constant;
   }
 
+  static DoubleType valueOf(boolean isNullable, /* maybenull */Double constant) {
+    return TypeCache.intern(new DoubleType(isNullable, constant));
+  }
+
   public static DoubleType constant(double constant) {
-    return new DoubleType(false, constant);
+    return valueOf(false, constant);
   }
 
   @Override
@@ -60,7 +64,7 @@ public class DoubleType extends PrimitiveType implements NumType {
     if (constant == null) {
       return DOUBLE_TYPE;
     }
-    return new DoubleType(true, constant);
+    return valueOf(true, constant);
   }
 
   @Override
@@ -71,7 +75,7 @@ public class DoubleType extends PrimitiveType implements NumType {
     if (constant == null) {
       return DOUBLE_NON_NULL_TYPE;
     }
-    return new DoubleType(false, constant);
+    return valueOf(false, constant);
   }
 
   @Override
@@ -120,6 +124,17 @@ public class DoubleType extends PrimitiveType implements NumType {
 
   @Override
   public Type commonValuesWith(Type type) {
+    return COMMON_VALUES_WITH.apply(this, type);
+  }
+
+  private static final TypeCache.Operation COMMON_VALUES_WITH = new TypeCache.Operation() {
+    @Override
+    Type compute(Type type1, Type type2) {
+      return ((DoubleType) type1).computeCommonValuesWith(type2);
+    }
+  };
+
+  private Type computeCommonValuesWith(Type type) {
     if (type instanceof DoubleType) {
       return (constant.equals(((DoubleType) type).constant)) ? this : null;
     }
@@ -268,6 +283,17 @@ public class DoubleType extends PrimitiveType implements NumType {
   
   @Override
   public Type exclude(Type other) {
+    return EXCLUDE.apply(this, other);
+  }
+
+  private static final TypeCache.Operation EXCLUDE = new TypeCache.Operation() {
+    @Override
+    Type compute(Type type1, Type type2) {
+      return ((DoubleType) type1).computeExclude(type2);
+    }
+  };
+
+  private Type computeExclude(Type other) {
     if (other instanceof DoubleType) {
       if (Objects.equals(constant, other.asConstant())) {
         return null;
@@ -296,11 +322,22 @@ public class DoubleType extends PrimitiveType implements NumType {
 
   public Type mod(DoubleType other) {
     Double value = new Double(constant.floatValue() % other.constant.floatValue());
-    return new DoubleType(false, value);
+    return valueOf(false, value);
   }
 
   @Override
   public Type add(Type other) {
+    return ADD.apply(this, other);
+  }
+
+  private static final TypeCache.Operation ADD = new TypeCache.Operation() {
+    @Override
+    Type compute(Type type1, Type type2) {
+      return ((DoubleType) type1).computeAdd(type2);
+    }
+  };
+
+  private Type computeAdd(Type other) {
     if (other instanceof IntType) {
       DoubleType dType = ((IntType) other).asDouble();
       return add(dType);
@@ -315,6 +352,17 @@ public class DoubleType extends PrimitiveType implements NumType {
 
   @Override
   public Type sub(Type other) {
+    return SUB.apply(this, other);
+  }
+
+  private static final TypeCache.Operation SUB = new TypeCache.Operation() {
+    @Override
+    Type compute(Type type1, Type type2) {
+      return ((DoubleType) type1).computeSub(type2);
+    }
+  };
+
+  private Type computeSub(Type other) {
     if (other instanceof IntType) {
       DoubleType dType = ((IntType) other).asDouble();
       return sub(dType);
@@ -383,10 +431,10 @@ public class DoubleType extends PrimitiveType implements NumType {
       BigDecimal bigDecValue = BigDecimal.valueOf(constant);
       try {
         BigInteger bigIntValue = bigDecValue.toBigIntegerExact();
-        iType = new IntType(isNullable(), bigIntValue, bigIntValue);
+        iType = IntType.valueOf(isNullable(), bigIntValue, bigIntValue);
       } catch (ArithmeticException e) {
         BigInteger bigIntValue = bigDecValue.toBigInteger();
-        iType = new IntType(isNullable(), bigIntValue, bigIntValue.add(BigInteger.ONE));
+        iType = IntType.valueOf(isNullable(), bigIntValue, bigIntValue.add(BigInteger.ONE));
       }
 
       return iType.isIncludeIn(other);
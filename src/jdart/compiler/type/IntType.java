@@ -12,7 +12,13 @@ public class IntType extends PrimitiveType implements NumType {
   private final BigInteger minBound;
   private final BigInteger maxBound;
 
-  IntType(boolean nullable, /* maybenull */BigInteger minBound, /* maybenull */
+  // the bounds as long, only valid if longBounds is true,
+  // an infinite bound is represented by null in minBound/maxBound
+  private final boolean longBounds;
+  private final long min;
+  private final long max;
+
+  private IntType(boolean nullable, /* maybenull */BigInteger minBound, /* maybenull */
       BigInteger maxBound) {
     super(nullable);
 
@@ -25,18 +31,37 @@ public class IntType extends PrimitiveType implements NumType {
     this.minBound = minBound;
     this.maxBound = (Objects.equals(minBound, maxBound)) ? minBound : maxBound;
     // be sure that if the type is constant min == max
+
+    this.longBounds = isLong(minBound) && isLong(maxBound);
+    this.min = (minBound == null) ? 0 : minBound.longValue();
+    this.max = (maxBound == null) ? 0 : maxBound.longValue();
+  }
+
+  private static boolean isLong(/* maybenull */BigInteger bound) {
+    return bound == null || bound.bitLength() < 64;
+  }
+
+  static IntType valueOf(boolean nullable, /* maybenull */BigInteger minBound, /* maybenull */BigInteger maxBound) {
+    return TypeCache.intern(new IntType(nullable, minBound, maxBound));
   }
 
   public static IntType constant(BigInteger constant) {
     Objects.requireNonNull(constant);
-    return new IntType(false, constant, constant);
+    return valueOf(false, constant, constant);
   }
 
   @Override
   public int hashCode() {
+    if (longBounds) {
+      return (isNullable() ? 1 : 0) ^ longHashCode(minBound, min) ^ Integer.rotateLeft(longHashCode(maxBound, max), 16);
+    }
     return (isNullable() ? 1 : 0) ^ Objects.hashCode(minBound) ^ Integer.rotateLeft(Objects.hashCode(maxBound), 16);
   }
 
+  private static int longHashCode(/* maybenull */BigInteger bound, long value) {
+    return (bound == null) ? 0 : (int) (value ^ (value >>> 32));
+  }
+
   @Override
   public boolean equals(Object obj) {
     if (this == obj) {
@@ -46,6 +71,11 @@ public class IntType extends PrimitiveType implements NumType {
       return false;
     }
     IntType intType = (IntType) obj;
+    if (longBounds && intType.longBounds) {
+      return isNullable() == intType.isNullable() &&
+          (minBound == null) == (intType.minBound == null) && min == intType.min &&
+          (maxBound == null) == (intType.maxBound == null) && max == intType.max;
+    }
     return isNullable() == intType.isNullable() && Objects.equals(minBound, intType.minBound) && Objects.equals(maxBound, intType.maxBound);
   }
 
@@ -97,7 +127,7 @@ public class IntType extends PrimitiveType implements NumType {
     if (minBound == null && maxBound == null) {
       return INT_TYPE;
     }
-    return new IntType(true, minBound, maxBound);
+    return valueOf(true, minBound, maxBound);
   }
 
   @Override
@@ -108,7 +138,7 @@ public class IntType extends PrimitiveType implements NumType {
     if (minBound == null && maxBound == null) {
       return INT_NON_NULL_TYPE;
     }
-    return new IntType(false, minBound, maxBound);
+    return valueOf(false, minBound, maxBound);
   }
 
   @Override
@@ -161,7 +191,7 @@ public class IntType extends PrimitiveType implements NumType {
     if (min == null && max == null) {
       return (isNullable()) ? INT_TYPE : INT_NON_NULL_TYPE;
     }
-    return new IntType(nullable, min, max);
+    return valueOf(nullable, min, max);
   }
 
   @Override
@@ -182,7 +212,7 @@ public class IntType extends PrimitiveType implements NumType {
       if (minBound != null && value.compareTo(minBound) < 0) {
         return null;
       }
-      return new IntType(isNullable(), minBound, value);
+      return valueOf(isNullable(), minBound, value);
     }
     return this;
   }
@@ -204,7 +234,7 @@ public class IntType extends PrimitiveType implements NumType {
       if (maxBound != null && value.compareTo(maxBound) > 0) {
         return null;
       }
-      return new IntType(isNullable(), value, maxBound);
+      return valueOf(isNullable(), value, maxBound);
     }
     return this;
   }
@@ -218,15 +248,48 @@ public class IntType extends PrimitiveType implements NumType {
   }
 
   public IntType addInt(IntType type) {
+    if (longBounds && type.longBounds) {
+      try {
+        boolean minInfinity = this.minBound == null | type.minBound == null;
+        boolean maxInfinity = this.maxBound == null | type.maxBound == null;
+        if (minInfinity && maxInfinity) {
+          return INT_NON_NULL_TYPE;
+        }
+        return valueOf(false,
+            minInfinity ? null : BigInteger.valueOf(addExact(min, type.min)),
+            maxInfinity ? null : BigInteger.valueOf(addExact(max, type.max)));
+      } catch(ArithmeticException e) {
+        // a bound doesn't fit in a long, use BigInteger
+      }
+    }
     BigInteger minBound = (this.minBound == null | type.minBound == null) ? null : this.minBound.add(type.minBound);
     BigInteger maxBound = (this.maxBound == null | type.maxBound == null) ? null : this.maxBound.add(type.maxBound);
     if (minBound == null && maxBound == null) {
       return INT_NON_NULL_TYPE;
     }
-    return new IntType(false, minBound, maxBound);
+    return valueOf(false, minBound, maxBound);
   }
 
   public IntType subInt(IntType type) {
+    if (longBounds && type.longBounds) {
+      try {
+        boolean minInfinity = this.minBound == null | type.minBound == null;
+        boolean maxInfinity = this.maxBound == null | type.maxBound == null;
+        if (minInfinity && maxInfinity) {
+          return INT_NON_NULL_TYPE;
+        }
+        long minBound = minInfinity ? 0 : subtractExact(min, type.min);
+        long maxBound = maxInfinity ? 0 : subtractExact(max, type.max);
+        if (!minInfinity && !maxInfinity && minBound > maxBound) {
+          return valueOf(false, BigInteger.valueOf(maxBound), BigInteger.valueOf(minBound));
+        }
+        return valueOf(false,
+            minInfinity ? null : BigInteger.valueOf(minBound),
+            maxInfinity ? null : BigInteger.valueOf(maxBound));
+      } catch(ArithmeticException e) {
+        // a bound doesn't fit in a long, use BigInteger
+      }
+    }
     BigInteger minBound = (this.minBound == null | type.minBound == null) ? null : this.minBound.subtract(type.minBound);
     BigInteger maxBound = (this.maxBound == null | type.maxBound == null) ? null : this.maxBound.subtract(type.maxBound);
     if (minBound == null && maxBound == null) {
@@ -234,21 +297,75 @@ public class IntType extends PrimitiveType implements NumType {
     }
     
     if (maxBound != null && minBound != null && minBound.compareTo(maxBound) > 0) {
-      return new IntType(false, maxBound, minBound);
+      return valueOf(false, maxBound, minBound);
     }
-    return new IntType(false, minBound, maxBound);
+    return valueOf(false, minBound, maxBound);
   }
 
   public IntType mul(IntType type) {
+    return (IntType) MUL.apply(this, type);
+  }
+
+  private static final TypeCache.Operation MUL = new TypeCache.Operation() {
+    @Override
+    Type compute(Type type1, Type type2) {
+      return ((IntType) type1).computeMul((IntType) type2);
+    }
+  };
+
+  private IntType computeMul(IntType type) {
+    if (longBounds && type.longBounds &&
+        this.minBound != null && type.minBound != null && this.maxBound != null && type.maxBound != null) {
+      try {
+        long minBound = multiplyExact(min, type.min);
+        long maxBound = multiplyExact(max, type.max);
+        if (minBound > maxBound) {
+          return valueOf(false, BigInteger.valueOf(maxBound), BigInteger.valueOf(minBound));
+        }
+        return valueOf(false, BigInteger.valueOf(minBound), BigInteger.valueOf(maxBound));
+      } catch(ArithmeticException e) {
+        // a bound doesn't fit in a long, use BigInteger
+      }
+    }
     BigInteger minBound = (this.minBound == null | type.minBound == null) ? null : this.minBound.multiply(type.minBound);
     BigInteger maxBound = (this.maxBound == null | type.maxBound == null) ? null : this.maxBound.multiply(type.maxBound);
     if (minBound == null && maxBound == null) {
       return INT_NON_NULL_TYPE;
     }
     if (minBound != null && minBound.compareTo(maxBound) > 0) {
-      return new IntType(false, maxBound, minBound);
+      return valueOf(false, maxBound, minBound);
+    }
+    return valueOf(false, minBound, maxBound);
+  }
+
+  // overflow checked arithmetic, see Math.addExact/subtractExact/multiplyExact of Java 8
+
+  private static long addExact(long x, long y) {
+    long r = x + y;
+    if (((x ^ r) & (y ^ r)) < 0) {
+      throw new ArithmeticException("long overflow");
+    }
+    return r;
+  }
+
+  private static long subtractExact(long x, long y) {
+    long r = x - y;
+    if (((x ^ y) & (x ^ r)) < 0) {
+      throw new ArithmeticException("long overflow");
+    }
+    return r;
+  }
+
+  private static long multiplyExact(long x, long y) {
+    long r = x * y;
+    long ax = Math.abs(x);
+    long ay = Math.abs(y);
+    if (((ax | ay) >>> 31 != 0)) {
+      if (((y != 0) && (r / y != x)) || (x == Long.MIN_VALUE && y == -1)) {
+        throw new ArithmeticException("long overflow");
+      }
     }
-    return new IntType(false, minBound, maxBound);
+    return r;
   }
 
   /**
@@ -282,9 +399,9 @@ public class IntType extends PrimitiveType implements NumType {
       return INT_NON_NULL_TYPE;
     }
     if (minBound != null && minBound.compareTo(maxBound) > 0) {
-      return new IntType(false, maxBound, minBound);
+      return valueOf(false, maxBound, minBound);
     }
-    return new IntType(false, minBound, maxBound);
+    return valueOf(false, minBound, maxBound);
   }
 
   public Type shiftLeft(IntType type) {
@@ -293,7 +410,7 @@ public class IntType extends PrimitiveType implements NumType {
     if (minBound == null && maxBound == null) {
       return INT_NON_NULL_TYPE;
     }
-    return new IntType(false, minBound, maxBound);
+    return valueOf(false, minBound, maxBound);
   }
 
   public Type shiftRight(IntType type) {
@@ -302,11 +419,22 @@ public class IntType extends PrimitiveType implements NumType {
     if (minBound == null && maxBound == null) {
       return INT_NON_NULL_TYPE;
     }
-    return new IntType(false, minBound, maxBound);
+    return valueOf(false, minBound, maxBound);
   }
 
   @Override
   public Type commonValuesWith(Type type) {
+    return COMMON_VALUES_WITH.apply(this, type);
+  }
+
+  private static final TypeCache.Operation COMMON_VALUES_WITH = new TypeCache.Operation() {
+    @Override
+    Type compute(Type type1, Type type2) {
+      return ((IntType) type1).computeCommonValuesWith(type2);
+    }
+  };
+
+  private Type computeCommonValuesWith(Type type) {
     if (type instanceof IntType) {
       return intersect(this, (IntType) type);
     }
@@ -317,7 +445,7 @@ public class IntType extends PrimitiveType implements NumType {
       BigDecimal bigDecValue = BigDecimal.valueOf(constant);
       try {
         BigInteger valueOfCst = bigDecValue.toBigIntegerExact();
-        return intersect(new IntType(isNullable() && type.isNullable(), valueOfCst, valueOfCst), this);
+        return intersect(valueOf(isNullable() && type.isNullable(), valueOfCst, valueOfCst), this);
       } catch (ArithmeticException e) {
         return null;
       }
@@ -352,9 +480,9 @@ public class IntType extends PrimitiveType implements NumType {
     case EQUALS:
       return type1;
     case FIRST_IS_LEFT_OVERLAP:
-      return new IntType(type1.isNullable() && type2.isNullable(), type2.minBound, type1.maxBound);
+      return valueOf(type1.isNullable() && type2.isNullable(), type2.minBound, type1.maxBound);
     case SECOND_IS_LEFT_OVERLAP:
-      return new IntType(type1.isNullable() && type2.isNullable(), type1.minBound, type2.maxBound);
+      return valueOf(type1.isNullable() && type2.isNullable(), type1.minBound, type2.maxBound);
     default:
     }
     throw new IllegalStateException();
@@ -376,6 +504,13 @@ public class IntType extends PrimitiveType implements NumType {
     BigInteger minBound2 = type2.minBound;
     BigInteger maxBound2 = type2.maxBound;
 
+    // compare the bounds as long if possible
+    boolean longBounds = type1.longBounds && type2.longBounds;
+    long min1 = type1.min;
+    long max1 = type1.max;
+    long min2 = type2.min;
+    long max2 = type2.max;
+
     if (minBound1 == null) {
       // ]-inf; ?] & [?; ?]
       if (minBound2 == null) {
@@ -395,7 +530,7 @@ public class IntType extends PrimitiveType implements NumType {
           return DiffResult.SECOND_CONTAINS_FIRST;
         }
         // ]-inf; j] & ]-inf; l]
-        int max1CompareToMax2 = maxBound1.compareTo(maxBound2);
+        int max1CompareToMax2 = compare(longBounds, maxBound1, max1, maxBound2, max2);
         if (max1CompareToMax2 < 0) {
           // ]-inf; j] & ]-inf; l] with j < l
           return DiffResult.SECOND_CONTAINS_FIRST;
@@ -418,7 +553,7 @@ public class IntType extends PrimitiveType implements NumType {
       // ]-inf; j] & [k; ?]
       if (maxBound2 == null) {
         // ]-inf; j] & [k; +inf[
-        int max1CompareToMin2 = maxBound1.compareTo(minBound2);
+        int max1CompareToMin2 = compare(longBounds, maxBound1, max1, minBound2, min2);
         if (max1CompareToMin2 < 0) {
           // ]-inf; j] & [k; +inf[ && j < k
           return DiffResult.FIRST_IS_LEFT;
@@ -427,8 +562,8 @@ public class IntType extends PrimitiveType implements NumType {
         return DiffResult.FIRST_IS_LEFT_OVERLAP;
       }
       // ]-inf; j] & [k; l]
-      int max1CompareToMin2 = maxBound1.compareTo(minBound2);
-      int max1CompareToMax2 = maxBound1.compareTo(maxBound2);
+      int max1CompareToMin2 = compare(longBounds, maxBound1, max1, minBound2, min2);
+      int max1CompareToMax2 = compare(longBounds, maxBound1, max1, maxBound2, max2);
       if (max1CompareToMax2 > 0) {
         // ]-inf; j] & [k; l] && j > l
         return DiffResult.FIRST_CONTAINS_SECOND;
@@ -457,7 +592,7 @@ public class IntType extends PrimitiveType implements NumType {
           return DiffResult.SECOND_IS_LEFT_OVERLAP;
         }
         // [i; +inf[ & ]-inf; l]
-        int min1CompareToMax2 = minBound1.compareTo(maxBound2);
+        int min1CompareToMax2 = compare(longBounds, minBound1, min1, maxBound2, max2);
         if (min1CompareToMax2 <= 0) {
           // [i; +inf[ & ]-inf; l] && i <= j
           return DiffResult.SECOND_IS_LEFT_OVERLAP;
@@ -466,7 +601,7 @@ public class IntType extends PrimitiveType implements NumType {
         return DiffResult.SECOND_IS_LEFT;
       }
       // [i; +inf[ & [k; ?]
-      int min1CompareToMin2 = minBound1.compareTo(minBound2);
+      int min1CompareToMin2 = compare(longBounds, minBound1, min1, minBound2, min2);
       if (min1CompareToMin2 < 0) {
         // [i; +inf[ & [k; ?] && i < k
         return DiffResult.FIRST_CONTAINS_SECOND;
@@ -476,7 +611,7 @@ public class IntType extends PrimitiveType implements NumType {
           // [i; +inf[ & [k; +inf[ && i == k
           return DiffResult.EQUALS;
         }
-        if (minBound1.compareTo(maxBound2) == 0) {
+        if (compare(longBounds, minBound1, min1, maxBound2, max2) == 0) {
           // [i; +inf[ & [k; ?] && i == k && i == l
           return DiffResult.SECOND_IS_LEFT_OVERLAP;
         }
@@ -489,7 +624,7 @@ public class IntType extends PrimitiveType implements NumType {
           return DiffResult.SECOND_CONTAINS_FIRST;
         }
         // [i; +inf[ & [k; l] && i > k
-        int min1CompareToMax2 = minBound1.compareTo(maxBound2);
+        int min1CompareToMax2 = compare(longBounds, minBound1, min1, maxBound2, max2);
         if (min1CompareToMax2 <= 0) {
           // [i; +inf[ & [k; l] && i > k && i <= l
           return DiffResult.SECOND_IS_LEFT_OVERLAP;
@@ -506,7 +641,7 @@ public class IntType extends PrimitiveType implements NumType {
         return DiffResult.SECOND_CONTAINS_FIRST;
       }
       // [i; j] & ]-inf; l]
-      int min1CompareToMax2 = minBound1.compareTo(maxBound2);
+      int min1CompareToMax2 = compare(longBounds, minBound1, min1, maxBound2, max2);
       if (min1CompareToMax2 > 0) {
         // [i; j] & ]-inf; l] && i > l
         return DiffResult.SECOND_IS_LEFT;
@@ -515,7 +650,7 @@ public class IntType extends PrimitiveType implements NumType {
         return DiffResult.SECOND_IS_LEFT_OVERLAP;
       } else {
         // [i; j] & ]-inf; l] && i < l
-        int max1CompareToMax2 = maxBound1.compareTo(maxBound2);
+        int max1CompareToMax2 = compare(longBounds, maxBound1, max1, maxBound2, max2);
         if (max1CompareToMax2 <= 0) {
           // [i; j] & ]-inf; l] && i < l && j <= l
           return DiffResult.SECOND_CONTAINS_FIRST;
@@ -526,8 +661,8 @@ public class IntType extends PrimitiveType implements NumType {
     }
     // [i; j] & [k; ?]
     if (maxBound2 == null) {
-      int min1CompareToMin2 = minBound1.compareTo(minBound2);
-      int max1CompareToMin2 = maxBound1.compareTo(minBound2);
+      int min1CompareToMin2 = compare(longBounds, minBound1, min1, minBound2, min2);
+      int max1CompareToMin2 = compare(longBounds, maxBound1, max1, minBound2, min2);
 
       if (max1CompareToMin2 < 0) {
         // [i; j] & [k; +inf[ && j < k
@@ -546,10 +681,10 @@ public class IntType extends PrimitiveType implements NumType {
       }
     }
     // [i; j] & [k; l]
-    int min1CompareToMin2 = minBound1.compareTo(minBound2);
-    int min1CompareToMax2 = minBound1.compareTo(maxBound2);
-    int max1CompareToMin2 = maxBound1.compareTo(minBound2);
-    int max1CompareToMax2 = maxBound1.compareTo(maxBound2);
+    int min1CompareToMin2 = compare(longBounds, minBound1, min1, minBound2, min2);
+    int min1CompareToMax2 = compare(longBounds, minBound1, min1, maxBound2, max2);
+    int max1CompareToMin2 = compare(longBounds, maxBound1, max1, minBound2, min2);
+    int max1CompareToMax2 = compare(longBounds, maxBound1, max1, maxBound2, max2);
 
     if (min1CompareToMin2 == 0 && max1CompareToMax2 == 0) {
       return DiffResult.EQUALS;
@@ -610,6 +745,13 @@ public class IntType extends PrimitiveType implements NumType {
     }
   }
 
+  private static int compare(boolean longBounds, BigInteger bound1, long value1, BigInteger bound2, long value2) {
+    if (longBounds && bound1 != null && bound2 != null) {
+      return Long.compare(value1, value2);
+    }
+    return bound1.compareTo(bound2);
+  }
+
   /**
    * Returns <code>true</code> if this type as common values with the specified
    * type.
@@ -635,6 +777,25 @@ public class IntType extends PrimitiveType implements NumType {
 
   @Override
   public Type lessThanOrEqualsValues(Type other, boolean inLoop) {
+    return LESS_THAN_OR_EQUALS_VALUES[inLoop ? 1 : 0].apply(this, other);
+  }
+
+  private static final TypeCache.Operation[] LESS_THAN_OR_EQUALS_VALUES = {
+    new TypeCache.Operation() {
+      @Override
+      Type compute(Type type1, Type type2) {
+        return ((IntType) type1).computeLessThanOrEqualsValues(type2, false);
+      }
+    },
+    new TypeCache.Operation() {
+      @Override
+      Type compute(Type type1, Type type2) {
+        return ((IntType) type1).computeLessThanOrEqualsValues(type2, true);
+      }
+    }
+  };
+
+  private Type computeLessThanOrEqualsValues(Type other, boolean inLoop) {
     if (other instanceof IntType) {
       IntType iType = (IntType) other;
       BigInteger cst = asConstant();
@@ -660,7 +821,7 @@ public class IntType extends PrimitiveType implements NumType {
           //$FALL-THROUGH$
         case FIRST_IS_LEFT_OVERLAP:
         case FIRST_CONTAINS_SECOND:
-          return new IntType(false, minBound, oCst);
+          return valueOf(false, minBound, oCst);
         default:
           throw new IllegalStateException();
         }
@@ -679,7 +840,7 @@ public class IntType extends PrimitiveType implements NumType {
           if (!inLoop) {
             return this.asNonNull();
           }
-          return new IntType(false, cst, iType.minBound);
+          return valueOf(false, cst, iType.minBound);
         default:
           throw new IllegalStateException();
         }
@@ -690,7 +851,7 @@ public class IntType extends PrimitiveType implements NumType {
         return constant(this.minBound).asNonNull();
       case FIRST_IS_LEFT:
         if (inLoop) {
-          return new IntType(false, minBound, iType.minBound);
+          return valueOf(false, minBound, iType.minBound);
         }
         return this;
       case SECOND_IS_LEFT:
@@ -699,7 +860,7 @@ public class IntType extends PrimitiveType implements NumType {
         return null;
       case FIRST_CONTAINS_SECOND:
       case FIRST_IS_LEFT_OVERLAP:
-        return new IntType(false, minBound, iType.minBound);
+        return valueOf(false, minBound, iType.minBound);
       default:
         return VOID_TYPE;
       }
@@ -723,6 +884,25 @@ public class IntType extends PrimitiveType implements NumType {
 
   @Override
   public Type lessThanValues(Type other, boolean inLoop) {
+    return LESS_THAN_VALUES[inLoop ? 1 : 0].apply(this, other);
+  }
+
+  private static final TypeCache.Operation[] LESS_THAN_VALUES = {
+    new TypeCache.Operation() {
+      @Override
+      Type compute(Type type1, Type type2) {
+        return ((IntType) type1).computeLessThanValues(type2, false);
+      }
+    },
+    new TypeCache.Operation() {
+      @Override
+      Type compute(Type type1, Type type2) {
+        return ((IntType) type1).computeLessThanValues(type2, true);
+      }
+    }
+  };
+
+  private Type computeLessThanValues(Type other, boolean inLoop) {
     if (other instanceof IntType) {
       IntType iType = (IntType) other;
       BigInteger cst = asConstant();
@@ -743,7 +923,7 @@ public class IntType extends PrimitiveType implements NumType {
           //$FALL-THROUGH$
         case FIRST_IS_LEFT_OVERLAP:
         case FIRST_CONTAINS_SECOND:
-          return new IntType(false, minBound, oCst.subtract(BigInteger.ONE));
+          return valueOf(false, minBound, oCst.subtract(BigInteger.ONE));
         default:
           throw new IllegalStateException();
         }
@@ -761,7 +941,7 @@ public class IntType extends PrimitiveType implements NumType {
           if (!inLoop) {
             return this.asNonNull();
           }
-          return new IntType(false, cst, iType.minBound.subtract(BigInteger.ONE));
+          return valueOf(false, cst, iType.minBound.subtract(BigInteger.ONE));
         default:
           throw new IllegalStateException();
         }
@@ -772,7 +952,7 @@ public class IntType extends PrimitiveType implements NumType {
         return null;
       case FIRST_IS_LEFT:
         if (inLoop) {
-          return new IntType(false, minBound, iType.minBound.subtract(BigInteger.ONE));
+          return valueOf(false, minBound, iType.minBound.subtract(BigInteger.ONE));
         }
         return this;
       case SECOND_IS_LEFT:
@@ -781,7 +961,7 @@ public class IntType extends PrimitiveType implements NumType {
         return null;
       case FIRST_CONTAINS_SECOND:
       case FIRST_IS_LEFT_OVERLAP:
-        return new IntType(false, minBound, iType.minBound.subtract(BigInteger.ONE));
+        return valueOf(false, minBound, iType.minBound.subtract(BigInteger.ONE));
       default:
         return VOID_TYPE;
       }
@@ -805,6 +985,25 @@ public class IntType extends PrimitiveType implements NumType {
 
   @Override
   public Type greaterThanOrEqualsValues(Type other, boolean inLoop) {
+    return GREATER_THAN_OR_EQUALS_VALUES[inLoop ? 1 : 0].apply(this, other);
+  }
+
+  private static final TypeCache.Operation[] GREATER_THAN_OR_EQUALS_VALUES = {
+    new TypeCache.Operation() {
+      @Override
+      Type compute(Type type1, Type type2) {
+        return ((IntType) type1).computeGreaterThanOrEqualsValues(type2, false);
+      }
+    },
+    new TypeCache.Operation() {
+      @Override
+      Type compute(Type type1, Type type2) {
+        return ((IntType) type1).computeGreaterThanOrEqualsValues(type2, true);
+      }
+    }
+  };
+
+  private Type computeGreaterThanOrEqualsValues(Type other, boolean inLoop) {
     if (other instanceof IntType) {
       IntType iType = (IntType) other;
       BigInteger cst = asConstant();
@@ -819,10 +1018,10 @@ public class IntType extends PrimitiveType implements NumType {
         case FIRST_IS_LEFT_OVERLAP:
           return iType;
         case FIRST_CONTAINS_SECOND:
-          return new IntType(false, oCst, maxBound);
+          return valueOf(false, oCst, maxBound);
         case SECOND_IS_LEFT:
           if (inLoop) {
-            return new IntType(false, oCst, maxBound);
+            return valueOf(false, oCst, maxBound);
           }
           //$FALL-THROUGH$
         case SECOND_IS_LEFT_OVERLAP:
@@ -841,7 +1040,7 @@ public class IntType extends PrimitiveType implements NumType {
           return null;
         case SECOND_IS_LEFT:
           if (inLoop) {
-            return new IntType(false, iType.maxBound, cst);
+            return valueOf(false, iType.maxBound, cst);
           }
           //$FALL-THROUGH$
         case SECOND_IS_LEFT_OVERLAP:
@@ -865,7 +1064,7 @@ public class IntType extends PrimitiveType implements NumType {
         //$FALL-THROUGH$
       case FIRST_CONTAINS_SECOND:
       case SECOND_IS_LEFT_OVERLAP:
-        return new IntType(false, iType.maxBound, maxBound);
+        return valueOf(false, iType.maxBound, maxBound);
       default:
         return VOID_TYPE;
       }
@@ -889,6 +1088,25 @@ public class IntType extends PrimitiveType implements NumType {
 
   @Override
   public Type greaterThanValues(Type other, boolean inLoop) {
+    return GREATER_THAN_VALUES[inLoop ? 1 : 0].apply(this, other);
+  }
+
+  private static final TypeCache.Operation[] GREATER_THAN_VALUES = {
+    new TypeCache.Operation() {
+      @Override
+      Type compute(Type type1, Type type2) {
+        return ((IntType) type1).computeGreaterThanValues(type2, false);
+      }
+    },
+    new TypeCache.Operation() {
+      @Override
+      Type compute(Type type1, Type type2) {
+        return ((IntType) type1).computeGreaterThanValues(type2, true);
+      }
+    }
+  };
+
+  private Type computeGreaterThanValues(Type other, boolean inLoop) {
     if (other instanceof IntType) {
       IntType iType = (IntType) other;
       BigInteger cst = asConstant();
@@ -903,14 +1121,14 @@ public class IntType extends PrimitiveType implements NumType {
         case FIRST_IS_LEFT_OVERLAP:
           return null;
         case FIRST_CONTAINS_SECOND:
-          return new IntType(false, oCst.add(BigInteger.ONE), maxBound);
+          return valueOf(false, oCst.add(BigInteger.ONE), maxBound);
         case SECOND_IS_LEFT:
           if (inLoop) {
-            return new IntType(false, oCst.add(BigInteger.ONE), maxBound);
+            return valueOf(false, oCst.add(BigInteger.ONE), maxBound);
           }
           return this;
         case SECOND_IS_LEFT_OVERLAP:
-          return new IntType(false, oCst.add(BigInteger.ONE), maxBound);
+          return valueOf(false, oCst.add(BigInteger.ONE), maxBound);
         default: // SECOND_CONTAINS_FIRST
         }
       }
@@ -925,7 +1143,7 @@ public class IntType extends PrimitiveType implements NumType {
           return null;
         case SECOND_IS_LEFT:
           if (inLoop) {
-            return new IntType(false, iType.maxBound.add(BigInteger.ONE), cst);
+            return valueOf(false, iType.maxBound.add(BigInteger.ONE), cst);
           }
           return this;
         default: // FIRST_CONTAINS_SECOND
@@ -948,7 +1166,7 @@ public class IntType extends PrimitiveType implements NumType {
         if (maxBound.equals(iType.maxBound)) {
           return null;
         }
-        return new IntType(false, iType.maxBound.add(BigInteger.ONE), maxBound);
+        return valueOf(false, iType.maxBound.add(BigInteger.ONE), maxBound);
       default:
         return VOID_TYPE;
       }
@@ -992,6 +1210,49 @@ public class IntType extends PrimitiveType implements NumType {
     }
   }
 
+  /**
+   * Returns the values of an induction variable of a loop, this type being the values of
+   * the variable before the loop. In the loop, the variable is only changed by adding
+   * the step at most once by iteration, and the loop continues while the variable is
+   * lesser than the bound (if the step is positive) or greater than the bound
+   * (if the step is negative).
+   *
+   * @param bound the values of the bound of the loop condition, the bound doesn't change in the loop.
+   * @param inclusive true if the loop condition also accepts the bound (<= or >=).
+   * @param step the constant added to the variable, must not be zero.
+   * @return the values of the variable in the loop or null if the variable and
+   *         the variable plus the step may not fit in an int32.
+   */
+  public /*maybenull*/IntType inductionValues(IntType bound, boolean inclusive, BigInteger step) {
+    if (minBound == null || maxBound == null) {
+      return null;
+    }
+    BigInteger min, max;
+    if (step.signum() > 0) {
+      if (bound.maxBound == null) {
+        return null;
+      }
+      // the variable is incremented only if the condition was true
+      BigInteger lastValue = (inclusive)? bound.maxBound: bound.maxBound.subtract(BigInteger.ONE);
+      min = minBound;
+      max = maxBound.max(lastValue).add(step);
+    } else {
+      if (bound.minBound == null) {
+        return null;
+      }
+      BigInteger lastValue = (inclusive)? bound.minBound: bound.minBound.add(BigInteger.ONE);
+      min = minBound.min(lastValue).add(step);
+      max = maxBound;
+    }
+
+    // the variable plus the step must fit too
+    IntType values = valueOf(false, min, max);
+    if (!values.isIncludeIn(INT32_TYPE) || !valueOf(false, min.add(step), max.add(step)).isIncludeIn(INT32_TYPE)) {
+      return null;
+    }
+    return values;
+  }
+
   @Override
   public Type unarySub() {
     BigInteger min;
@@ -1013,11 +1274,22 @@ public class IntType extends PrimitiveType implements NumType {
       return this;
     }
 
-    return new IntType(isNullable(), min, max);
+    return valueOf(isNullable(), min, max);
   }
 
   @Override
   public Type exclude(Type other) {
+    return EXCLUDE.apply(this, other);
+  }
+
+  private static final TypeCache.Operation EXCLUDE = new TypeCache.Operation() {
+    @Override
+    Type compute(Type type1, Type type2) {
+      return ((IntType) type1).computeExclude(type2);
+    }
+  };
+
+  private Type computeExclude(Type other) {
     if (other instanceof IntType) {
       return excludeInt((IntType) other);
     }
@@ -1060,17 +1332,17 @@ public class IntType extends PrimitiveType implements NumType {
       return this;
     case FIRST_IS_LEFT_OVERLAP:
       if (cst == null) {
-        return new IntType(false, minBound, iType.minBound.subtract(BigInteger.ONE));
+        return valueOf(false, minBound, iType.minBound.subtract(BigInteger.ONE));
       }
       return null;
     case SECOND_IS_LEFT_OVERLAP:
       if (cst == null && !maxBound.equals(iType.maxBound)) {
-        return new IntType(false, iType.maxBound.add(BigInteger.ONE), maxBound);
+        return valueOf(false, iType.maxBound.add(BigInteger.ONE), maxBound);
       }
       return null;
     case FIRST_CONTAINS_SECOND:
-      return Types.union(new IntType(false, minBound, iType.minBound.subtract(BigInteger.ONE)),
-          new IntType(false, iType.maxBound.add(BigInteger.ONE), maxBound));
+      return Types.union(valueOf(false, minBound, iType.minBound.subtract(BigInteger.ONE)),
+          valueOf(false, iType.maxBound.add(BigInteger.ONE), maxBound));
 
     default:
       throw new IllegalStateException();
@@ -1079,6 +1351,17 @@ public class IntType extends PrimitiveType implements NumType {
 
   @Override
   public Type add(Type other) {
+    return ADD.apply(this, other);
+  }
+
+  private static final TypeCache.Operation ADD = new TypeCache.Operation() {
+    @Override
+    Type compute(Type type1, Type type2) {
+      return ((IntType) type1).computeAdd(type2);
+    }
+  };
+
+  private Type computeAdd(Type other) {
     if (other instanceof IntType) {
       return addInt((IntType) other);
     }
@@ -1106,7 +1389,7 @@ public class IntType extends PrimitiveType implements NumType {
     if (other.maxBound != null && other.minBound != null) {
       BigInteger val = other.maxBound.subtract(BigInteger.ONE);
       if (BigInteger.ZERO.compareTo(val) < 0) {
-        return new IntType(false, BigInteger.ZERO, val);
+        return valueOf(false, BigInteger.ZERO, val);
       }
     }
     return DYNAMIC_TYPE;
@@ -1131,6 +1414,17 @@ public class IntType extends PrimitiveType implements NumType {
 
   @Override
   public Type sub(Type other) {
+    return SUB.apply(this, other);
+  }
+
+  private static final TypeCache.Operation SUB = new TypeCache.Operation() {
+    @Override
+    Type compute(Type type1, Type type2) {
+      return ((IntType) type1).computeSub(type2);
+    }
+  };
+
+  private Type computeSub(Type other) {
     if (other instanceof IntType) {
       return subInt((IntType) other);
     }
@@ -1189,12 +1483,12 @@ public class IntType extends PrimitiveType implements NumType {
       case SECOND_CONTAINS_FIRST:
         return true;
       case FIRST_IS_LEFT_OVERLAP:
-        if (iType.minBound.compareTo(minBound) <= 0) {
+        if (compare(longBounds && iType.longBounds, iType.minBound, iType.min, minBound, min) <= 0) {
           return true;
         }
         return false;
       case SECOND_IS_LEFT_OVERLAP:
-        if (iType.maxBound.compareTo(maxBound) >= 0) {
+        if (compare(longBounds && iType.longBounds, iType.maxBound, iType.max, maxBound, max) >= 0) {
           return true;
         }
         return false;
@@ -1237,10 +1531,10 @@ public class IntType extends PrimitiveType implements NumType {
       BigDecimal bigDec = BigDecimal.valueOf(dType.asConstant());
       try {
         BigInteger bigInt = bigDec.toBigIntegerExact();
-        other = new IntType(other.isNullable(), bigInt, bigInt);
+        other = valueOf(other.isNullable(), bigInt, bigInt);
       } catch (ArithmeticException e) {
         BigInteger bigInt = bigDec.toBigInteger();
-        other = new IntType(other.isNullable(), bigInt, bigInt.add(BigInteger.ONE));
+        other = valueOf(other.isNullable(), bigInt, bigInt.add(BigInteger.ONE));
       }
     }
 
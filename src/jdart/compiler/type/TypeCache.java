@@ -0,0 +1,154 @@
+package jdart.compiler.type;
+
+import static jdart.compiler.type.CoreTypeRepository.*;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns the int, double and union types and memoizes the results of
+ * the operations of the type lattice.
+ *
+ * Because the types are interned, equal types are most of the time the same instance
+ * so the lookups in the caches are cheap.
+ * A cache is owned by the {@link TypeRepository} of a compilation and is shared by
+ * the type flow analyses of that compilation, that may run concurrently.
+ * An analysis binds the cache to its thread with {@link TypeRepository#enterScope()},
+ * outside of a scope the types are neither interned nor memoized.
+ */
+final class TypeCache {
+  private static final ThreadLocal<TypeCache> CURRENT = new ThreadLocal<>();
+
+  private final ConcurrentHashMap<Object, Type> internMap = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Operands, Object> resultMap = new ConcurrentHashMap<>();
+
+  TypeCache() {
+    // the constants of the core repository are created outside of any cache,
+    // they are the canonical instances of their types
+    for(Type type: new Type[] { INT_TYPE, INT_NON_NULL_TYPE, INT32_TYPE, POSITIVE_INT32_TYPE, NEGATIVE_INT32_TYPE, DOUBLE_TYPE, DOUBLE_NON_NULL_TYPE }) {
+      internMap.put(type, type);
+    }
+  }
+
+  /**
+   * Binds a cache to the current thread.
+   *
+   * @param cache the cache to bind or null to unbind the current cache.
+   * @return the cache previously bound to the current thread or null.
+   */
+  static /*maybenull*/TypeCache bind(/*maybenull*/TypeCache cache) {
+    TypeCache previousCache = CURRENT.get();
+    if (cache == null) {
+      CURRENT.remove();
+    } else {
+      CURRENT.set(cache);
+    }
+    return previousCache;
+  }
+
+  /**
+   * Returns the canonical instance of a type.
+   *
+   * @param type a type.
+   * @return the first registered type equals to the type taken as argument.
+   */
+  static <T extends Type> T intern(T type) {
+    return intern(type, type);
+  }
+
+  /**
+   * Returns the canonical instance of a type.
+   *
+   * @param key the key identifying the type, used if the equals of the type is not precise enough.
+   * @param type a type.
+   * @return the first registered type with the same key.
+   */
+  @SuppressWarnings("unchecked")
+  static <T extends Type> T intern(Object key, T type) {
+    TypeCache cache = CURRENT.get();
+    if (cache == null) {
+      return type;
+    }
+    Type internedType = cache.internMap.putIfAbsent(key, type);
+    return (internedType == null) ? type : (T) internedType;
+  }
+
+  /**
+   * Returns the key used to intern a type.
+   * The memoized operations use the same key, so they agree with the interning
+   * on which types are equivalent.
+   *
+   * @param type a type.
+   * @return the key of the type.
+   */
+  private static Object keyOf(Type type) {
+    return (type instanceof UnionType) ? ((UnionType) type).getKey() : type;
+  }
+
+  /**
+   * A binary operation of the type lattice with a cache of its results.
+   */
+  abstract static class Operation {
+    /**
+     * Computes the result of the operation.
+     *
+     * @param type1 the first operand.
+     * @param type2 the second operand.
+     * @return the result of the operation, may be null.
+     */
+    abstract Type compute(Type type1, Type type2);
+
+    /**
+     * Returns the result of the operation, computed once by couple of operands
+     * by the cache bound to the current thread.
+     *
+     * @param type1 the first operand.
+     * @param type2 the second operand.
+     * @return the result of the operation, may be null.
+     */
+    final Type apply(Type type1, Type type2) {
+      TypeCache cache = CURRENT.get();
+      if (cache == null) {
+        return compute(type1, type2);
+      }
+      Operands operands = new Operands(this, keyOf(type1), keyOf(type2));
+      Object result = cache.resultMap.get(operands);
+      if (result == null) {
+        Type type = compute(type1, type2);
+        result = (type == null) ? NULL_RESULT : type;
+        Object previousResult = cache.resultMap.putIfAbsent(operands, result);
+        if (previousResult != null) {
+          result = previousResult;
+        }
+      }
+      return (result == NULL_RESULT) ? null : (Type) result;
+    }
+  }
+
+  private static final Object NULL_RESULT = new Object();
+
+  private static final class Operands {
+    private final Operation operation;
+    private final Object key1;
+    private final Object key2;
+
+    Operands(Operation operation, Object key1, Object key2) {
+      this.operation = operation;
+      this.key1 = key1;
+      this.key2 = key2;
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(operation) ^ key1.hashCode() ^ Integer.rotateLeft(key2.hashCode(), 16);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Operands)) {
+        return false;
+      }
+      Operands operands = (Operands) obj;
+      return operation == operands.operation && key1.equals(operands.key1) && key2.equals(operands.key2);
+    }
+  }
+}
@@ -7,16 +7,55 @@ import java.util.Map;
 import com.google.dart.compiler.resolver.ClassElement;
 import com.google.dart.compiler.resolver.MethodElement;
 
+/**
+ * Creates and caches the interface types and the function types.
+ * The repository also owns the cache of the int, double and union types
+ * and of the results of the operations of the type lattice,
+ * so these caches live as long as the compilation.
+ * 
+ * The type flow analyses of several profiles may run concurrently,
+ * so the lookup methods are synchronized.
+ */
 public class TypeRepository {
   private final/* maybenull */TypeRepository typeRepository;
   final HashMap<ClassElement, Type> map = new HashMap<>();
   private final HashMap<FunctionType, FunctionType> functionMap = new HashMap<>();
+  private final TypeCache typeCache = new TypeCache();
 
   public TypeRepository(/* maybenull */TypeRepository typeRepository) {
     this.typeRepository = typeRepository;
   }
 
-  public Type findType(boolean nullable, ClassElement element) {
+  /**
+   * A scope in which the types created by the current thread are cached
+   * by a repository.
+   * 
+   * @see TypeRepository#enterScope()
+   */
+  public static final class Scope implements AutoCloseable {
+    private final/* maybenull */TypeCache previousCache;
+
+    Scope(/* maybenull */TypeCache previousCache) {
+      this.previousCache = previousCache;
+    }
+
+    @Override
+    public void close() {
+      TypeCache.bind(previousCache);
+    }
+  }
+
+  /**
+   * Caches the types created by the current thread in this repository
+   * until the returned scope is closed.
+   * 
+   * @return the scope to close at the end of the analysis.
+   */
+  public Scope enterScope() {
+    return new Scope(TypeCache.bind(typeCache));
+  }
+
+  public synchronized Type findType(boolean nullable, ClassElement element) {
     if (typeRepository != null) {
       return typeRepository.findType(nullable, element);
     }
@@ -39,12 +78,12 @@ public class TypeRepository {
     return nullableType;
   }
 
-  public FunctionType findFunction(boolean nullable, Type returnType, List<Type> parameterTypes, Map<String, Type> namedParameterTypes, /*maybenull*/MethodElement methodElement) {
+  public synchronized FunctionType findFunction(boolean nullable, Type returnType, List<Type> parameterTypes, Map<String, Type> namedParameterTypes, /*maybenull*/MethodElement methodElement) {
     FunctionType key = new FunctionType(true, returnType, parameterTypes, namedParameterTypes, methodElement);
     return findFunction(nullable, key);
   }
 
-  private FunctionType findFunction(boolean nullable, FunctionType key) {
+  private synchronized FunctionType findFunction(boolean nullable, FunctionType key) {
     if (typeRepository != null) {
       FunctionType functionType = typeRepository.findFunction(nullable, key);
       if (functionType != null) {
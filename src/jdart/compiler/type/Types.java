@@ -13,7 +13,8 @@ import java.util.Objects;
 
 public class Types {
   public static boolean isCompatible(Type parameterType, Type argumentType) {
-    return argumentType.isIncludeIn(parameterType);
+    // types are interned, so equal types are often the same instance
+    return parameterType == argumentType || argumentType.isIncludeIn(parameterType);
   }
   
   public static boolean isCompatible(List<Type> parameterTypes, List<Type> argumentTypes) {
@@ -33,7 +34,19 @@ public class Types {
     if (type1 == VOID_TYPE || type2 == VOID_TYPE) {
       throw new IllegalArgumentException("void can not be a component of an union");
     }
-
+    if (type1 == type2) {
+      return type1;
+    }
+    return UNION.apply(type1, type2);
+  } // where
+  private static final TypeCache.Operation UNION = new TypeCache.Operation() {
+    @Override
+    Type compute(Type type1, Type type2) {
+      return computeUnion(type1, type2);
+    }
+  };
+  
+  private static Type computeUnion(Type type1, Type type2) {
     if (type1 == DYNAMIC_TYPE || type2 == DYNAMIC_TYPE) {
       return DYNAMIC_TYPE;
     }
@@ -14,10 +14,30 @@ import java.util.List;
 public class UnionType extends NullableType {
   // each component type should be non nullable and not a union type
   private final LinkedHashSet<NullableType> types;
+  private final List<Object> key;
 
   private UnionType(boolean nullable, LinkedHashSet<NullableType> types) {
     super(nullable);
     this.types = types;
+
+    // the order of the component types matters, so it's part of the key
+    ArrayList<Object> key = new ArrayList<>(types.size() + 1);
+    key.add(nullable);
+    key.addAll(types);
+    this.key = key;
+  }
+
+  private static UnionType valueOf(boolean nullable, LinkedHashSet<NullableType> types) {
+    UnionType unionType = new UnionType(nullable, types);
+    return TypeCache.intern(unionType.key, unionType);
+  }
+
+  /**
+   * Returns the key identifying the union type in the caches,
+   * unlike {@link #equals(Object)} the key takes the order of the component types into account.
+   */
+  List<Object> getKey() {
+    return key;
   }
 
   static UnionType createUnionType(NullableType type1, NullableType type2) {
@@ -37,12 +57,12 @@ public class UnionType extends NullableType {
       types.add(type1.asNonNull());
       types.add(type2.asNonNull());
     }
-    return new UnionType(nullable, types);
+    return valueOf(nullable, types);
   }
 
   @Override
   public int hashCode() {
-    return isNullable() ? 1 : 0 ^ types.hashCode();
+    return (isNullable() ? 1 : 0) ^ types.hashCode();
   }
 
   @Override
@@ -67,7 +87,7 @@ public class UnionType extends NullableType {
     if (isNullable()) {
       return this;
     }
-    return new UnionType(true, types);
+    return valueOf(true, types);
   }
 
   @Override
@@ -75,7 +95,7 @@ public class UnionType extends NullableType {
     if (!isNullable()) {
       return this;
     }
-    return new UnionType(false, types);
+    return valueOf(false, types);
   }
 
   @Override
@@ -165,7 +185,7 @@ public class UnionType extends NullableType {
       if (intInUnion) {
         newUnionSet = sortUnionSet(newUnionSet);
       }
-      return new UnionType(nullable, newUnionSet);
+      return valueOf(nullable, newUnionSet);
     }
   }
 
@@ -0,0 +1,81 @@
+package jdart.compiler.flow;
+
+import static jdart.compiler.type.CoreTypeRepository.*;
+import static jdart.compiler.type.IntTest.range;
+
+import java.util.Arrays;
+import java.util.List;
+
+import jdart.compiler.type.Type;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ProfilesTest {
+  private static ProfileInfo profile(Type returnType, List<Type> signature) {
+    return new ProfileInfo(returnType, signature, null, null, null);
+  }
+
+  @Test
+  public void exactSignature() {
+    Profiles profiles = new Profiles();
+    List<Type> signature = Arrays.<Type>asList(INT32_TYPE);
+    ProfileInfo profileInfo = profile(INT32_TYPE, signature);
+    profiles.register(signature, profileInfo);
+    Assert.assertSame(profileInfo, profiles.lookupForACompatibleProfile(Arrays.<Type>asList(INT32_TYPE)));
+  }
+
+  @Test
+  public void firstCompatibleSignature() {
+    Profiles profiles = new Profiles();
+    List<Type> signature1 = Arrays.<Type>asList(INT_NON_NULL_TYPE);
+    List<Type> signature2 = Arrays.<Type>asList(POSITIVE_INT32_TYPE);
+    ProfileInfo profileInfo1 = profile(INT_NON_NULL_TYPE, signature1);
+    profiles.register(signature1, profileInfo1);
+    profiles.register(signature2, profile(POSITIVE_INT32_TYPE, signature2));
+    List<Type> argumentTypes = Arrays.<Type>asList(range(false, 3, 5));
+    Assert.assertSame(profileInfo1, profiles.lookupForACompatibleProfile(argumentTypes));
+    Assert.assertSame(profileInfo1, profiles.lookupForACompatibleProfile(argumentTypes));
+  }
+
+  @Test
+  public void updatedProfile() {
+    Profiles profiles = new Profiles();
+    List<Type> signature = Arrays.<Type>asList(INT32_TYPE);
+    List<Type> argumentTypes = Arrays.<Type>asList(range(false, 3, 5));
+    profiles.register(signature, profile(INT32_TYPE, signature));
+    Assert.assertEquals(INT32_TYPE, profiles.lookupForACompatibleSignature(argumentTypes));
+    profiles.register(signature, profile(POSITIVE_INT32_TYPE, signature));
+    Assert.assertEquals(POSITIVE_INT32_TYPE, profiles.lookupForACompatibleSignature(argumentTypes));
+  }
+
+  @Test
+  public void noCompatibleSignature() {
+    Profiles profiles = new Profiles();
+    List<Type> signature1 = Arrays.<Type>asList(NEGATIVE_INT32_TYPE);
+    profiles.register(signature1, profile(INT32_TYPE, signature1));
+    List<Type> argumentTypes = Arrays.<Type>asList(range(false, 3, 5));
+    Assert.assertNull(profiles.lookupForACompatibleProfile(argumentTypes));
+
+    List<Type> signature2 = Arrays.<Type>asList(POSITIVE_INT32_TYPE);
+    ProfileInfo profileInfo2 = profile(POSITIVE_INT32_TYPE, signature2);
+    profiles.register(signature2, profileInfo2);
+    Assert.assertSame(profileInfo2, profiles.lookupForACompatibleProfile(argumentTypes));
+  }
+
+  @Test
+  public void unregisteredSignature() {
+    Profiles profiles = new Profiles();
+    List<Type> signature1 = Arrays.<Type>asList(POSITIVE_INT32_TYPE);
+    List<Type> signature2 = Arrays.<Type>asList(INT32_TYPE);
+    profiles.register(signature1, profile(POSITIVE_INT32_TYPE, signature1));
+    ProfileInfo profileInfo2 = profile(INT32_TYPE, signature2);
+    profiles.register(signature2, profileInfo2);
+    List<Type> argumentTypes = Arrays.<Type>asList(range(false, 3, 5));
+    Assert.assertEquals(POSITIVE_INT32_TYPE, profiles.lookupForACompatibleSignature(argumentTypes));
+
+    profiles.unregister(signature1);
+    Assert.assertSame(profileInfo2, profiles.lookupForACompatibleProfile(argumentTypes));
+    Assert.assertFalse(profiles.getSignatureMap().containsKey(signature1));
+  }
+}
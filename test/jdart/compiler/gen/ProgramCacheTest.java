@@ -0,0 +1,125 @@
+package jdart.compiler.gen;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import jdart.compiler.gen.GenOptions.BigReturn;
+import jdart.compiler.gen.GenOptions.OverflowCheck;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ProgramCacheTest {
+  private static final GenOptions OPTIONS = new GenOptions(OverflowCheck.EXCEPTION, BigReturn.EXCEPTION);
+
+  private static LinkedHashMap<String, String> sources(String... nameAndTexts) {
+    LinkedHashMap<String, String> sourceMap = new LinkedHashMap<>();
+    for(int i = 0; i < nameAndTexts.length; i += 2) {
+      sourceMap.put(nameAndTexts[i], nameAndTexts[i + 1]);
+    }
+    return sourceMap;
+  }
+
+  private static Path createTempDirectory() throws IOException {
+    Path directory = Files.createTempDirectory("programcache");
+    directory.toFile().deleteOnExit();
+    return directory;
+  }
+
+  @Test
+  public void putGet() throws IOException {
+    ProgramCache cache = new ProgramCache(createTempDirectory());
+    LinkedHashMap<String, byte[]> classMap = new LinkedHashMap<>();
+    classMap.put("foo/Bar", new byte[] { 1, 2, 3 });
+    classMap.put("Baz", new byte[0]);
+    cache.put("key", classMap);
+
+    Map<String, byte[]> cachedClassMap = cache.get("key");
+    Assert.assertEquals(classMap.keySet(), cachedClassMap.keySet());
+    for(Map.Entry<String, byte[]> entry: classMap.entrySet()) {
+      Assert.assertTrue(Arrays.equals(entry.getValue(), cachedClassMap.get(entry.getKey())));
+    }
+  }
+
+  @Test
+  public void getUnknownKey() throws IOException {
+    ProgramCache cache = new ProgramCache(createTempDirectory());
+    Assert.assertNull(cache.get("unknown"));
+  }
+
+  @Test
+  public void putReplaces() throws IOException {
+    ProgramCache cache = new ProgramCache(createTempDirectory());
+    LinkedHashMap<String, byte[]> classMap = new LinkedHashMap<>();
+    classMap.put("A", new byte[] { 1 });
+    cache.put("key", classMap);
+    classMap.put("A", new byte[] { 2 });
+    cache.put("key", classMap);
+    Assert.assertTrue(Arrays.equals(new byte[] { 2 }, cache.get("key").get("A")));
+  }
+
+  @Test
+  public void keyDoesNotDependOnUnitOrder() throws IOException {
+    Assert.assertEquals(
+        ProgramCache.computeKey(sources("a.dart", "main() {}", "b.dart", "foo() {}"), OPTIONS),
+        ProgramCache.computeKey(sources("b.dart", "foo() {}", "a.dart", "main() {}"), OPTIONS));
+  }
+
+  @Test
+  public void keyChangesWithSources() throws IOException {
+    String key = ProgramCache.computeKey(sources("a.dart", "main() {}"), OPTIONS);
+    Assert.assertFalse(key.equals(ProgramCache.computeKey(sources("a.dart", "main() { }"), OPTIONS)));
+    Assert.assertFalse(key.equals(ProgramCache.computeKey(sources("b.dart", "main() {}"), OPTIONS)));
+    // the name and the text of a unit are not concatenated
+    Assert.assertFalse(ProgramCache.computeKey(sources("a", "bc"), OPTIONS).equals(
+        ProgramCache.computeKey(sources("ab", "c"), OPTIONS)));
+  }
+
+  @Test
+  public void keyChangesWithOptions() throws IOException {
+    LinkedHashMap<String, String> sourceMap = sources("a.dart", "main() {}");
+    Assert.assertFalse(ProgramCache.computeKey(sourceMap, OPTIONS).equals(
+        ProgramCache.computeKey(sourceMap, new GenOptions(OverflowCheck.BRANCH, BigReturn.EXCEPTION))));
+    Assert.assertEquals(ProgramCache.computeKey(sourceMap, OPTIONS),
+        ProgramCache.computeKey(sourceMap, new GenOptions(OverflowCheck.EXCEPTION, BigReturn.EXCEPTION)));
+  }
+
+  @Test
+  public void keyChangesWithFlowProperties() throws IOException {
+    LinkedHashMap<String, String> sourceMap = sources("a.dart", "main() {}");
+    String name = "jdart.flow.programCacheTest";
+    String key = ProgramCache.computeKey(sourceMap, OPTIONS);
+    System.setProperty(name, "1");
+    try {
+      String key1 = ProgramCache.computeKey(sourceMap, OPTIONS);
+      Assert.assertFalse(key.equals(key1));
+      System.setProperty(name, "2");
+      Assert.assertFalse(key1.equals(ProgramCache.computeKey(sourceMap, OPTIONS)));
+    } finally {
+      System.clearProperty(name);
+    }
+    Assert.assertEquals(key, ProgramCache.computeKey(sourceMap, OPTIONS));
+  }
+
+  @Test
+  public void keyIgnoresOtherProperties() throws IOException {
+    LinkedHashMap<String, String> sourceMap = sources("a.dart", "main() {}");
+    String name = "jdart.jar";
+    String oldValue = System.getProperty(name);
+    String key = ProgramCache.computeKey(sourceMap, OPTIONS);
+    System.setProperty(name, "programCacheTest.jar");
+    try {
+      Assert.assertEquals(key, ProgramCache.computeKey(sourceMap, OPTIONS));
+    } finally {
+      if (oldValue == null) {
+        System.clearProperty(name);
+      } else {
+        System.setProperty(name, oldValue);
+      }
+    }
+  }
+}
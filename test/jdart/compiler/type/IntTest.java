@@ -1175,4 +1175,25 @@ public class IntTest {
     Assert.assertTrue(range(true, 5, 10).isIncludeIn(range(true, 0, 20)));
     Assert.assertFalse(range(true, 5, 10).isIncludeIn(range(false, 0, 20)));
   }
+  
+  @Test
+  public void inductionValues() {
+    BigInteger one = BigInteger.ONE;
+    BigInteger minusOne = one.negate();
+    // for(var i = 0; i < 1024; i++)
+    Assert.assertEquals(range(0, 1024), range(0, 0).inductionValues(range(1024, 1024), false, one));
+    // for(var i = 0; i <= n; i += 2) with n in [0, 10]
+    Assert.assertEquals(range(0, 12), range(0, 0).inductionValues(range(0, 10), true, BigInteger.valueOf(2)));
+    // do { } while(--i > 0) with i in [50, 50]
+    Assert.assertEquals(range(0, 50), range(50, 50).inductionValues(range(0, 0), false, minusOne));
+    // the initial value is greater than the bound
+    Assert.assertEquals(range(0, 101), range(0, 100).inductionValues(range(10, 10), false, one));
+
+    Assert.assertNull(range(0, 0).inductionValues(range(0, null), false, one));
+    Assert.assertNull(range(0, 0).inductionValues(range(null, 0), false, minusOne));
+    Assert.assertNull(range(0, null).inductionValues(range(10, 10), false, one));
+    Assert.assertNull(range(0, 0).inductionValues(range(0, Integer.MAX_VALUE), true, one));
+    Assert.assertNull(range(0, 0).inductionValues(range(0, Integer.MAX_VALUE), false, one));
+    Assert.assertEquals(range(0, Integer.MAX_VALUE - 1), range(0, 0).inductionValues(range(0, Integer.MAX_VALUE - 1), false, one));
+  }
 }
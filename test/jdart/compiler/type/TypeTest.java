@@ -161,4 +161,42 @@ public class TypeTest {
     Assert.assertEquals(BigInteger.valueOf(0), NEGATIVE_INT32_TYPE.getMaxBound());
     Assert.assertEquals(BigInteger.valueOf(Integer.MIN_VALUE), NEGATIVE_INT32_TYPE.getMinBound());
   }
+  
+  @Test
+  @SuppressWarnings("try")  // the scope is only closed
+  public void internedTypes() {
+    try(TypeRepository.Scope scope = new TypeRepository(null).enterScope()) {
+      Assert.assertSame(IntType.constant(BigInteger.TEN), IntType.constant(BigInteger.TEN));
+      Assert.assertSame(INT32_TYPE, INT_NON_NULL_TYPE.asTypeGreaterOrEqualsThan(BigInteger.valueOf(Integer.MIN_VALUE))
+          .asTypeLessOrEqualsThan(BigInteger.valueOf(Integer.MAX_VALUE)));
+      Assert.assertSame(DoubleType.constant(42.0), DoubleType.constant(42.0));
+      Assert.assertSame(DOUBLE_TYPE, DOUBLE_NON_NULL_TYPE.asNullable());
+    }
+  }
+  
+  @Test
+  @SuppressWarnings("try")  // the scope is only closed
+  public void memoizedOperations() {
+    try(TypeRepository.Scope scope = new TypeRepository(null).enterScope()) {
+      IntType ten = IntType.constant(BigInteger.TEN);
+      Assert.assertSame(ten.add(POSITIVE_INT32_TYPE), ten.add(POSITIVE_INT32_TYPE));
+      Assert.assertSame(POSITIVE_INT32_TYPE.commonValuesWith(NEGATIVE_INT32_TYPE), POSITIVE_INT32_TYPE.commonValuesWith(NEGATIVE_INT32_TYPE));
+      Assert.assertNull(POSITIVE_INT32_TYPE.lessThanValues(IntType.constant(BigInteger.ZERO), false));
+      Assert.assertNull(POSITIVE_INT32_TYPE.lessThanValues(IntType.constant(BigInteger.ZERO), false));
+    }
+  }
+  
+  @Test
+  @SuppressWarnings("try")  // the scope is only closed
+  public void cachesPerRepository() {
+    IntType ten;
+    try(TypeRepository.Scope scope = new TypeRepository(null).enterScope()) {
+      ten = IntType.constant(BigInteger.TEN);
+    }
+    try(TypeRepository.Scope scope = new TypeRepository(null).enterScope()) {
+      IntType otherTen = IntType.constant(BigInteger.TEN);
+      Assert.assertEquals(ten, otherTen);
+      Assert.assertNotSame(ten, otherTen);
+    }
+  }
 }
@@ -146,4 +146,19 @@ public class UnionTest {
     Assert.assertEquals(unionType2, unionType1.greaterThanOrEqualsValues(int3, false));
     Assert.assertEquals(int6, unionType1.greaterThanOrEqualsValues(int5, false));
   }
+
+  @Test
+  @SuppressWarnings("try")  // the scope is only closed
+  public void memoizedUnionsKeepTheirOrder() {
+    try(TypeRepository.Scope scope = new TypeRepository(null).enterScope()) {
+      UnionType union1 = union(DoubleType.constant(1.5), DoubleType.constant(2.5));
+      UnionType union2 = union(DoubleType.constant(2.5), DoubleType.constant(1.5));
+      Assert.assertEquals(union1, union2);
+      Assert.assertFalse(union1.getKey().equals(union2.getKey()));
+
+      // equal unions with a different order must not share their memoized results
+      Assert.assertSame(union1.asNullable(), Types.union(union1, NULL_TYPE));
+      Assert.assertSame(union2.asNullable(), Types.union(union2, NULL_TYPE));
+    }
+  }
 }
@@ -0,0 +1,101 @@
+package jdart.runtime;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import jdart.runtime.RT.InliningCacheCallSite;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RTTest {
+  @Test
+  public void nullableDoubleEquality() {
+    Assert.assertTrue(RT.eqNullableDouble(RT.NULL_DOUBLE, RT.NULL_DOUBLE));
+    Assert.assertFalse(RT.eqNullableDouble(RT.NULL_DOUBLE, 1.5));
+    Assert.assertFalse(RT.eqNullableDouble(1.5, RT.NULL_DOUBLE));
+    Assert.assertTrue(RT.eqNullableDouble(1.5, 1.5));
+    Assert.assertFalse(RT.eqNullableDouble(1.5, 2.5));
+  }
+
+  @Test
+  public void nanIsNotNull() {
+    Assert.assertFalse(RT.eqNullableDouble(Double.NaN, Double.NaN));
+    Assert.assertFalse(RT.eqNullableDouble(Double.NaN, RT.NULL_DOUBLE));
+    Assert.assertFalse(RT.isNullDouble(0.0 / 0.0));
+  }
+
+  @Test
+  public void shiftRightByABigCount() {
+    BigInt count = BigInt.valueOf(1L << 31);
+    Assert.assertEquals(BigInt.ZERO, RT.shiftRightBig(42, null, 0, count));
+    Assert.assertEquals(BigInt.valueOf(-1), RT.shiftRightBig(-42, null, 0, count));
+    Assert.assertEquals(BigInt.ZERO, RT.shiftRightBig(42, null, 0, BigInt.valueOf(1L << 40)));
+    Assert.assertEquals(BigInt.valueOf(-1), RT.shiftRightBig(-42, null, 0, BigInt.valueOf(1L << 40)));
+  }
+
+  @Test(expected=IllegalArgumentException.class)
+  public void shiftRightByANegativeBigCount() {
+    RT.shiftRightBig(42, null, 0, BigInt.valueOf(-(1L << 31)));
+  }
+
+  @Test(expected=IllegalArgumentException.class)
+  public void shiftRightByANegativeSmallBigCount() {
+    RT.shiftRightBig(42, null, 0, BigInt.valueOf(-3));
+  }
+
+  @Test(expected=IllegalArgumentException.class)
+  public void shiftLeftByANegativeBigCount() {
+    RT.shiftLeftBig(42, null, 0, BigInt.valueOf(-(1L << 31)));
+  }
+
+  @Test(expected=ArithmeticException.class)
+  public void shiftLeftByABigCount() {
+    RT.shiftLeftBig(42, null, 0, BigInt.valueOf(1L << 31));
+  }
+
+  @Test
+  public void shiftByACountStoredAsABigInt() {
+    Assert.assertEquals(BigInt.valueOf(5), RT.shiftRightBig(42, null, 0, BigInt.valueOf(3)));
+    Assert.assertEquals(BigInt.valueOf(336), RT.shiftLeftBig(42, null, 0, BigInt.valueOf(3)));
+  }
+
+  @Test
+  public void inliningCacheConcurrentMisses() throws Throwable {
+    MethodType methodType = MethodType.methodType(String.class, Object.class);
+    final InliningCacheCallSite callSite = (InliningCacheCallSite) RT.methodCallBSM(MethodHandles.lookup(), "toString", methodType);
+    final MethodHandle invoker = callSite.dynamicInvoker();
+    final Object[] receivers = { "a", 1, 2L, 3.0, 'c', true, new StringBuilder("sb") };
+
+    ArrayList<Thread> threads = new ArrayList<>();
+    final ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+    for(int i = 0; i < 8; i++) {
+      Thread thread = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            for(int j = 0; j < 1000; j++) {
+              Object receiver = receivers[j % receivers.length];
+              Assert.assertEquals(receiver.toString(), (String) invoker.invokeExact(receiver));
+            }
+          } catch (Throwable e) {
+            errors.add(e);
+          }
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for(Thread thread: threads) {
+      thread.join();
+    }
+    Assert.assertTrue(errors.toString(), errors.isEmpty());
+    synchronized(callSite) {
+      Assert.assertTrue(callSite.megamorphic);
+      Assert.assertEquals(InliningCacheCallSite.MAX_DEPTH, callSite.depth);
+    }
+  }
+}